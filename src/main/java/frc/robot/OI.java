@@ -2,7 +2,8 @@ package frc.robot;
 
 import edu.wpi.first.wpilibj.GenericHID;
 import edu.wpi.first.wpilibj.Joystick;
-import edu.wpi.first.wpilibj.buttons.JoystickButton;
+import edu.wpi.first.wpilibj.Timer;
+import edu.wpi.first.wpilibj.buttons.Button;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import frc.robot.RobotMap.DS_USB;
@@ -10,7 +11,11 @@ import frc.robot.commands.*;
 import frc.robot.subsystems.Claw;
 import frc.robot.subsystems.Elevator;
 import frc.robot.subsystems.Elevator.ElevatorPosition;
+import frc.util.ButtonSampler;
+import frc.util.InputShaper;
+import frc.util.OutputArbiter;
 import frc.util.ShuffleDash;
+import frc.util.config.ControlsSettings;
 
 /**
  * This class is the glue that binds the controls on the physical operator
@@ -55,14 +60,22 @@ import frc.util.ShuffleDash;
  *
  */
 public class OI {
-	private final double DEADZONE = 0.2;
+	private final double PERIOD = 0.02, MAX_DT = 0.1;
 	private static Logger log = LogManager.getLogger(OI.class);
 
+	// One shaper per axis; getX() and getY() return their latest values
+	private InputShaper leftX, leftY, rightX, rightY, gamepadX, gamepadY;
+	private double lastUpdate = Double.NaN;
+
 	private Joystick leftStick, rightStick, gamepad;
+	private ButtonSampler buttons;
+
+	public static final int RUMBLE_STATUS = 0, RUMBLE_ALERT = 1;
+	private OutputArbiter rumble;
 
-	private JoystickButton left1, left2, left3, left4, left5;
-	private JoystickButton right1, right2, right3, right4, right5, right6, right7, right8, right9, right10, right11;
-	private JoystickButton gamepad_a, gamepad_b, gamepad_x, gamepad_y, gamepad_rb, gamepad_lb, gamepad_start, gamepad_back, gamepad_L3, gamepad_R3;
+	private Button left1, left2, left3, left4, left5;
+	private Button right1, right2, right3, right4, right5, right6, right7, right8, right9, right10, right11;
+	private Button gamepad_a, gamepad_b, gamepad_x, gamepad_y, gamepad_rb, gamepad_lb, gamepad_start, gamepad_back, gamepad_L3, gamepad_R3;
 
 	private ShuffleDash shuffleboard;
 
@@ -70,13 +83,17 @@ public class OI {
 		leftStick = new Joystick(DS_USB.LEFT_STICK);
 		rightStick = new Joystick(DS_USB.RIGHT_STICK);
 		gamepad = new Joystick(DS_USB.GAMEPAD);
+		buttons = new ButtonSampler(DS_USB.LEFT_STICK, DS_USB.RIGHT_STICK, DS_USB.GAMEPAD);
+		rumble = new OutputArbiter(this::writeRumble, 1, 2, 0.01, 1.0);
+
+		setDriverProfile(ControlsSettings.getDriverProfile());
 
 		// Left stick button binds
-		left1 = new JoystickButton(leftStick, RobotMap.JOYSTICK_BUTTONS.BTN1);
-        left2 = new JoystickButton(leftStick, RobotMap.JOYSTICK_BUTTONS.BTN2);
-        left3 = new JoystickButton(leftStick, RobotMap.JOYSTICK_BUTTONS.BTN3);
-        left4 = new JoystickButton(leftStick, RobotMap.JOYSTICK_BUTTONS.BTN4);
-		left5 = new JoystickButton(leftStick, RobotMap.JOYSTICK_BUTTONS.BTN5);
+		left1 = buttons.getButton(DS_USB.LEFT_STICK, RobotMap.JOYSTICK_BUTTONS.BTN1);
+        left2 = buttons.getButton(DS_USB.LEFT_STICK, RobotMap.JOYSTICK_BUTTONS.BTN2);
+        left3 = buttons.getButton(DS_USB.LEFT_STICK, RobotMap.JOYSTICK_BUTTONS.BTN3);
+        left4 = buttons.getButton(DS_USB.LEFT_STICK, RobotMap.JOYSTICK_BUTTONS.BTN4);
+		left5 = buttons.getButton(DS_USB.LEFT_STICK, RobotMap.JOYSTICK_BUTTONS.BTN5);
 
         left1.whenPressed(new UseClaw(Claw.ClawState.GRAB));
         left2.whenPressed(new UseElevator(Elevator.ElevatorPosition.CUBE_LEVEL_2));	//For grabbing cubes from PCZ
@@ -85,17 +102,17 @@ public class OI {
 		left5.whileHeld(new ManualClaw(Claw.ClawState.GRAB));
 
 		// Right stick button binds
-		right1 = new JoystickButton(rightStick,1);
-		right2 = new JoystickButton(rightStick, 2);
-		right3 = new JoystickButton(rightStick, 3);
-		right4 = new JoystickButton(rightStick, 4);
-		right5 = new JoystickButton(rightStick, 5);
-		right6 = new JoystickButton(rightStick, 6);
-		right7 = new JoystickButton(rightStick, 7);
-        right8 = new JoystickButton(rightStick, 8);
-        right9 = new JoystickButton(rightStick, 9);
-		right10 = new JoystickButton(rightStick, 10);
-		right11 = new JoystickButton(rightStick, 11);
+		right1 = buttons.getButton(DS_USB.RIGHT_STICK, 1);
+		right2 = buttons.getButton(DS_USB.RIGHT_STICK, 2);
+		right3 = buttons.getButton(DS_USB.RIGHT_STICK, 3);
+		right4 = buttons.getButton(DS_USB.RIGHT_STICK, 4);
+		right5 = buttons.getButton(DS_USB.RIGHT_STICK, 5);
+		right6 = buttons.getButton(DS_USB.RIGHT_STICK, 6);
+		right7 = buttons.getButton(DS_USB.RIGHT_STICK, 7);
+        right8 = buttons.getButton(DS_USB.RIGHT_STICK, 8);
+        right9 = buttons.getButton(DS_USB.RIGHT_STICK, 9);
+		right10 = buttons.getButton(DS_USB.RIGHT_STICK, 10);
+		right11 = buttons.getButton(DS_USB.RIGHT_STICK, 11);
 
 		right1.whenPressed(new UseClaw(Claw.ClawState.EJECT));
 		right2.whenPressed(new UseClaw(Claw.ClawState.SLOW_EJECT));
@@ -103,17 +120,21 @@ public class OI {
 		right4.whileHeld(new ManualClaw(Claw.ClawState.EJECT));
 		right8.whenPressed(new CalibrateGyro());
 
+		// For fitting ProfiledRotate's feedforward gains on the robot
+		right6.whenPressed(new ProfiledRotate(90, DegreeRotate.RotationType.RELATIVE));
+		right7.whenPressed(new ProfiledRotate(-90, DegreeRotate.RotationType.RELATIVE));
+
 		// Gamepad button binds
-		gamepad_a = new JoystickButton(gamepad, RobotMap.GAMEPAD_BUTTONS.A);
-		gamepad_b = new JoystickButton(gamepad, RobotMap.GAMEPAD_BUTTONS.B);
-		gamepad_x = new JoystickButton(gamepad, RobotMap.GAMEPAD_BUTTONS.X);
-		gamepad_y = new JoystickButton(gamepad, RobotMap.GAMEPAD_BUTTONS.Y);
-		gamepad_start = new JoystickButton(gamepad, RobotMap.GAMEPAD_BUTTONS.START);
-		gamepad_back = new JoystickButton(gamepad, RobotMap.GAMEPAD_BUTTONS.BACK);
-		gamepad_lb = new JoystickButton(gamepad, RobotMap.GAMEPAD_BUTTONS.LB);
-		gamepad_rb = new JoystickButton(gamepad, RobotMap.GAMEPAD_BUTTONS.RB);
-		gamepad_L3 = new JoystickButton(gamepad, RobotMap.GAMEPAD_BUTTONS.L3);
-		gamepad_R3 = new JoystickButton(gamepad, RobotMap.GAMEPAD_BUTTONS.R3);
+		gamepad_a = buttons.getButton(DS_USB.GAMEPAD, RobotMap.GAMEPAD_BUTTONS.A);
+		gamepad_b = buttons.getButton(DS_USB.GAMEPAD, RobotMap.GAMEPAD_BUTTONS.B);
+		gamepad_x = buttons.getButton(DS_USB.GAMEPAD, RobotMap.GAMEPAD_BUTTONS.X);
+		gamepad_y = buttons.getButton(DS_USB.GAMEPAD, RobotMap.GAMEPAD_BUTTONS.Y);
+		gamepad_start = buttons.getButton(DS_USB.GAMEPAD, RobotMap.GAMEPAD_BUTTONS.START);
+		gamepad_back = buttons.getButton(DS_USB.GAMEPAD, RobotMap.GAMEPAD_BUTTONS.BACK);
+		gamepad_lb = buttons.getButton(DS_USB.GAMEPAD, RobotMap.GAMEPAD_BUTTONS.LB);
+		gamepad_rb = buttons.getButton(DS_USB.GAMEPAD, RobotMap.GAMEPAD_BUTTONS.RB);
+		gamepad_L3 = buttons.getButton(DS_USB.GAMEPAD, RobotMap.GAMEPAD_BUTTONS.L3);
+		gamepad_R3 = buttons.getButton(DS_USB.GAMEPAD, RobotMap.GAMEPAD_BUTTONS.R3);
 
 		gamepad_a.whenPressed(new UseElevator(Elevator.ElevatorPosition.FLOOR));
 		gamepad_x.whenPressed(new UseElevator(Elevator.ElevatorPosition.DRIVE_CUBE));
@@ -129,78 +150,115 @@ public class OI {
 		shuffleboard = new ShuffleDash();
 	}
 	
+	/**
+	 * Loads a driver's input shaping for every axis.
+	 * The shaped values start again from rest.
+	 *
+	 * @param profile name of the driver's profile in controls.properties
+	 */
+	public void setDriverProfile(String profile) {
+		double[] move = ControlsSettings.getInputShaping(profile, "move");
+		double[] turn = ControlsSettings.getInputShaping(profile, "turn");
+		double[] operator = ControlsSettings.getInputShaping(profile, "gamepad");
+
+		leftX = new InputShaper(turn);
+		leftY = new InputShaper(move);
+		rightX = new InputShaper(turn);
+		rightY = new InputShaper(move);
+		gamepadX = new InputShaper(operator);
+		gamepadY = new InputShaper(operator);
+
+		log.info("Using input shaping for driver profile " + profile);
+	}
+
+	/**
+	 * Reads every button and reads and shapes every axis. Call once per loop,
+	 * before the scheduler runs, so every command and button binding sees
+	 * the same values for the loop. Rumble asked for last loop is sent here too.
+	 */
+	public void update() {
+		double now = Timer.getFPGATimestamp();
+		double dt = now - lastUpdate;
+		lastUpdate = now;
+
+		// The first loop, or one after a long pause, counts as a normal loop
+		if (!(dt > 0 && dt <= MAX_DT))
+			dt = PERIOD;
+
+		leftX.shape(leftStick.getX(), dt);
+		leftY.shape(leftStick.getY(), dt);
+		rightX.shape(rightStick.getX(), dt);
+		rightY.shape(rightStick.getY(), dt);
+		gamepadX.shape(gamepad.getRawAxis(4), dt);
+		gamepadY.shape(-gamepad.getRawAxis(5), dt);
+
+		buttons.update();
+		rumble.update(now);
+	}
+
 	/**
 	 * Gets the y-value for driving forwards/backwards.
-	 * A deadzone is applied to this value.
+	 * Input shaping is applied to this value.
 	 * 
 	 * @param id the device ID of the axis.
-	 * @return y-axis of joystick, deadzone applied.
+	 * @return y-axis of joystick as of the last {@link #update()}, shaped.
 	 */
 	public double getY(int id) {
-		double val;
-		
 		switch(id) {
 			case DS_USB.LEFT_STICK:
-				val = leftStick.getY();
-				break;
+				return leftY.get();
 			case DS_USB.RIGHT_STICK:
-				val = rightStick.getY();
-				break;
+				return rightY.get();
 			case DS_USB.GAMEPAD:
-				val = -(gamepad.getRawAxis(5));
-				break;
+				return gamepadY.get();
 			default:
-				val = -1;
+				return -1;
 		}
-		
-		return applyDeadzone(val);
 	}
 	
 	/**
 	 * Gets the x-value for rotating right/left.
-	 * A deadzone is applied to this value.
+	 * Input shaping is applied to this value.
 	 * 
 	 * @param id the device ID of the axis.
-	 * @return x-axis of joystick, deadzone applied.
+	 * @return x-axis of joystick as of the last {@link #update()}, shaped.
 	 */
 	public double getX(int id) {
-		double val;
-		
 		switch(id) {
 			case DS_USB.LEFT_STICK:
-				val = leftStick.getX();
-				break;
+				return leftX.get();
 			case DS_USB.RIGHT_STICK:
-				val = rightStick.getX();
-				break;
+				return rightX.get();
 			case DS_USB.GAMEPAD:
-				val = gamepad.getRawAxis(4);
-				break;
+				return gamepadX.get();
 			default:
-				val = -1;
+				return -1;
 		}
-		
-		return applyDeadzone(val);
 	}
-	
+
 	/**
-	 * Applies the deadzone to a given value.
-	 * 
-	 * @param val value to apply a deadzone to.
-	 * @return {@code val} if |{@code val}| >= 0.1, 0 otherwise.
+	 * Asks for the gamepad to rumble, at the lowest priority.
+	 * The rumble is only sent when it changes.
+	 *
+	 * @param rumbleVal rumble from 0 to 1
 	 */
-	private double applyDeadzone(double val) {
-		return Math.abs(val) >= DEADZONE ? val : 0;
+	public void rumbleController(double rumbleVal) {
+		rumble.set(RUMBLE_STATUS, OutputArbiter.Pattern.SOLID, 0, Math.max(rumbleVal, 0));
 	}
 
-	public void rumbleController(double rumbleVal) {
-		if (rumbleVal > 0) {
-			gamepad.setRumble(GenericHID.RumbleType.kLeftRumble, rumbleVal);
-			gamepad.setRumble(GenericHID.RumbleType.kRightRumble, rumbleVal);
-		} else {
-			gamepad.setRumble(GenericHID.RumbleType.kLeftRumble, 0.0);
-			gamepad.setRumble(GenericHID.RumbleType.kRightRumble, 0.0);
-		}
+	/**
+	 * Gets the rumble arbiter, for commands that want to rumble the gamepad
+	 * over the claw's rumble. Requests above {@link #RUMBLE_STATUS} take precedence.
+	 *
+	 * @return the rumble arbiter
+	 */
+	public OutputArbiter getRumble() {
+		return rumble;
+	}
+
+	private void writeRumble(double[] rumbleVal) {
+		gamepad.setRumble(GenericHID.RumbleType.kLeftRumble, rumbleVal[0]);
+		gamepad.setRumble(GenericHID.RumbleType.kRightRumble, rumbleVal[0]);
 	}
 
 	public Joystick getLeftStick() {
@@ -1,8 +1,8 @@
 package frc.robot;
 
-import edu.wpi.first.networktables.*;
 import edu.wpi.first.wpilibj.DriverStation;
 import edu.wpi.first.wpilibj.TimedRobot;
+import edu.wpi.first.wpilibj.Timer;
 import edu.wpi.first.wpilibj.command.Scheduler;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -10,18 +10,31 @@ import frc.robot.RobotMap.AIO;
 import frc.robot.RobotMap.CAN;
 import frc.robot.RobotMap.PWM;
 import frc.robot.auton.*;
-import frc.robot.auton.TaskConfig.*;
+import frc.robot.commands.RotationBenchmark;
+import frc.robot.commands.UnitConversionBenchmark;
+import frc.robot.sensors.PiVision;
+import frc.robot.sensors.PiVisionStandIn;
 import frc.robot.subsystems.Claw;
 import frc.robot.subsystems.DriveTrain;
 import frc.robot.subsystems.Elevator;
 import frc.robot.subsystems.PDP;
 import frc.util.GameData;
+import frc.util.RamseteController;
+import frc.util.config.ControlsSettings;
 import frc.util.config.DriveTrainSettings;
 import frc.util.config.ManipulatorSettings;
 import frc.util.config.SensorsSettings;
+import frc.util.telemetry.InputFrame;
+import frc.util.telemetry.InputRecorder;
+import frc.util.telemetry.TelemetryDashboard;
+import frc.util.telemetry.TelemetryLogger;
+import frc.util.telemetry.TelemetryPublisher;
+import frc.util.telemetry.TelemetryRegistry;
+import jaci.pathfinder.Trajectory;
 import jaci.pathfinder.Waypoint;
 import jaci.pathfinder.Pathfinder;
 
+import java.io.File;
 import java.util.Map;
 
 /**
@@ -42,7 +55,11 @@ public class Robot extends TimedRobot {
 
 	public static Map<String, AutonTrajectoryGenerator.TrajectoryPair> autonTrajectories;
 	private AutonCommand autonCommand;
-	private AutonBuilder autonBuilderLLL, autonBuilderRRR, autonBuilderRLR, autonBuilderLRL;
+	private AutonRoutineTable autonRoutines;
+	private PiVisionStandIn piVisionStandIn;
+	private InputRecorder inputRecorder;
+	private TelemetryLogger telemetryLogger;
+	private final InputFrame inputFrame = new InputFrame();
 
 	public static OI oi;
 
@@ -50,6 +67,7 @@ public class Robot extends TimedRobot {
 		DriveTrainSettings.initialize();
 		SensorsSettings.initialize();
 		ManipulatorSettings.initialize();
+		ControlsSettings.initialize();
     }
 
 	/**
@@ -77,6 +95,17 @@ public class Robot extends TimedRobot {
 
 		claw = new Claw(AIO.ULTRASONIC, CAN.CANIFIER, PWM.LIDAR, CAN.LEFT_CLAW_LEADER, CAN.RIGHT_CLAW_FOLLOWER);
 
+		autonRoutines = new AutonRoutineTable();
+
+		inputRecorder = new InputRecorder(new File("/home/lvuser/logs"));
+
+		// Subsystems have registered their channels by now; these drain them off the robot loop
+		TelemetryRegistry telemetry = TelemetryRegistry.getInstance();
+		telemetryLogger = new TelemetryLogger(new File("/home/lvuser/logs"), telemetry);
+		telemetry.addConsumer(telemetryLogger, 0.020);
+		telemetry.addConsumer(new TelemetryDashboard(), 0.100);
+		telemetry.addConsumer(new TelemetryPublisher("Telemetry"), 0.100);
+
 		// OI NEEDS to be constructed as the last line for everything to work.
 		oi = new OI();
 	}
@@ -88,13 +117,25 @@ public class Robot extends TimedRobot {
 	 */
 	@Override
 	public void disabledInit() {
+		inputRecorder.close();
+		telemetryLogger.close();
 
+		if (piVisionStandIn != null) {
+			piVisionStandIn.stop();
+			piVisionStandIn.report();
+		}
 	}
 
 	@Override
 	public void disabledPeriodic() {
+		TelemetryRegistry.getInstance().startLoop(Timer.getFPGATimestamp());
+		oi.update();
+
 		// Keep this line; it's needed for commands.
 		Scheduler.getInstance().run();
+
+		// Build the auton routines ahead of time so autonomousInit only has to pick one.
+		autonRoutines.update();
 	}
 
 	/**
@@ -113,70 +154,25 @@ public class Robot extends TimedRobot {
 		log.info("-------------------AUTON INIT-------------------");
 		GameData.updateGameData();
 
-		try {
-			NetworkTable
-                    rootTable = NetworkTableInstance.getDefault().getTable("AutonConfiguration"),
-                    lllTable = rootTable.getSubTable("LLL"),
-                    lrlTable = rootTable.getSubTable("LRL"),
-                    rlrTable = rootTable.getSubTable("RLR"),
-                    rrrTable = rootTable.getSubTable("RRR");
-
-			AutonPosition startingPosition = AutonPosition.RIGHT;
-			NetworkTableValue startPosValue = rootTable.getEntry("startingPosition").getValue();
-
-			// This value has the possibility to not exist in the table.
-			// If it DOES exist, however, it will have a table type of kString.
-			// We can pull the value from it then.
-			if (startPosValue.getType() == NetworkTableType.kString) {
-                startingPosition = AutonPosition.fromString(startPosValue.getString());
-            }
-
-			AutonTask[] lllTasks = AutonTask.arrayFromString(lllTable.getEntry("tasks").getValue().getStringArray());
-			AutonTask[] lrlTasks = AutonTask.arrayFromString(lrlTable.getEntry("tasks").getValue().getStringArray());
-			AutonTask[] rlrTasks = AutonTask.arrayFromString(rlrTable.getEntry("tasks").getValue().getStringArray());
-			AutonTask[] rrrTasks = AutonTask.arrayFromString(rrrTable.getEntry("tasks").getValue().getStringArray());
-
-			ScoringSide[] lllSides = ScoringSide.arrayFromString(lllTable.getEntry("sides").getValue().getStringArray());
-			ScoringSide[] lrlSides = ScoringSide.arrayFromString(lrlTable.getEntry("sides").getValue().getStringArray());
-			ScoringSide[] rlrSides = ScoringSide.arrayFromString(rlrTable.getEntry("sides").getValue().getStringArray());
-			ScoringSide[] rrrSides = ScoringSide.arrayFromString(rrrTable.getEntry("sides").getValue().getStringArray());
-
-			FieldSide lllFieldSide = FieldSide.fromString(lllTable.getEntry("fieldSide").getValue().getString());
-			FieldSide lrlFieldSide = FieldSide.fromString(lrlTable.getEntry("fieldSide").getValue().getString());
-			FieldSide rlrFieldSide = FieldSide.fromString(rlrTable.getEntry("fieldSide").getValue().getString());
-			FieldSide rrrFieldSide = FieldSide.fromString(rrrTable.getEntry("fieldSide").getValue().getString());
-
-
-			autonBuilderLLL = new AutonBuilder(startingPosition, lllFieldSide, lllTasks, lllSides);
-			autonBuilderLRL = new AutonBuilder(startingPosition, lrlFieldSide, lrlTasks, lrlSides);
-			autonBuilderRLR = new AutonBuilder(startingPosition, rlrFieldSide, rlrTasks, rlrSides);
-			autonBuilderRRR = new AutonBuilder(startingPosition, rrrFieldSide, rrrTasks, rrrSides);
-
-			switch (GameData.getParsedString()) {
-                case "LLL":
-                    autonCommand = new AutonCommand(autonBuilderLLL);
-                    break;
-                case "RRR":
-                    autonCommand = new AutonCommand(autonBuilderRRR);
-                    break;
-                case "LRL":
-                    autonCommand = new AutonCommand(autonBuilderLRL);
-                    break;
-                case "RLR":
-                    autonCommand = new AutonCommand(autonBuilderRLR);
-                    break;
-                default:
-                    return;
-            }
-		} catch (Exception e) {
+		// The routines were built while disabled; building them now would hold up the start of auton,
+		// so if they are missing or out of date with the dashboard, just cross the auto line.
+		autonCommand = autonRoutines.isCurrent() ? autonRoutines.get(GameData.getParsedString()) : null;
+		if (autonCommand == null) {
 			log.warn("AUTON COULD NOT INIT! DEFAULTING TO AUTO-LINE!");
-			log.catching(e);
 			autonCommand = new AutonCommand();
 		}
+		autonRoutines.invalidate();
+
+		// Put the robot on the field so paths can be re-planned from where it really is
+		Waypoint start = autonRoutines.getStartingPosition().getStartWaypoint();
+		driveTrain.getOdometry().reset(start.x, start.y, start.angle);
 
 		if (autonCommand != null) {
 			autonCommand.start();
 		}
+
+		inputRecorder.start("auton");
+		telemetryLogger.start("telemetry-auton");
 	}
 
 	/**
@@ -184,13 +180,20 @@ public class Robot extends TimedRobot {
 	 */
 	@Override
 	public void autonomousPeriodic() {
+		TelemetryRegistry.getInstance().startLoop(Timer.getFPGATimestamp());
+		oi.update();
+
 		// Keep this line; it's needed for commands.
 		Scheduler.getInstance().run();
+
+		recordInputs(InputFrame.AUTONOMOUS);
 	}
 
 	@Override
 	public void teleopInit() {
 		log.info("-------------------TELEOP INIT-------------------");
+		inputRecorder.start("teleop");
+		telemetryLogger.start("telemetry-teleop");
 	}
 
 	/**
@@ -198,17 +201,66 @@ public class Robot extends TimedRobot {
 	 */
 	@Override
 	public void teleopPeriodic() {
+		TelemetryRegistry.getInstance().startLoop(Timer.getFPGATimestamp());
+		oi.update();
+
 		// Keep this line; it's needed for commands.
 		Scheduler.getInstance().run();
+
+		recordInputs(InputFrame.TELEOP);
+	}
+
+	/**
+	 * Records this loop's inputs, and what the subsystems made of them, for replay.
+	 * This runs after the scheduler, so the estimates are from the same loop as the inputs.
+	 *
+	 * @param mode the robot's mode
+	 */
+	private void recordInputs(byte mode) {
+		InputFrame frame = inputFrame;
+		frame.time = Timer.getFPGATimestamp();
+		frame.mode = mode;
+
+		// Forward positive, as the odometry sees them
+		frame.leftFeet = -driveTrain.getLeftEncPositionInFeet();
+		frame.rightFeet = -driveTrain.getRightEncPositionInFeet();
+		frame.gyroAngle = driveTrain.getGyro().getAngle();
+		frame.gyroRate = driveTrain.getGyro().getRate();
+
+		frame.elevatorHeight = elevator.getHeight();
+
+		frame.lidarReading = claw.getLidar().getLastReading();
+		frame.lidarConfidence = claw.getLidar().getConfidence();
+		frame.ultrasonicRange = claw.getUltrasonic().getRange();
+		frame.pixyOffset = claw.getCubeDisplacement();
+		frame.pixyInRange = claw.isCubeInRange();
+
+		frame.leftX = (float) oi.getLeftStick().getX();
+		frame.leftY = (float) oi.getLeftStick().getY();
+		frame.rightX = (float) oi.getRightStick().getX();
+		frame.rightY = (float) oi.getRightStick().getY();
+		frame.gamepadX = (float) oi.getGamepad().getRawAxis(4);
+		frame.gamepadY = (float) -oi.getGamepad().getRawAxis(5);
+
+		String gameData = DriverStation.getInstance().getGameSpecificMessage();
+		frame.gameData = gameData != null ? gameData : "";
+
+		frame.poseX = driveTrain.getOdometry().getX();
+		frame.poseY = driveTrain.getOdometry().getY();
+		frame.poseHeading = Math.toDegrees(driveTrain.getOdometry().getHeading());
+		frame.cubeRange = claw.getCubeRange(0);
+
+		inputRecorder.record(frame);
 	}
 
 	@Override
 	public void testInit() {
 		super.testInit();
 		long initTime = System.currentTimeMillis();
+		AutonTrajectoryGenerator.TrajectoryPair pair = null;
 
 		for(int i = 0; i <= 50; i++) {
-			AutonTrajectoryGenerator.generatePair(
+			pair = AutonTrajectoryGenerator.generatePair(
                 4.0, 3.0, 60.0, 3.4, new Waypoint[]{
                         new Waypoint(20.65, 3.00, Pathfinder.d2r(-90.00)),
                         new Waypoint(20.65, 6.00, Pathfinder.d2r(-90.00)),
@@ -218,6 +270,41 @@ public class Robot extends TimedRobot {
 
 		System.out.println((System.currentTimeMillis() - initTime) / 50);
 
+		benchmarkRamsete(pair);
+		RotationBenchmark.run();
+		UnitConversionBenchmark.run();
+
+		// Feed PiVision fake frames for the rest of test mode; the results are logged on disable
+		if (piVisionStandIn == null)
+			piVisionStandIn = new PiVisionStandIn(new PiVision(), 60, 4, 15);
+		piVisionStandIn.start();
+	}
+
+	/**
+	 * Times the path follower's controller math over every point of a path,
+	 * with the robot slightly off the path, to make sure an iteration of
+	 * {@link frc.robot.commands.FollowPath} stays well under its loop period.
+	 */
+	private void benchmarkRamsete(AutonTrajectoryGenerator.TrajectoryPair pair) {
+		RamseteController controller = new RamseteController(2.0, 0.7, 3.4);
+		Trajectory left = pair.getLeft(), right = pair.getRight();
+		int passes = 1000, iterations = 0;
+		double sink = 0;
+
+		long start = System.nanoTime();
+		for (int pass = 0; pass < passes; pass++) {
+			for (int i = 0; i < left.length(); i++) {
+				Trajectory.Segment l = left.get(i), r = right.get(i);
+				double x = (l.x + r.x) / 2, y = (l.y + r.y) / 2;
+
+				controller.calculate(x + 0.1, y - 0.1, l.heading + 0.05, x, y, l.heading, (l.velocity + r.velocity) / 2, 0.5);
+				sink += controller.getLeftVelocity();
+				iterations++;
+			}
+		}
+		long elapsed = System.nanoTime() - start;
+
+		log.info("Ramsete: " + (elapsed / iterations) + " ns per iteration over " + iterations + " iterations (" + sink + ")");
 	}
 
 	@Override
@@ -1,6 +1,7 @@
 package frc.robot.auton;
 
 import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.command.Command;
 import edu.wpi.first.wpilibj.command.CommandGroup;
 import edu.wpi.first.wpilibj.command.WaitCommand;
 import org.apache.logging.log4j.LogManager;
@@ -11,8 +12,16 @@ import frc.robot.auton.TaskConfig.*;
 import frc.robot.commands.*;
 import frc.robot.subsystems.Claw;
 import frc.robot.subsystems.Elevator;
+import frc.util.Correctable;
+import frc.util.EstimatedState;
 import frc.util.GameData;
 import frc.util.Recallable;
+import frc.util.config.DriveTrainSettings;
+import jaci.pathfinder.Waypoint;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
 
 /**
  * Command group that specifies the commands to be run
@@ -20,12 +29,16 @@ import frc.util.Recallable;
  */
 public class AutonCommand extends CommandGroup {
     private static Logger log = LogManager.getLogger(AutonCommand.class);
-    private AutonPosition workingSide;
+    private AutonPosition workingSide, startingPosition;
     private GameData.PlateSide comparableWorkingSide; //Our Working Side, comparable to the side of the Plate
     private AutonTask[] autonTasks;
     private ScoringSide[] scoreSide;
     private String posStr;
     private int rotationFactor;
+    private final EstimatedState estimatedStart;
+    private final List<Command> commands = new ArrayList<>();
+    private final BitSet parallelCommands = new BitSet();
+    private AutonTimeline timeline;
     private final double
             CUBE_PICKUP_X_OFFSET = 38.825,
             CUBE_PICKUP_Y_CONSTANT_OFFSET = 12.25,
@@ -34,7 +47,24 @@ public class AutonCommand extends CommandGroup {
             SWITCH_OFFSET = 45,
             AUTO_LINE = 168;
 
+    /**
+     * Constructs the auton for the plate assignment the FMS has sent.
+     *
+     * @param autonBuilder the auton configuration
+     */
     public AutonCommand(AutonBuilder autonBuilder) {
+        this(autonBuilder, GameData.getSwitchSide(), GameData.getScaleSide());
+    }
+
+    /**
+     * Constructs the auton for a given plate assignment. This allows autons to be
+     * built before the game data has arrived.
+     *
+     * @param autonBuilder the auton configuration
+     * @param switchSide   side of our switch plate
+     * @param scaleSide    side of the scale plate
+     */
+    public AutonCommand(AutonBuilder autonBuilder, GameData.PlateSide switchSide, GameData.PlateSide scaleSide) {
         // Add Commands here:
         // e.g. addSequential(new Command1());
         //      addSequential(new Command2());
@@ -52,10 +82,13 @@ public class AutonCommand extends CommandGroup {
         // a CommandGroup containing them would require both the chassis and the
         // arm.
 
-        GameData.PlateSide
-                scaleSide = GameData.getScaleSide(),
-                switchSide = GameData.getSwitchSide();
         workingSide = autonBuilder.getAutonPos();
+        startingPosition = workingSide;
+
+        // The elevator starts bottomed out, where its encoder is zeroed
+        Waypoint start = startingPosition.getStartWaypoint();
+        estimatedStart = new EstimatedState(start.x, start.y, start.angle, 0);
+
         posStr = workingSide.toString();
         switch (workingSide) {
             case LEFT:
@@ -90,12 +123,12 @@ public class AutonCommand extends CommandGroup {
             log.info(getName() + "Moving to AutoLine!");
             switch (workingSide) {
                 case MID:
-                    addParallel(new UseElevator(Elevator.ElevatorPosition.SWITCH));
-                    addSequential(new MoveOnPath("SwitchFront" + posStr, MoveOnPath.Direction.FORWARD));
-                    addSequential(new UseClaw(Claw.ClawState.EJECT));
+                    parallel(new UseElevator(Elevator.ElevatorPosition.SWITCH));
+                    recoverable(new MoveOnPath("SwitchFront" + posStr, MoveOnPath.Direction.FORWARD));
+                    sequential(new UseClaw(Claw.ClawState.EJECT));
                     break;
                 default:
-                    addSequential(new DriveDistance(AUTO_LINE, 1.0));
+                    recoverable(new DriveDistance(AUTO_LINE, 1.0));
             }
             log.info(getName() + "AutoLine complete!");
             return;
@@ -108,34 +141,34 @@ public class AutonCommand extends CommandGroup {
             case RIGHT:
                 switch (autonTasks[0]) {
                     case SCORE_SWITCH:
-                        addParallel(new UseElevator(Elevator.ElevatorPosition.SWITCH));
+                        parallel(new UseElevator(Elevator.ElevatorPosition.SWITCH));
                         log.info(getName() + ": Elevator set to switch height!");
                         if (switchSide == scaleSide) {
                             if (switchSide == comparableWorkingSide) {
-                                addSequential(new MoveOnPath("SwitchMid" + posStr, MoveOnPath.Direction.FORWARD));
-                                addSequential(new UseClaw(Claw.ClawState.EJECT));
+                                recoverable(new MoveOnPath("SwitchMid" + posStr, MoveOnPath.Direction.FORWARD));
+                                sequential(new UseClaw(Claw.ClawState.EJECT));
                                 if (autonTasks.length != 1) {
-                                    addSequential(new MoveOnPath("InitialCubeSetupPickup" + posStr, MoveOnPath.Direction.BACKWARD));  //TODO tune this
+                                    recoverable(new MoveOnPath("InitialCubeSetupPickup" + posStr, MoveOnPath.Direction.BACKWARD));  //TODO tune this
                                     degreeRotate = new DegreeRotate(getCubeTurnAngleScale(0, -rotationFactor, -90), DegreeRotate.RotationType.RELATIVE);
-                                    addSequential(degreeRotate);
+                                    sequential(degreeRotate);
                                     log.info(getName() + ": SwitchMid, Eject, InitialCubeSetupPickup, DegreeRotate constructed.");
                                 }
                             } else {
-                                addSequential(new DriveDistance(AUTO_LINE, 1.0));
+                                recoverable(new DriveDistance(AUTO_LINE, 1.0));
                                 log.info("Unsafe to run profile, resorting to AutoLine!");
                                 return;
                             }
                         } else {
                             if (switchSide == comparableWorkingSide) {
-                                addSequential(new MoveOnPath("SwitchMid" + posStr, MoveOnPath.Direction.FORWARD));
-                                addSequential(new UseClaw(Claw.ClawState.EJECT));
+                                recoverable(new MoveOnPath("SwitchMid" + posStr, MoveOnPath.Direction.FORWARD));
+                                sequential(new UseClaw(Claw.ClawState.EJECT));
                                 //addSequential(new MoveOnPath("InitialCubeSetupPickup" + posStr, MoveOnPath.Direction.BACKWARD));
                                 degreeRotate = new DegreeRotate(getCubeTurnAngleScale(0, -rotationFactor, -90), DegreeRotate.RotationType.RELATIVE);
                                 //addSequential(degreeRotate);
                                 log.info(getName() + ": SwitchMid, Eject, InitialCubeSetupPickup, DegreeRotate constructed.");
                                 log.info("Don't want to go to scale side from position, aborting!");
                             } else {
-                                addSequential(new DriveDistance(AUTO_LINE, 1.0));
+                                recoverable(new DriveDistance(AUTO_LINE, 1.0));
                                 log.info("Unsafe to run profile, resorting to AutoLine!");
                             }
                             return;
@@ -143,34 +176,34 @@ public class AutonCommand extends CommandGroup {
                         break;
                     case SCORE_SCALE:
                         if (scaleSide == comparableWorkingSide) {
-                            addParallel(new UseElevator(Elevator.ElevatorPosition.SCALE_HIGH));
-                            addParallel(new DelayableClaw(3.27, Claw.ClawState.SLOW_EJECT));
-                            addSequential(new MoveOnPath("InitialScaleFront" + posStr, MoveOnPath.Direction.FORWARD));
+                            parallel(new UseElevator(Elevator.ElevatorPosition.SCALE_HIGH));
+                            parallel(new DelayableClaw(3.27, Claw.ClawState.SLOW_EJECT));
+                            recoverable(new MoveOnPath("InitialScaleFront" + posStr, MoveOnPath.Direction.FORWARD));
                             log.info(getName() + ": added Scale height parallel to InitialScaleFront. Set for cube drop (SCALE).");
                         } else {
-                            addParallel(new DelayableElevator(3.5, Elevator.ElevatorPosition.SCALE_HIGH, true));
-                            addSequential(new MoveOnPath("InitialScaleFrontOpp" + posStr, MoveOnPath.Direction.FORWARD));
+                            parallel(new DelayableElevator(3.5, Elevator.ElevatorPosition.SCALE_HIGH, true));
+                            recoverable(new MoveOnPath("InitialScaleFrontOpp" + posStr, MoveOnPath.Direction.FORWARD, DriveTrainSettings.isArcModeEnabled()));
                             boolean continueAuto = switchWorkingSide();
                             if (!continueAuto) {
                                 log.info(getName() + ".switchWorkingSide() may throw errors, aborting!");
                                 return;
                             }
-                            addSequential(new DegreeRotate(85, DegreeRotate.RotationType.RELATIVE));
-                            addSequential(new DriveDistance(45, 1.0));
-                            addSequential(new UseClaw(Claw.ClawState.EJECT));
+                            sequential(new DegreeRotate(85, DegreeRotate.RotationType.RELATIVE));
+                            recoverable(new DriveDistance(45, 1.0));
+                            sequential(new UseClaw(Claw.ClawState.EJECT));
                             log.info(getName() + ": added Scale height parallel to InitialScaleFrontOpp. Set for cube drop (SCALE).");
                         }
-                        addParallel(new DelayableElevator(0.7, Elevator.ElevatorPosition.FLOOR, false));
-                        addSequential(new DriveDistance(-SCALE_OFFSET, 1.0));
+                        parallel(new DelayableElevator(0.7, Elevator.ElevatorPosition.FLOOR, false));
+                        recoverable(new DriveDistance(-SCALE_OFFSET, 1.0));
                         degreeRotate = new DegreeRotate(getCubeTurnAngleScale(0, rotationFactor, 90), DegreeRotate.RotationType.RELATIVE,  1.5);
-                        addSequential(degreeRotate);
+                        sequential(degreeRotate);
                         log.info(getName() + ": Eject, Floor height (parallel), DriveDistance, DegreeRotate constructed. Set for cube pickup.");
                 }
                 break;
             case MID:
-                addParallel(new UseElevator(Elevator.ElevatorPosition.SWITCH));
-                addParallel(new DelayableClaw(2.1, Claw.ClawState.EJECT));
-                addSequential(new MoveOnPath("SwitchFront" + posStr, MoveOnPath.Direction.FORWARD));
+                parallel(new UseElevator(Elevator.ElevatorPosition.SWITCH));
+                parallel(new DelayableClaw(2.1, Claw.ClawState.EJECT));
+                recoverable(new MoveOnPath("SwitchFront" + posStr, MoveOnPath.Direction.FORWARD));
                 //addSequential(new DriveDistance(-12, 1.0));
                 //addParallel(new UseElevator(Elevator.ElevatorPosition.FLOOR));
 
@@ -198,32 +231,32 @@ public class AutonCommand extends CommandGroup {
                         log.info(getName() + ": Unsafe to run next Rotate, aborting!");
                         return;
                     }
-                    addSequential(new DegreeRotate(degreeRotate, Recallable.RecallMethod.REVERSE));
+                    sequential(new DegreeRotate(degreeRotate, Recallable.RecallMethod.REVERSE));
                 }
-                addSequential(new GetCube());
-                addParallel(new UseElevator(Elevator.ElevatorPosition.DRIVE_CUBE));
-                addSequential(new DriveDistance(-35, 1.0));
+                sequential(new GetCube());
+                parallel(new UseElevator(Elevator.ElevatorPosition.DRIVE_CUBE));
+                recoverable(new DriveDistance(-35, 1.0));
             }
 
             log.info(getName() + ": DegreeRotate, GetCubeAuton constructed. Set for cube pickup.");
 
             switch (taskToComplete) {
                 case SCORE_SCALE:
-                    addParallel(new UseElevator(Elevator.ElevatorPosition.SCALE_HIGH));
+                    parallel(new UseElevator(Elevator.ElevatorPosition.SCALE_HIGH));
                     degreeRotate = new DegreeRotate(-110 * rotationFactor, DegreeRotate.RotationType.RELATIVE);
-                    addSequential(degreeRotate);
-                    addSequential(new DriveDistance(SCALE_OFFSET, 1.0));
-                    addSequential(new UseClaw(Claw.ClawState.EJECT));
-                    addParallel(new DelayableElevator(0.7, Elevator.ElevatorPosition.FLOOR, true));
-                    addSequential(new DriveDistance(-SCALE_OFFSET, 1.0));
+                    sequential(degreeRotate);
+                    recoverable(new DriveDistance(SCALE_OFFSET, 1.0));
+                    sequential(new UseClaw(Claw.ClawState.EJECT));
+                    parallel(new DelayableElevator(0.7, Elevator.ElevatorPosition.FLOOR, true));
+                    recoverable(new DriveDistance(-SCALE_OFFSET, 1.0));
                     log.info(getName() + ": Dropping cube number " + i + " into Scale constructed.");
                     break;
                 case SCORE_SWITCH:
-                    addParallel(new UseElevator(Elevator.ElevatorPosition.SWITCH));
-                    addSequential(new DriveDistance(SWITCH_OFFSET, 1.0));
-                    addSequential(new UseClaw(Claw.ClawState.EJECT));
-                    addParallel(new DelayableElevator(0.7, Elevator.ElevatorPosition.FLOOR, true));
-                    addSequential(new DriveDistance(-SWITCH_OFFSET, 1.0));
+                    parallel(new UseElevator(Elevator.ElevatorPosition.SWITCH));
+                    recoverable(new DriveDistance(SWITCH_OFFSET, 1.0));
+                    sequential(new UseClaw(Claw.ClawState.EJECT));
+                    parallel(new DelayableElevator(0.7, Elevator.ElevatorPosition.FLOOR, true));
+                    recoverable(new DriveDistance(-SWITCH_OFFSET, 1.0));
                     log.info(getName() + ": Dropping cube number " + i + " into Switch constructed.");
                     break;
             }
@@ -251,7 +284,51 @@ public class AutonCommand extends CommandGroup {
 
     public AutonCommand() {
         log.info("Constructing DriveDistance only AutonCommand, likely another kUnassigned exception.");
-        addSequential(new DriveDistance(168, 0.8));
+        estimatedStart = new EstimatedState(0, 0, 0, 0);
+        sequential(new DriveDistance(168, 0.8));
+    }
+
+    /**
+     * Gets the predicted timeline of this auton. It is only estimated the first time
+     * it is asked for, so building autons on the robot does not pay for it.
+     *
+     * @return the predicted timeline of this auton
+     */
+    public synchronized AutonTimeline getTimeline() {
+        if (timeline == null) {
+            timeline = new AutonTimeline(estimatedStart);
+
+            for (int i = 0; i < commands.size(); i++)
+                timeline.add(commands.get(i), parallelCommands.get(i));
+        }
+
+        return timeline;
+    }
+
+    /**
+     * Adds a command to run in order, recording it for the timeline.
+     */
+    private void sequential(Command command) {
+        addSequential(command);
+        commands.add(command);
+    }
+
+    /**
+     * Adds a command to run alongside the next one, recording it for the timeline.
+     */
+    private void parallel(Command command) {
+        addParallel(command);
+        parallelCommands.set(commands.size());
+        commands.add(command);
+    }
+
+    /**
+     * Adds a drive command to run in order, followed by a re-plan from the live pose
+     * to where it should have left the robot, in case it fails.
+     */
+    private <T extends Command & Correctable> void recoverable(T command) {
+        sequential(command);
+        sequential(new ReplanOnFailure(command));
     }
 
     private double getCubeTurnAngleScale(int cubesPickedUp, int rotationFactor, int addDeg) {
@@ -0,0 +1,141 @@
+package frc.robot.auton;
+
+import edu.wpi.first.hal.HAL;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import frc.robot.Robot;
+import frc.robot.RobotMap.AIO;
+import frc.robot.RobotMap.CAN;
+import frc.robot.RobotMap.PWM;
+import frc.robot.auton.TaskConfig.AutonTask;
+import frc.robot.auton.TaskConfig.ScoringSide;
+import frc.robot.subsystems.Claw;
+import frc.robot.subsystems.DriveTrain;
+import frc.robot.subsystems.Elevator;
+import frc.util.GameData;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Dry-runs every auton the dashboard can configure and reports whether each one
+ * fits in the autonomous period.
+ * <p>
+ * Each combination of starting position, plate assignment and task list is built into an
+ * {@link AutonCommand} without being run, and its {@link AutonTimeline} is logged along with
+ * the commands on its critical path. The timelines are estimated from where each auton starts,
+ * not from the robot's sensors.
+ * <p>
+ * Commands open the subsystems they require when they are constructed, which needs the HAL and
+ * CTRE's native libraries, so this runs on the roboRIO with the robot program stopped. The robot
+ * is never enabled, so nothing moves.
+ * <p>
+ * Usage: {@code java -cp <robot jar> frc.robot.auton.AutonEstimator}
+ */
+public class AutonEstimator {
+    private static Logger log = LogManager.getLogger(AutonEstimator.class);
+
+    private static final String[] PLATES = {"LLL", "LRL", "RLR", "RRR"};
+    private static final int MAX_TASKS = 3;
+
+    private AutonEstimator() { } // Should never be constructed.
+
+    /**
+     * Builds and times every combination, logging each timeline and a summary at the end.
+     */
+    public static void estimateAll() {
+        List<AutonTask[]> taskLists = getTaskLists();
+        int count = 0, over = 0, unmodeled = 0;
+        double worst = 0;
+        String worstName = "none";
+
+        long start = System.nanoTime();
+        for (AutonPosition position : AutonPosition.values()) {
+            for (String plates : PLATES) {
+                for (AutonTask[] tasks : taskLists) {
+                    ScoringSide[] sides = new ScoringSide[tasks.length];
+                    Arrays.fill(sides, ScoringSide.FRONT);
+
+                    String name = position + " " + plates + " " + Arrays.toString(tasks);
+
+                    try {
+                        AutonCommand auton = new AutonCommand(
+                            new AutonBuilder(position, FieldSide.LEFT_SIDE, tasks, sides),
+                            GameData.PlateSide.fromChar(plates.charAt(0)),
+                            GameData.PlateSide.fromChar(plates.charAt(1))
+                        );
+                        AutonTimeline timeline = auton.getTimeline();
+
+                        log.info(name + ":\n" + timeline.report());
+
+                        count++;
+                        if (!timeline.fits())
+                            over++;
+                        if (timeline.hasUnmodeled())
+                            unmodeled++;
+                        if (timeline.getDuration() > worst) {
+                            worst = timeline.getDuration();
+                            worstName = name;
+                        }
+                    } catch (Exception e) {
+                        log.warn(name + " could not be built!");
+                        log.catching(e);
+                    }
+                }
+            }
+        }
+
+        log.info("Estimated " + count + " autons in " + (System.nanoTime() - start) / 1_000_000 + " ms: "
+            + over + " over " + AutonTimeline.AUTON_PERIOD + " s, " + unmodeled + " with unmodeled commands. "
+            + "Longest is " + worstName + " at " + String.format("%.2f", worst) + " s.");
+    }
+
+    public static void main(String[] args) {
+        if (!HAL.initialize(500, 0)) {
+            System.err.println("Could not initialize the HAL; AutonEstimator has to run on the roboRIO");
+            System.exit(1);
+        }
+
+        // Settings are initialized along with Robot; the commands only need the subsystems they require
+        Robot.elevator = new Elevator(CAN.ELEVATOR_M, CAN.ELEVATOR_S);
+        Robot.driveTrain = new DriveTrain(CAN.DRIVETRAIN_ML, CAN.DRIVETRAIN_MR, CAN.DRIVETRAIN_SL, CAN.DRIVETRAIN_SR);
+        Robot.claw = new Claw(AIO.ULTRASONIC, CAN.CANIFIER, PWM.LIDAR, CAN.LEFT_CLAW_LEADER, CAN.RIGHT_CLAW_FOLLOWER);
+
+        estimateAll();
+
+        // The HAL and subsystems leave threads running
+        System.exit(0);
+    }
+
+    /**
+     * Every task list the dashboard can produce: an opening task, followed by
+     * up to {@link #MAX_TASKS} - 1 scoring tasks. Auto line autons stop after the first task.
+     */
+    private static List<AutonTask[]> getTaskLists() {
+        AutonTask[] scoring = {AutonTask.SCORE_SWITCH, AutonTask.SCORE_SCALE};
+        List<AutonTask[]> lists = new ArrayList<>();
+
+        lists.add(new AutonTask[]{AutonTask.AUTO_LINE});
+
+        List<AutonTask[]> previous = new ArrayList<>();
+        for (AutonTask task : scoring)
+            previous.add(new AutonTask[]{task});
+
+        for (int length = 1; length <= MAX_TASKS; length++) {
+            lists.addAll(previous);
+
+            List<AutonTask[]> next = new ArrayList<>();
+            for (AutonTask[] list : previous) {
+                for (AutonTask task : scoring) {
+                    AutonTask[] longer = Arrays.copyOf(list, list.length + 1);
+                    longer[list.length] = task;
+                    next.add(longer);
+                }
+            }
+            previous = next;
+        }
+
+        return lists;
+    }
+}
@@ -1,17 +1,32 @@
 package frc.robot.auton;
 
+import jaci.pathfinder.Waypoint;
+
 /**
  * Enumeration of possible auton positions.
  */
 public enum AutonPosition {
-    LEFT("Left"),
-    MID("Mid"),
-    RIGHT("Right");
+    LEFT("Left", 3.00, 23.21),
+    MID("Mid", 3.00, 13.00),
+    RIGHT("Right", 3.00, 3.79);
 
     private final String POSITION;
+    private final double START_X, START_Y;
 
-    AutonPosition(String p) {
+    AutonPosition(String p, double x, double y) {
         POSITION = p;
+        START_X = x;
+        START_Y = y;
+    }
+
+    /**
+     * Gets where the robot starts on the field for this position,
+     * in the same coordinates as the auton trajectories' waypoints.
+     *
+     * @return starting waypoint, in feet, facing downfield
+     */
+    public Waypoint getStartWaypoint() {
+        return new Waypoint(START_X, START_Y, 0);
     }
 
     public String toString() {
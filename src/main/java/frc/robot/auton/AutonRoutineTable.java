@@ -0,0 +1,150 @@
+package frc.robot.auton;
+
+import edu.wpi.first.networktables.NetworkTable;
+import edu.wpi.first.networktables.NetworkTableInstance;
+import edu.wpi.first.networktables.NetworkTableType;
+import edu.wpi.first.networktables.NetworkTableValue;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import frc.robot.auton.TaskConfig.AutonTask;
+import frc.robot.auton.TaskConfig.ScoringSide;
+import frc.util.GameData;
+
+import java.util.Arrays;
+
+/**
+ * Holds a fully built {@link AutonCommand} for every plate assignment.
+ * <p>
+ * Building an auton reads the chooser configuration and loads every trajectory it uses,
+ * which is too slow to do once the match has started. Instead, {@link #update()} is called
+ * while the robot is disabled and rebuilds the routines whenever the configuration
+ * from the dashboard changes, so that picking the routine in autonomousInit is just a lookup.
+ */
+public class AutonRoutineTable {
+    private static Logger log = LogManager.getLogger(AutonRoutineTable.class);
+
+    private static final String[] PLATES = {"LLL", "LRL", "RLR", "RRR"};
+
+    private final AutonCommand[] routines = new AutonCommand[PLATES.length];
+    private AutonPosition startingPosition = AutonPosition.RIGHT;
+    private String signature;
+    private boolean valid;
+
+    /**
+     * Rebuilds the routines if the auton configuration has changed since the last build.
+     * Meant to be called every disabled loop; does nothing if nothing has changed.
+     */
+    public void update() {
+        NetworkTable rootTable = NetworkTableInstance.getDefault().getTable("AutonConfiguration");
+        String newSignature = readSignature(rootTable);
+
+        if (newSignature.equals(signature))
+            return;
+
+        signature = newSignature;
+        valid = false;
+        Arrays.fill(routines, null);
+
+        long start = System.nanoTime();
+        try {
+            startingPosition = AutonPosition.RIGHT;
+            NetworkTableValue startPosValue = rootTable.getEntry("startingPosition").getValue();
+
+            // This value has the possibility to not exist in the table.
+            // If it DOES exist, however, it will have a table type of kString.
+            if (startPosValue.getType() == NetworkTableType.kString) {
+                startingPosition = AutonPosition.fromString(startPosValue.getString());
+            }
+
+            for (int i = 0; i < PLATES.length; i++) {
+                NetworkTable plateTable = rootTable.getSubTable(PLATES[i]);
+
+                AutonBuilder builder = new AutonBuilder(
+                    startingPosition,
+                    FieldSide.fromString(plateTable.getEntry("fieldSide").getValue().getString()),
+                    AutonTask.arrayFromString(plateTable.getEntry("tasks").getValue().getStringArray()),
+                    ScoringSide.arrayFromString(plateTable.getEntry("sides").getValue().getStringArray())
+                );
+
+                routines[i] = new AutonCommand(
+                    builder,
+                    GameData.PlateSide.fromChar(PLATES[i].charAt(0)),
+                    GameData.PlateSide.fromChar(PLATES[i].charAt(1))
+                );
+            }
+
+            valid = true;
+            log.info("Built auton routines in " + (System.nanoTime() - start) / 1_000_000 + " ms");
+        } catch (Exception e) {
+            log.warn("Could not build auton routines from the current configuration!");
+            log.catching(e);
+        }
+    }
+
+    /**
+     * Whether the last configuration read from the dashboard produced a complete set of routines.
+     * If not, autonomousInit should fall back to a default auton.
+     */
+    public boolean isValid() {
+        return valid;
+    }
+
+    /**
+     * Whether the routines were built from the configuration the dashboard has now.
+     * This only compares against the last build and never rebuilds, so it is quick enough
+     * to call once the match has started.
+     */
+    public boolean isCurrent() {
+        return valid && readSignature(NetworkTableInstance.getDefault().getTable("AutonConfiguration")).equals(signature);
+    }
+
+    /**
+     * Gets the routine built for a plate assignment.
+     *
+     * @param plates the parsed game data, e.g. "LRL"
+     * @return the routine, or null if there is none for this assignment
+     */
+    public AutonCommand get(String plates) {
+        for (int i = 0; i < PLATES.length; i++) {
+            if (PLATES[i].equals(plates))
+                return routines[i];
+        }
+
+        return null;
+    }
+
+    /**
+     * @return the starting position the routines were built for
+     */
+    public AutonPosition getStartingPosition() {
+        return startingPosition;
+    }
+
+    /**
+     * Forces the routines to be rebuilt on the next update. Commands cannot be
+     * safely reused once they have run, so this should be called after auton starts.
+     */
+    public void invalidate() {
+        signature = null;
+        valid = false;
+    }
+
+    /**
+     * Flattens every entry the routines depend on into one string that can be compared
+     * against the last build.
+     */
+    private static String readSignature(NetworkTable rootTable) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(rootTable.getEntry("startingPosition").getString(""));
+
+        for (String plates : PLATES) {
+            NetworkTable plateTable = rootTable.getSubTable(plates);
+            sb.append('|').append(plates)
+                .append(':').append(plateTable.getEntry("fieldSide").getString(""))
+                .append(':').append(Arrays.toString(plateTable.getEntry("tasks").getStringArray(new String[0])))
+                .append(':').append(Arrays.toString(plateTable.getEntry("sides").getStringArray(new String[0])));
+        }
+
+        return sb.toString();
+    }
+}
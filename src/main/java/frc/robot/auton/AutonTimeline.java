@@ -0,0 +1,175 @@
+package frc.robot.auton;
+
+import edu.wpi.first.wpilibj.command.Command;
+import edu.wpi.first.wpilibj.command.Subsystem;
+import frc.robot.Robot;
+import frc.util.Estimable;
+import frc.util.EstimatedState;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Predicted timeline of an auton, built up alongside its {@link AutonCommand}.
+ * <p>
+ * Entries are added in the same order as they are added to the command group and are
+ * scheduled the way a CommandGroup runs them: sequential commands start when the previous
+ * sequential command ends, parallel commands start at the same time as the next one, and
+ * a running parallel command is cut short when a later command requires the same subsystem.
+ * Durations come from {@link Estimable#estimateDuration(EstimatedState)}, each command estimating
+ * from the state the commands added before it leave; commands that cannot estimate
+ * themselves are counted as instant and reported as unmodeled.
+ */
+public class AutonTimeline {
+    /**
+     * Length of the autonomous period, in seconds.
+     */
+    public static final double AUTON_PERIOD = 15.0;
+
+    private final List<Entry> entries = new ArrayList<>();
+    private final EstimatedState state;
+    private double duration;
+    private int lastEntry = -1;
+
+    /**
+     * @param start where the robot is predicted to be when the auton starts
+     */
+    public AutonTimeline(EstimatedState start) {
+        state = start;
+    }
+
+    /**
+     * Adds a command to the end of the timeline.
+     *
+     * @param command  the command, as added to the command group
+     * @param parallel whether it was added with addParallel
+     */
+    public void add(Command command, boolean parallel) {
+        entries.add(new Entry(command, parallel, state));
+        schedule();
+    }
+
+    /**
+     * @return the predicted time for the whole auton to finish, in seconds
+     */
+    public double getDuration() {
+        return duration;
+    }
+
+    /**
+     * @return whether the auton is predicted to finish within the autonomous period
+     */
+    public boolean fits() {
+        return duration <= AUTON_PERIOD;
+    }
+
+    /**
+     * @return whether any command in the timeline could not be estimated
+     */
+    public boolean hasUnmodeled() {
+        for (Entry entry : entries) {
+            if (!entry.modeled)
+                return true;
+        }
+
+        return false;
+    }
+
+    /**
+     * Formats the timeline, one command per line. Commands on the critical path
+     * (those that determine when the auton finishes) are marked with an asterisk.
+     */
+    public String report() {
+        boolean[] critical = criticalPath();
+        StringBuilder sb = new StringBuilder();
+
+        for (int i = 0; i < entries.size(); i++) {
+            Entry entry = entries.get(i);
+            sb.append(critical[i] ? " * " : "   ")
+                .append(String.format("%6.2f - %6.2f  ", entry.start, entry.end))
+                .append(entry.parallel ? "[par] " : "[seq] ")
+                .append(entry.command.getName())
+                .append(entry.modeled ? "" : " (unmodeled)")
+                .append('\n');
+        }
+
+        sb.append(String.format("   Total %.2f s, %.2f s %s", duration, Math.abs(AUTON_PERIOD - duration),
+            fits() ? "to spare" : "OVER"));
+
+        return sb.toString();
+    }
+
+    /**
+     * Reschedules every entry. Timelines are short, so this is simply redone on each add.
+     */
+    private void schedule() {
+        double time = 0;
+        duration = 0;
+        lastEntry = -1;
+
+        for (int i = 0; i < entries.size(); i++) {
+            Entry entry = entries.get(i);
+            entry.start = time;
+            entry.end = time + entry.estimate;
+
+            // Starting this command interrupts any earlier parallel command that shares a subsystem
+            for (int j = 0; j < i; j++) {
+                Entry other = entries.get(j);
+                if (other.parallel && other.end > time && sharesSubsystem(entry.command, other.command))
+                    other.end = time;
+            }
+
+            if (!entry.parallel)
+                time = entry.end;
+        }
+
+        for (int i = 0; i < entries.size(); i++) {
+            if (entries.get(i).end >= duration) {
+                duration = entries.get(i).end;
+                lastEntry = i;
+            }
+        }
+    }
+
+    /**
+     * The auton finishes with the command that ends last. Everything that delays its
+     * start is the sequential chain before it, so those commands form the critical path.
+     */
+    private boolean[] criticalPath() {
+        boolean[] critical = new boolean[entries.size()];
+
+        if (lastEntry >= 0) {
+            critical[lastEntry] = true;
+
+            for (int i = 0; i < lastEntry; i++)
+                critical[i] = !entries.get(i).parallel;
+        }
+
+        return critical;
+    }
+
+    private static boolean sharesSubsystem(Command a, Command b) {
+        Subsystem[] subsystems = {Robot.driveTrain, Robot.elevator, Robot.claw};
+
+        for (Subsystem subsystem : subsystems) {
+            if (subsystem != null && a.doesRequire(subsystem) && b.doesRequire(subsystem))
+                return true;
+        }
+
+        return false;
+    }
+
+    private static class Entry {
+        final Command command;
+        final boolean parallel, modeled;
+        final double estimate;
+        double start, end;
+
+        Entry(Command command, boolean parallel, EstimatedState state) {
+            this.command = command;
+            this.parallel = parallel;
+            modeled = command instanceof Estimable;
+            estimate = modeled ? ((Estimable) command).estimateDuration(state) : 0;
+        }
+    }
+}
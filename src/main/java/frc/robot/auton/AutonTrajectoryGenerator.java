@@ -182,9 +182,9 @@ public class AutonTrajectoryGenerator {
     public static class TrajectoryPair {
         private Trajectory leftTrajectory, rightTrajectory;
 
-        // TODO: implement or make private
         public TrajectoryPair(Trajectory left, Trajectory right) {
-
+            leftTrajectory = left;
+            rightTrajectory = right;
         }
 
         public Trajectory getLeft() {
@@ -207,10 +207,27 @@ public class AutonTrajectoryGenerator {
      * @param points       Waypoint list
      * @return The trajectory pair generated from the waypoints
      */
-    private static TrajectoryPair generatePair(double velocity, double acceleration, double jerk, double wheelbase, Waypoint[] points) {
+    public static TrajectoryPair generatePair(double velocity, double acceleration, double jerk, double wheelbase, Waypoint[] points) {
+        return generatePair(velocity, acceleration, jerk, wheelbase, Trajectory.Config.SAMPLES_HIGH, points);
+    }
+
+    /**
+     * Generates a pair of trajectories like {@link #generatePair(double, double, double, double, Waypoint[])},
+     * with a specified number of samples used to fit the spline. Fewer samples
+     * generate much faster, which matters when generating while the robot is running.
+     *
+     * @param velocity     Max velocity of trajectory
+     * @param acceleration Max acceleration of trajectory
+     * @param jerk         Max jerk of trajectory
+     * @param wheelbase    Width of drive base, from left to right outer wheel edge.
+     * @param samples      Number of samples to fit, e.g. {@link Trajectory.Config#SAMPLES_FAST}
+     * @param points       Waypoint list
+     * @return The trajectory pair generated from the waypoints
+     */
+    public static TrajectoryPair generatePair(double velocity, double acceleration, double jerk, double wheelbase, int samples, Waypoint[] points) {
         Trajectory trajectory = Pathfinder.generate(
                 points,
-                new Trajectory.Config(Trajectory.FitMethod.HERMITE_CUBIC, Trajectory.Config.SAMPLES_HIGH, TIME_STEP, velocity, acceleration, jerk)
+                new Trajectory.Config(Trajectory.FitMethod.HERMITE_CUBIC, samples, TIME_STEP, velocity, acceleration, jerk)
         );
 
         TankModifier modifier = new TankModifier(trajectory);
@@ -0,0 +1,76 @@
+package frc.robot.auton;
+
+import jaci.pathfinder.Trajectory;
+import jaci.pathfinder.Waypoint;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import frc.robot.auton.AutonTrajectoryGenerator.TrajectoryPair;
+import frc.util.MercMath;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Generates paths while the robot is running, from wherever the robot
+ * actually is to a goal on the field.
+ * <p>
+ * Generation happens on a single background thread so that the robot loop is never
+ * blocked; callers poll the returned {@link Future} and decide for themselves how long
+ * they are willing to wait. Paths are fit with {@link Trajectory.Config#SAMPLES_FAST}
+ * samples, which is accurate enough for short recovery paths and much faster
+ * than the settings used for the precomputed auton paths.
+ */
+public class PathPlanner {
+    private static Logger log = LogManager.getLogger(PathPlanner.class);
+
+    private static final double
+        VELOCITY = 4.0,
+        ACCELERATION = 3.0,
+        JERK = 60.0,
+        WHEELBASE = 3.4;
+
+    private static final ExecutorService PLANNER = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "PathPlanner");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY);
+        return thread;
+    });
+
+    private PathPlanner() { } // Should never be constructed.
+
+    /**
+     * Estimates how long a planned path of a given length takes to drive.
+     *
+     * @param distance length of the path, in feet
+     * @return the estimated time, in seconds
+     */
+    public static double estimateDuration(double distance) {
+        return MercMath.trapezoidTime(distance, VELOCITY, ACCELERATION);
+    }
+
+    /**
+     * Starts generating a path from a pose to a goal waypoint.
+     *
+     * @param x       starting x position, in feet
+     * @param y       starting y position, in feet
+     * @param heading starting heading, in radians
+     * @param goal    where the path should end, in feet and radians
+     * @return the path being generated; fails if a path cannot be fit between the points
+     */
+    public static Future<TrajectoryPair> plan(double x, double y, double heading, Waypoint goal) {
+        Waypoint[] points = {
+            new Waypoint(x, y, heading),
+            goal
+        };
+
+        return PLANNER.submit(() -> {
+            long start = System.nanoTime();
+            TrajectoryPair pair = AutonTrajectoryGenerator.generatePair(
+                VELOCITY, ACCELERATION, JERK, WHEELBASE, Trajectory.Config.SAMPLES_FAST, points
+            );
+            log.info("Planned path to (" + goal.x + ", " + goal.y + ") in " + (System.nanoTime() - start) / 1_000_000 + " ms");
+            return pair;
+        });
+    }
+}
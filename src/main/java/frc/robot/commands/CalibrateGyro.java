@@ -1,21 +1,39 @@
 package frc.robot.commands;
 
 import edu.wpi.first.wpilibj.command.Command;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 import frc.robot.Robot;
 
+/**
+ * Restarts the gyro's bias estimate and waits for it without blocking.
+ * The estimate is only taken while the robot is disabled and still, so
+ * this gives up after a while if that never happens.
+ */
 public class CalibrateGyro extends Command {
+    private static Logger log = LogManager.getLogger(CalibrateGyro.class);
+    private static final double TIMEOUT = 10.0;
 
     public CalibrateGyro() {
+        super(TIMEOUT);
         setRunWhenDisabled(true);
     }
 
     public void initialize() {
-        System.out.println("Calibrating gyro...");
+        log.info("Calibrating gyro...");
         Robot.driveTrain.getGyro().calibrate();
     }
 
     @Override
     protected boolean isFinished() {
-        return true;
+        return Robot.driveTrain.getGyro().isCalibrated() || isTimedOut();
+    }
+
+    @Override
+    protected void end() {
+        if (Robot.driveTrain.getGyro().isCalibrated())
+            log.info("Gyro calibrated, bias " + Robot.driveTrain.getGyro().getBias() + " deg/s");
+        else
+            log.warn("Gyro calibration timed out; keep the robot still while disabled");
     }
 }
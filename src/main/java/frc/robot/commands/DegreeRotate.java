@@ -5,6 +5,8 @@ import edu.wpi.first.wpilibj.interfaces.Gyro;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import frc.robot.Robot;
+import frc.util.Estimable;
+import frc.util.EstimatedState;
 import frc.util.Recallable;
 import frc.util.config.DriveTrainSettings;
 
@@ -12,11 +14,16 @@ import frc.util.config.DriveTrainSettings;
  * Turns the robot a set amount of degrees relative to its current angle.
  */
 
-public class DegreeRotate extends PIDCommand implements Recallable<Double> {
+public class DegreeRotate extends PIDCommand implements Recallable<Double>, Estimable {
 	private static Logger log = LogManager.getLogger(DegreeRotate.class);
 	private double MIN_PERCENT_VBUS;
 	private final int ONTARGET_THRESHOLD = 3;
 
+	// Used to estimate how long a rotation takes
+	private static final double
+		ESTIMATED_TURN_RATE = 180,    // degrees per second
+		ESTIMATED_SETTLE_TIME = 0.3;  // seconds spent creeping onto the target at minimum output
+
 	private double targetHeading;
 	private RotationType rotationType;
 	private int counter;
@@ -149,6 +156,27 @@ public class DegreeRotate extends PIDCommand implements Recallable<Double> {
 
 	}
 
+	/**
+	 * Estimates the rotation as a constant turn rate plus a fixed settle time.
+	 */
+	@Override
+	public double estimateDuration(EstimatedState state) {
+		double degrees = targetHeading;
+		if (originator != null) {
+			// Recallables such as RotateToTarget have nothing to recall until they have run
+			Double recalled = originator.recall();
+			degrees = recalled != null ? recalled : 0;
+		}
+		if (treatment == RecallMethod.REVERSE)
+			degrees *= -1;
+
+		double start = state.getGyroAngle();
+		double target = rotationType == RotationType.ABSOLUTE ? degrees : start + degrees;
+		state.setGyroAngle(target);
+
+		return Math.abs(target - start) / ESTIMATED_TURN_RATE + ESTIMATED_SETTLE_TIME;
+	}
+
 	@Override
 	public CommandType getType() {
 		return CommandType.ROTATION;
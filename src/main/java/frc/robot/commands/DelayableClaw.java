@@ -3,10 +3,23 @@ package frc.robot.commands;
 import edu.wpi.first.wpilibj.command.CommandGroup;
 import edu.wpi.first.wpilibj.command.WaitCommand;
 import frc.robot.subsystems.Claw;
+import frc.util.Estimable;
+import frc.util.EstimatedState;
+
+public class DelayableClaw extends CommandGroup implements Estimable {
+    private final double secsDelay;
+    private final UseClaw useClaw;
 
-public class DelayableClaw extends CommandGroup {
     public DelayableClaw(double secsDelay, Claw.ClawState clawState) {
+        this.secsDelay = secsDelay;
+        useClaw = new UseClaw(clawState);
+
         addSequential(new WaitCommand(secsDelay));
-        addSequential(new UseClaw(clawState));
+        addSequential(useClaw);
+    }
+
+    @Override
+    public double estimateDuration(EstimatedState state) {
+        return secsDelay + useClaw.estimateDuration(state);
     }
 }
@@ -3,13 +3,26 @@ package frc.robot.commands;
 import edu.wpi.first.wpilibj.command.CommandGroup;
 import edu.wpi.first.wpilibj.command.WaitCommand;
 import frc.robot.subsystems.Elevator;
+import frc.util.Estimable;
+import frc.util.EstimatedState;
+
+public class DelayableElevator extends CommandGroup implements Estimable {
+    private final double delay;
+    private final UseElevator useElevator;
 
-public class DelayableElevator extends CommandGroup {
     public DelayableElevator(double delay, Elevator.ElevatorPosition elevatorPosition, boolean goToDriveHeight) {
+        this.delay = delay;
+        useElevator = new UseElevator(elevatorPosition);
+
         if (goToDriveHeight) {
             addParallel(new UseElevator(Elevator.ElevatorPosition.DRIVE_CUBE));
         }
         addSequential(new WaitCommand(delay));
-        addSequential(new UseElevator(elevatorPosition));
+        addSequential(useElevator);
+    }
+
+    @Override
+    public double estimateDuration(EstimatedState state) {
+        return delay + useElevator.estimateDuration(state);
     }
 }
@@ -6,7 +6,10 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import frc.robot.Robot;
 import frc.robot.subsystems.DriveTrain;
+import frc.util.Correctable;
 import frc.util.DelayableLogger;
+import frc.util.Estimable;
+import frc.util.EstimatedState;
 import frc.util.Recallable;
 import frc.util.MercMath;
 import frc.util.config.DriveTrainSettings;
@@ -18,11 +21,16 @@ import static frc.robot.subsystems.DriveTrain.PRIMARY_PID_LOOP;
 /**
  * Uses Talons and mag encoders to drive a setClawState distance.
  */
-public class DriveDistance extends Command implements Recallable<Double> {
+public class DriveDistance extends Command implements Recallable<Double>, Estimable, Correctable {
     private final double MOVE_THRESHOLD = 500;
     private final int ON_TARGET_MINIMUM_COUNT = 10;
     private int onTargetCount;
 
+    private static final double
+        ESTIMATED_ACCELERATION = 8.0,   // feet per second squared
+        END_TIMEOUT = 1.5,              // seconds allowed past the estimated time
+        MAX_END_ERROR = 1.0;            // feet the robot may end from its target before the run counts as failed
+
     private static Logger log = LogManager.getLogger(DriveDistance.class);
     private static final DelayableLogger SLOW_LOG = new DelayableLogger(log, 1, TimeUnit.SECONDS);
     protected double distance;
@@ -33,6 +41,9 @@ public class DriveDistance extends Command implements Recallable<Double> {
     private Recallable<Double> originator;
     private RecallMethod treatment;
 
+    private final double[] targetPose = new double[3], pose = new double[3];
+    private boolean started, failed;
+
     /**
      * @param dist  distance to travel, in inches
      * @param pVolt voLtage to use when driving, -1.0 to 1.0
@@ -77,6 +88,14 @@ public class DriveDistance extends Command implements Recallable<Double> {
 
         initialDistance = Robot.driveTrain.getLeftEncPositionInFeet();
 
+        // Where the robot should end up, to tell whether it got there
+        started = true;
+        failed = false;
+        Robot.driveTrain.getOdometry().getPose(targetPose);
+        targetPose[0] += distance / 12 * Math.cos(targetPose[2]);
+        targetPose[1] += distance / 12 * Math.sin(targetPose[2]);
+        setTimeout(estimateTime(distance / 12) + END_TIMEOUT);
+
         updateDistance();
 
         log.info(getName() + " initialized");
@@ -84,6 +103,9 @@ public class DriveDistance extends Command implements Recallable<Double> {
 
     // Make this return true when this Command no longer needs to run execute()
     protected boolean isFinished() {
+        if (isTimedOut())
+            return true;
+
         boolean isFinished = false;
 
         double leftError = Robot.driveTrain.getLeft().getClosedLoopError(PRIMARY_PID_LOOP);
@@ -123,6 +145,28 @@ public class DriveDistance extends Command implements Recallable<Double> {
         Robot.driveTrain.configVoltage(0, DriveTrainSettings.getMaxOutput());
 
         log.info("Final Distance: " + distanceTraveled);
+
+        if (started) {
+            Robot.driveTrain.updateOdometry();
+            Robot.driveTrain.getOdometry().getPose(pose);
+            double error = Math.hypot(targetPose[0] - pose[0], targetPose[1] - pose[1]);
+
+            failed = isTimedOut() || error > MAX_END_ERROR;
+            if (failed) {
+                log.warn(getName() + (isTimedOut() ? " timed out " : " ended ")
+                    + MercMath.roundFloat(error, 2) + " ft from its target");
+            }
+        }
+    }
+
+    @Override
+    public boolean hasFailed() {
+        return failed;
+    }
+
+    @Override
+    public void getTargetPose(double[] pose) {
+        System.arraycopy(targetPose, 0, pose, 0, 3);
     }
 
     // Called when another command which requires one or more of the same
@@ -138,7 +182,7 @@ public class DriveDistance extends Command implements Recallable<Double> {
     protected void updateDistance() {
         double endPosL = 0, endPosR = 0;
 
-        endPosL = MercMath.inchesToEncoderTicks(distance);
+        endPosL = DriveTrain.KINEMATICS.inchesToTicks(distance);
 
         // Per CTRE documentation, the encoder value need to increase when the Talon LEDs are green.
         // On Crossfire, the Talon LEDs are *red* when the robot is moving forward. For this reason, we need
@@ -182,6 +226,35 @@ public class DriveDistance extends Command implements Recallable<Double> {
         return 0.0;
     }
 
+    /**
+     * Estimates the drive as a trapezoidal move at the top speed allowed by the
+     * voltage, plus the time needed to count as on target.
+     */
+    @Override
+    public double estimateDuration(EstimatedState state) {
+        double feet = (originator != null ? originator.recall() : distance) / 12;
+        if (treatment == RecallMethod.REVERSE)
+            feet *= -1;
+
+        state.move(feet, 0, 0);
+
+        return estimateTime(feet);
+    }
+
+    /**
+     * @param feet distance to drive
+     * @return the predicted time to drive it, in seconds
+     */
+    private double estimateTime(double feet) {
+        double maxVelocity = Math.abs(percentVoltage)
+            * MercMath.metersToFeet(DriveTrain.KINEMATICS.revsPerMinuteToMetersPerSecond(DriveTrain.MAX_RPM));
+
+        if (maxVelocity <= 0)
+            return 0;
+
+        return MercMath.trapezoidTime(feet, maxVelocity, ESTIMATED_ACCELERATION) + ON_TARGET_MINIMUM_COUNT * 0.02;
+    }
+
     @Override
     public CommandType getType() {
         return CommandType.DISTANCE;
@@ -6,11 +6,10 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import frc.robot.Robot;
 import frc.robot.RobotMap.DS_USB;
-import frc.robot.subsystems.DriveTrain;
-import frc.robot.subsystems.Elevator;
 import frc.util.DelayableLogger;
-import frc.util.MercMath;
+import frc.util.DriveLimiter;
 import frc.util.TalonDrive;
+import frc.util.config.DriveTrainSettings;
 
 import javax.xml.bind.Element;
 import java.security.interfaces.ECKey;
@@ -22,6 +21,7 @@ import java.util.concurrent.TimeUnit;
  */
 public class DriveWithJoysticks extends Command {
 	private TalonDrive tDrive;
+	private DriveLimiter limiter;
 	private static Logger log = LogManager.getLogger(DriveWithJoysticks.class);
 	private DelayableLogger everySecond = new DelayableLogger(log, 10, TimeUnit.SECONDS);
 	private DriveType driveType;
@@ -43,6 +43,10 @@ public class DriveWithJoysticks extends Command {
 	@Override
 	protected void initialize() {
 		tDrive = Robot.driveTrain.getTalonDrive();
+		limiter = Robot.driveTrain.getDriveLimiter();
+		limiter.setEnabled(true);
+		Robot.driveTrain.setDriveMode(DriveTrainSettings.getDriveMode());
+		log.info("Driving in " + tDrive.getDriveMode() + " mode");
 		log.info("Set max output to: " + tDrive.getMaxOutput());
 		Robot.driveTrain.setNeutralMode(NeutralMode.Brake);
 		log.info(getName() + " command initialized");
@@ -52,21 +56,17 @@ public class DriveWithJoysticks extends Command {
 	@Override
 	protected void execute() {
 		if (tDrive != null) {
-			if (Robot.elevator.getCurrentHeight() > Elevator.ElevatorPosition.INNER_STAGE.encPos) {
-				double percent = Robot.elevator.getCurrentHeight() - Elevator.ElevatorPosition.INNER_STAGE.encPos;
-				percent /= Elevator.MAX_HEIGHT - Elevator.ElevatorPosition.INNER_STAGE.encPos;
-
-				// Should be an ease-out type of thing?
-				tDrive.setMaxOutput(MercMath.lerp(Math.sqrt(percent), DriveTrain.MAX_SPEED, DriveTrain.MIN_SPEED));
-			} else
-				tDrive.setMaxOutput(DriveTrain.MAX_SPEED);
+			// Slow down and accelerate gently with the elevator up, so the robot doesn't tip
+			limiter.update(Robot.elevator.getHeight());
+			tDrive.setMaxOutput(limiter.getMaxOutput());
 
 			switch (driveType) {
 				case TANK:
 					tDrive.tankDrive(Robot.oi.getY(DS_USB.LEFT_STICK), Robot.oi.getY(DS_USB.RIGHT_STICK));
 					break;
 				case ARCADE:
-					tDrive.arcadeDrive(Robot.oi.getY(DS_USB.LEFT_STICK), -Robot.oi.getX(DS_USB.RIGHT_STICK), true);
+					// OI has already shaped the inputs
+					tDrive.arcadeDrive(Robot.oi.getY(DS_USB.LEFT_STICK), -Robot.oi.getX(DS_USB.RIGHT_STICK), false);
 					break;
 			}
 		} else {
@@ -84,6 +84,8 @@ public class DriveWithJoysticks extends Command {
 	@Override
 	protected void end() {
         Robot.driveTrain.setNeutralMode(NeutralMode.Brake);
+		limiter.setEnabled(false);
+		Robot.driveTrain.setDriveMode(TalonDrive.DriveMode.PERCENT_OUTPUT);
 		Robot.driveTrain.stop();
 		log.info(getName() + "ended");
 	}
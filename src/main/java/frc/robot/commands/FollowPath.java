@@ -0,0 +1,95 @@
+package frc.robot.commands;
+
+import edu.wpi.first.wpilibj.command.Command;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import frc.robot.Robot;
+import frc.robot.auton.AutonTrajectoryGenerator.TrajectoryPair;
+import frc.util.Estimable;
+import frc.util.EstimatedState;
+
+/**
+ * Follows a path using pose feedback computed on the RIO.
+ * <p>
+ * Unlike {@link MoveOnPath}, which streams a time-indexed profile to the Talons
+ * and runs it open-loop, this command runs a {@link PathFollower}, which compares
+ * the robot's odometry against the path every cycle on its own fast loop
+ * and sends corrected wheel velocities to the Talons. Heading drift and wheel slip
+ * are corrected as they happen, and the command only finishes once the robot
+ * has actually reached the end of the path, or has failed to within a timeout.
+ * <p>
+ * The path is followed relative to where the robot is when the command starts,
+ * so it does not matter whether the odometry has been zeroed on the field.
+ */
+public class FollowPath extends Command implements Estimable {
+    private static Logger log = LogManager.getLogger(FollowPath.class);
+
+    private final PathFollower follower;
+
+    /**
+     * Creates this command using the file prefix to determine
+     * the files to load.
+     *
+     * @param name      name of the trajectory
+     * @param direction whether to drive the path forwards or backwards
+     */
+    public FollowPath(String name, MoveOnPath.Direction direction) {
+        this(name, new TrajectoryPair(
+            MoveOnPath.loadTrajectory(name + "_left_detailed"),
+            MoveOnPath.loadTrajectory(name + "_right_detailed")
+        ), direction);
+    }
+
+    /**
+     * Creates this command from an already generated pair of trajectories.
+     *
+     * @param name      name used for logging
+     * @param pair      left and right trajectories of the path
+     * @param direction whether to drive the path forwards or backwards
+     */
+    public FollowPath(String name, TrajectoryPair pair, MoveOnPath.Direction direction) {
+        requires(Robot.driveTrain);
+        setName("FollowPath-" + name);
+        log.info(getName() + " Beginning constructor");
+
+        follower = new PathFollower(getName(), pair, direction);
+
+        log.info(getName() + " constructed: " + follower.getLength());
+    }
+
+    // Called just before this Command runs the first time
+    @Override
+    protected void initialize() {
+        follower.start();
+
+        log.info(getName() + " initialized");
+    }
+
+    @Override
+    protected boolean isFinished() {
+        return follower.isFinished();
+    }
+
+    // Called once after isFinished returns true
+    @Override
+    protected void end() {
+        follower.stop();
+
+        log.info(getName() + " ended");
+    }
+
+    // Called when another command which requires one or more of the same
+    // subsystems is scheduled to run
+    @Override
+    protected void interrupted() {
+        log.info(getName() + " interrupted");
+        end();
+    }
+
+    @Override
+    public double estimateDuration(EstimatedState state) {
+        follower.estimateEnd(state);
+
+        return follower.getDuration();
+    }
+}
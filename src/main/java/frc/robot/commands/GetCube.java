@@ -6,6 +6,8 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import frc.robot.Robot;
 import frc.robot.subsystems.Claw;
+import frc.util.Estimable;
+import frc.util.EstimatedState;
 import frc.util.Recallable;
 
 /**
@@ -13,10 +15,13 @@ import frc.util.Recallable;
  * and the DriveWithLIDAR command to autonomously target and
  * approach the cube.
  */
-public class GetCube extends CommandGroup {
+public class GetCube extends CommandGroup implements Estimable {
         private static Logger log = LogManager.getLogger(GetCube.class);
         private Command angleOriginator, distanceOriginator;
 
+        // Depends on where the cube is; this is a typical pickup off the auton cube line
+        private static final double ESTIMATED_DURATION = 2.0;
+
         public GetCube() {
             angleOriginator = new RotateToTarget();
             distanceOriginator = new DriveWithLIDAR(8, 0.7);
@@ -27,6 +32,15 @@ public class GetCube extends CommandGroup {
             log.info(getName() + " Created");
         }
 
+    /**
+     * Estimates a typical pickup. Where the cube is isn't known ahead of time,
+     * so the robot's pose is left where it was.
+     */
+    @Override
+    public double estimateDuration(EstimatedState state) {
+        return ESTIMATED_DURATION;
+    }
+
     public Recallable<Double> getAngleOriginator() {
         return (Recallable<Double>) angleOriginator;
     }
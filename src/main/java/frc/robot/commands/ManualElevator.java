@@ -27,6 +27,7 @@ public class ManualElevator extends Command {
 
     @Override
     protected void initialize() {
+        Robot.elevator.release();
         LOG.info(getName() + " initialized");
     }
 
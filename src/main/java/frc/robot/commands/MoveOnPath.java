@@ -21,15 +21,20 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import frc.robot.Robot;
 import frc.robot.subsystems.DriveTrain;
+import frc.util.Correctable;
+import frc.util.Estimable;
+import frc.util.EstimatedState;
 import frc.util.MercMath;
 import frc.util.config.DriveTrainSettings;
 
 import java.io.File;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Use motion profiling to move on a specified path
  */
-public class MoveOnPath extends Command {
+public class MoveOnPath extends Command implements Estimable, Correctable {
     private static Logger log = LogManager.getLogger(MoveOnPath.class);
 	private TalonSRX left;
 	private TalonSRX right;
@@ -41,9 +46,27 @@ public class MoveOnPath extends Command {
     private MotionProfileStatus statusLeft, statusRight;
     private static Notifier trajectoryProcessor;
 
+    private static final double
+        END_TIMEOUT = 1.0,  // seconds allowed past the end of the profile
+        MAX_END_ERROR = 1.0; // feet the robot may end from the end of the path before the run counts as failed
+
+    // Where the path leaves the robot relative to where it starts: feet forward, feet left and radians turned
+    private final double END_FORWARD, END_LEFT, END_TURN;
+    private final double[] targetPose = new double[3], pose = new double[3];
+    private boolean started, failed;
+
+    // Trajectories already read from disk, by file name
+    private static final Map<String, Trajectory> TRAJECTORY_CACHE = new ConcurrentHashMap<>();
+
     private boolean isRunning;
     private int dir;
 
+    // Arc mode: the right Talon runs the profile with heading on its auxiliary loop
+    private final boolean arcMode;
+    private final double TRACK_WIDTH;
+    private boolean pigeonHeading;
+    private double auxOffset;
+
     public enum Direction {
         BACKWARD,
         FORWARD
@@ -56,6 +79,24 @@ public class MoveOnPath extends Command {
      * @param name name of the trajectory
      */
 	public MoveOnPath(String name, Direction direction) {
+        this(name, direction, false);
+    }
+
+    /**
+     * Creates this command using the file prefix to determine
+     * the files to load, optionally running it in arc mode.
+     * <p>
+     * In arc mode the segment headings are streamed to the Talons as auxiliary
+     * PID targets, so heading is corrected on the motor controllers every 1 ms
+     * instead of being left to drift. Auton only asks for arc mode when
+     * {@link DriveTrainSettings#isArcModeEnabled()} allows it.
+     *
+     * @param name      name of the trajectory
+     * @param direction whether to drive the path forwards or backwards
+     * @param arc       whether to use {@link ControlMode#MotionProfileArc}
+     * @see DriveTrain#configArcFeedback()
+     */
+    public MoveOnPath(String name, Direction direction, boolean arc) {
         requires(Robot.driveTrain);
         setName("MoveOnPath-" + name);
         log.info(getName() + " Beginning constructor");
@@ -73,8 +114,8 @@ public class MoveOnPath extends Command {
                 break;
         }
 
-        trajectoryL = Pathfinder.readFromFile(new File("/home/lvuser/trajectories/" + name + "_left_detailed.traj"));
-        trajectoryR = Pathfinder.readFromFile(new File("/home/lvuser/trajectories/" + name + "_right_detailed.traj"));
+        trajectoryL = loadTrajectory(name + "_left_detailed");
+        trajectoryR = loadTrajectory(name + "_right_detailed");
 //        trajectoryL = Pathfinder.readFromCSV(new File("/home/lvuser/trajectories/" + name + "_left_detailed.csv"));
 //        trajectoryR = Pathfinder.readFromCSV(new File("/home/lvuser/trajectories/" + name + "_right_detailed.csv"));
 
@@ -88,6 +129,8 @@ public class MoveOnPath extends Command {
         statusLeft = new MotionProfileStatus();
         statusRight = new MotionProfileStatus();
 
+        arcMode = arc;
+
         if (trajectoryL != null) {
             TRAJECTORY_SIZE = trajectoryL.length();
 
@@ -97,19 +140,66 @@ public class MoveOnPath extends Command {
             log.info(getName() + " could not be constructed!");
             end();
         }
+
+        if (TRAJECTORY_SIZE > 0 && trajectoryR != null) {
+            Trajectory.Segment l = trajectoryL.segments[0], r = trajectoryR.segments[0];
+            TRACK_WIDTH = Math.hypot(l.x - r.x, l.y - r.y);
+
+            // Displacement of the path's center from its first point, turned around when driving backwards
+            int end = Math.min(TRAJECTORY_SIZE, trajectoryR.length()) - 1;
+            Trajectory.Segment endL = trajectoryL.segments[end], endR = trajectoryR.segments[end];
+            double
+                dx = (endL.x + endR.x - l.x - r.x) / 2,
+                dy = (endL.y + endR.y - l.y - r.y) / 2,
+                cos = Math.cos(l.heading),
+                sin = Math.sin(l.heading);
+            END_FORWARD = dir * (dx * cos + dy * sin);
+            END_LEFT = dir * (dy * cos - dx * sin);
+            END_TURN = MercMath.wrapRadians(endL.heading - l.heading);
+
+            setTimeout(TRAJECTORY_SIZE * l.dt + END_TIMEOUT);
+        } else {
+            TRACK_WIDTH = 0;
+            END_FORWARD = 0;
+            END_LEFT = 0;
+            END_TURN = 0;
+        }
 	}
 	
 	//Called just before this Command runs for the first time. 
 	protected void initialize() {
 	    System.out.println("MoveOnPath: Initializing...");
 
+        if (arcMode)
+            pigeonHeading = Robot.driveTrain.configArcFeedback();
+
 	    // Reset command state
         reset();
+        started = true;
+        failed = false;
+
+        // Where the robot should end up; zeroing the encoders above does not move the odometry
+        Robot.driveTrain.getOdometry().getPose(targetPose);
+        double cos = Math.cos(targetPose[2]), sin = Math.sin(targetPose[2]);
+        targetPose[0] += END_FORWARD * cos - END_LEFT * sin;
+        targetPose[1] += END_FORWARD * sin + END_LEFT * cos;
+        targetPose[2] = MercMath.wrapRadians(targetPose[2] + END_TURN);
 
         // Configure PID values
         double[] pid = DriveTrainSettings.getPIDValues("moveOnPath");
         configurePID(pid[0], pid[1], pid[2], Robot.driveTrain.getFeedForward());
 
+        if (arcMode) {
+            double[] auxPID = DriveTrainSettings.getPIDValues("moveOnPathArc");
+            right.config_kP(DriveTrain.SLOT_1, auxPID[0], DriveTrain.TIMEOUT_MS);
+            right.config_kI(DriveTrain.SLOT_1, auxPID[1], DriveTrain.TIMEOUT_MS);
+            right.config_kD(DriveTrain.SLOT_1, auxPID[2], DriveTrain.TIMEOUT_MS);
+            right.config_kF(DriveTrain.SLOT_1, 0, DriveTrain.TIMEOUT_MS);
+
+            // Encoder difference is zeroed with the encoders; the Pigeon is not.
+            auxOffset = pigeonHeading ? right.getSelectedSensorPosition(DriveTrain.AUX_PID_LOOP) : 0;
+        }
+
         // Change motion control frame period
         left.changeMotionControlFramePeriod(10);
         right.changeMotionControlFramePeriod(10);
@@ -130,7 +220,7 @@ public class MoveOnPath extends Command {
 
         // Give a slight buffer when we process to make sure we don't bite off more than
         // we can chew or however that metaphor goes.
-        if (!isRunning && statusLeft.btmBufferCnt >= 5 && statusRight.btmBufferCnt >= 5) {
+        if (!isRunning && (arcMode || statusLeft.btmBufferCnt >= 5) && statusRight.btmBufferCnt >= 5) {
             setMotionProfileMode(SetValueMotionProfile.Enable);
 
             log.log(Level.INFO, "Starting motion profile...");
@@ -141,8 +231,14 @@ public class MoveOnPath extends Command {
 
     @Override
 	protected boolean isFinished() {
+	    if (isTimedOut())
+	        return true;
+
         // If we're running, only finish if both talons
         // reach their last valid point
+	    if (arcMode)
+	        return isRunning && statusRight.activePointValid && statusRight.isLast;
+
 	    return
             isRunning &&
             statusLeft.activePointValid &&
@@ -159,15 +255,72 @@ public class MoveOnPath extends Command {
 		left.setStatusFramePeriod(StatusFrameEnhanced.Status_1_General, 10, DriveTrain.TIMEOUT_MS);
         right.setStatusFramePeriod(StatusFrameEnhanced.Status_1_General, 10, DriveTrain.TIMEOUT_MS);
 
+        if (arcMode)
+            Robot.driveTrain.configStandardFeedback();
+
         Robot.driveTrain.stop();
 
+        if (started) {
+            Robot.driveTrain.updateOdometry();
+            Robot.driveTrain.getOdometry().getPose(pose);
+            double error = Math.hypot(targetPose[0] - pose[0], targetPose[1] - pose[1]);
+
+            failed = isTimedOut() || error > MAX_END_ERROR;
+            if (failed) {
+                log.warn(getName() + (isTimedOut() ? " timed out " : " ended ")
+                    + MercMath.roundFloat(error, 2) + " ft from the end of its path");
+            }
+        }
+
         log.log(Level.INFO, "Finished running");
     }
 
+    @Override
+    public boolean hasFailed() {
+        return failed;
+    }
+
+    @Override
+    public void getTargetPose(double[] pose) {
+        System.arraycopy(targetPose, 0, pose, 0, 3);
+    }
+
+    /**
+     * Estimates the length of the profile, and moves the robot by the path's
+     * displacement from its first point, turned around when driving backwards.
+     */
+    @Override
+    public double estimateDuration(EstimatedState state) {
+        if (TRAJECTORY_SIZE == 0 || trajectoryR == null)
+            return 0;
+
+        state.move(END_FORWARD, END_LEFT, END_TURN);
+
+        return TRAJECTORY_SIZE * trajectoryL.segments[0].dt;
+    }
+
+    /**
+     * Reads a trajectory from the trajectories folder on the RIO. Each file is only
+     * read once; later calls return the same trajectory, so commands can be
+     * constructed repeatedly without touching the disk again.
+     *
+     * @param fileName name of the trajectory file, without the extension
+     * @return the trajectory, or null if it could not be read
+     */
+    static Trajectory loadTrajectory(String fileName) {
+        return TRAJECTORY_CACHE.computeIfAbsent(fileName,
+            f -> Pathfinder.readFromFile(new File("/home/lvuser/trajectories/" + f + ".traj")));
+    }
+
     /**
      * Fill top-level (API-level) buffer with all points
      */
     private void fillTopBuffer() {
+	    if (arcMode) {
+	        fillTopBufferArc();
+	        return;
+        }
+
 	    for (int i = 0; i < TRAJECTORY_SIZE; i++) {
             TrajectoryPoint trajPointL = new TrajectoryPoint();
             TrajectoryPoint trajPointR = new TrajectoryPoint();
@@ -184,10 +337,10 @@ public class MoveOnPath extends Command {
             boolean isZero = i == 0;
 
             // For each point, fill our structure and pass it to API
-            trajPointL.position = MercMath.feetToEncoderTicks(currentPosL); //Convert Revolutions to Units
-            trajPointR.position = MercMath.feetToEncoderTicks(currentPosR);
-            trajPointL.velocity = MercMath.revsPerMinuteToTicksPerTenth(velocityL); //Convert RPM to Units/100ms
-            trajPointR.velocity = MercMath.revsPerMinuteToTicksPerTenth(velocityR);
+            trajPointL.position = DriveTrain.KINEMATICS.feetToTicks(currentPosL); //Convert Revolutions to Units
+            trajPointR.position = DriveTrain.KINEMATICS.feetToTicks(currentPosR);
+            trajPointL.velocity = DriveTrain.KINEMATICS.revsPerMinuteToTicksPerTenth(velocityL); //Convert RPM to Units/100ms
+            trajPointR.velocity = DriveTrain.KINEMATICS.revsPerMinuteToTicksPerTenth(velocityR);
             trajPointL.profileSlotSelect0 = DriveTrain.SLOT_0;
             trajPointR.profileSlotSelect0 = DriveTrain.SLOT_0;
 
@@ -209,6 +362,43 @@ public class MoveOnPath extends Command {
         }
     }
 
+    /**
+     * Fill top-level (API-level) buffer of the right Talon with arc points:
+     * the average of both sides as the primary target and the segment heading,
+     * relative to the first segment, as the auxiliary target.
+     */
+    private void fillTopBufferArc() {
+        double unitsPerRadian = pigeonHeading ?
+            Math.toDegrees(1) * DriveTrain.PIGEON_UNITS_PER_DEGREE :
+            DriveTrain.KINEMATICS.feetToTicks(TRACK_WIDTH);
+        // Encoder ticks are backwards, so the encoder difference shrinks when turning counter-clockwise.
+        double headingSign = pigeonHeading ? dir : -dir;
+        double heading = 0;
+
+        for (int i = 0; i < TRAJECTORY_SIZE; i++) {
+            TrajectoryPoint trajPoint = new TrajectoryPoint();
+
+            // NOTE: Encoder ticks are backwards, we need to work with that.
+            double currentPos = -(trajectoryL.segments[i].position + trajectoryR.segments[i].position) / 2 * dir;
+            double velocity = -(trajectoryL.segments[i].velocity + trajectoryR.segments[i].velocity) / 2 * dir;
+
+            // Accumulate heading so it does not jump when crossing +/-180 degrees
+            if (i > 0)
+                heading += MercMath.wrapRadians(trajectoryL.segments[i].heading - trajectoryL.segments[i - 1].heading);
+
+            trajPoint.position = DriveTrain.KINEMATICS.feetToTicks(currentPos);
+            trajPoint.velocity = DriveTrain.KINEMATICS.feetToTicks(velocity) / 10; // Convert ft/s to Units/100ms
+            trajPoint.auxiliaryPos = auxOffset + headingSign * heading * unitsPerRadian;
+            trajPoint.profileSlotSelect0 = DriveTrain.SLOT_0;
+            trajPoint.profileSlotSelect1 = DriveTrain.SLOT_1;
+            trajPoint.timeDur = TrajectoryPoint.TrajectoryDuration.Trajectory_Duration_20ms;
+            trajPoint.zeroPos = i == 0;
+            trajPoint.isLastPoint = TRAJECTORY_SIZE == i + 1;
+
+            right.pushMotionProfileTrajectory(trajPoint);
+        }
+    }
+
     private void configurePID(double p, double i, double d, double f) {
         left.config_kP(DriveTrain.SLOT_0, p, DriveTrain.TIMEOUT_MS);
         right.config_kP(DriveTrain.SLOT_0, p, DriveTrain.TIMEOUT_MS);
@@ -224,6 +414,12 @@ public class MoveOnPath extends Command {
     }
 
     private void setMotionProfileMode(SetValueMotionProfile value) {
+        if (arcMode) {
+            // The left Talon follows the right one's auxiliary output
+            right.set(ControlMode.MotionProfileArc, value.value);
+            return;
+        }
+
         left.set(ControlMode.MotionProfile, value.value);
         right.set(ControlMode.MotionProfile, value.value);
     }
@@ -0,0 +1,306 @@
+package frc.robot.commands;
+
+import com.ctre.phoenix.motorcontrol.ControlMode;
+import com.ctre.phoenix.motorcontrol.can.TalonSRX;
+import edu.wpi.first.wpilibj.Notifier;
+import edu.wpi.first.wpilibj.Timer;
+import jaci.pathfinder.Trajectory;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import frc.robot.Robot;
+import frc.robot.auton.AutonTrajectoryGenerator.TrajectoryPair;
+import frc.robot.subsystems.DriveTrain;
+import frc.util.EstimatedState;
+import frc.util.MercMath;
+import frc.util.RamseteController;
+import frc.util.config.DriveTrainSettings;
+
+/**
+ * Drives the robot along a path with a {@link RamseteController}, on a {@link Notifier}
+ * that compares the robot's odometry against the path every cycle and sends corrected
+ * wheel velocities to the Talons.
+ * <p>
+ * This is the path following behind {@link FollowPath}, kept apart from the command so that
+ * other commands, such as {@link ReplanPath}, can follow a path they come up with while running.
+ * Whoever owns it calls {@link #start()} and {@link #stop()}; the loop's thread only exists in between.
+ * <p>
+ * The path is followed relative to where the robot is when it starts,
+ * so it does not matter whether the odometry has been zeroed on the field.
+ * <p>
+ * Past the end of the path the follower holds the last point until the robot is within
+ * {@code POSITION_TOLERANCE} of it. If that takes longer than {@code END_TIMEOUT},
+ * it gives up, and {@link #hasArrived()} tells the owner that the path was not completed.
+ */
+public class PathFollower {
+    private static Logger log = LogManager.getLogger(PathFollower.class);
+
+    private static final double
+        LOOP_PERIOD = 0.01,         // 100 Hz
+        POSITION_TOLERANCE = 0.25,  // feet
+        END_TIMEOUT = 1.0;          // seconds allowed past the end of the path
+
+    private final String NAME;
+    private final TalonSRX left, right;
+    private final RamseteController controller;
+    private final int dir;
+
+    // Reference path, sampled along the center of the robot
+    private final int LENGTH;
+    private final double DT;
+    private final double[] refX, refY, refHeading, refVel, refOmega;
+
+    private final double[] pose = new double[3];
+
+    private Notifier loop;
+
+    // Transform from path coordinates to odometry coordinates
+    private double originX, originY, startX, startY, rotCos, rotSin, rotation;
+    private double startTime;
+
+    private volatile boolean finished, arrived;
+    private volatile double endError;
+
+    // Loop timing statistics
+    private long loopCount, loopTotalNanos, loopMaxNanos;
+
+    /**
+     * @param name      name used for logging
+     * @param pair      left and right trajectories of the path
+     * @param direction whether to drive the path forwards or backwards
+     */
+    public PathFollower(String name, TrajectoryPair pair, MoveOnPath.Direction direction) {
+        NAME = name;
+        left = Robot.driveTrain.getLeft();
+        right = Robot.driveTrain.getRight();
+        dir = direction == MoveOnPath.Direction.BACKWARD ? -1 : 1;
+
+        Trajectory trajL = pair.getLeft(), trajR = pair.getRight();
+
+        if (trajL != null && trajR != null) {
+            LENGTH = Math.min(trajL.length(), trajR.length());
+        } else {
+            LENGTH = 0;
+            log.info(NAME + " has no path to follow!");
+        }
+
+        refX = new double[LENGTH];
+        refY = new double[LENGTH];
+        refHeading = new double[LENGTH];
+        refVel = new double[LENGTH];
+        refOmega = new double[LENGTH];
+
+        double trackWidth = 0;
+        DT = LENGTH > 0 ? trajL.get(0).dt : LOOP_PERIOD;
+
+        // Precompute the center path so the loop does not need to touch segments.
+        for (int i = 0; i < LENGTH; i++) {
+            Trajectory.Segment l = trajL.get(i), r = trajR.get(i);
+
+            refX[i] = (l.x + r.x) / 2;
+            refY[i] = (l.y + r.y) / 2;
+            refHeading[i] = l.heading;
+            refVel[i] = (l.velocity + r.velocity) / 2;
+
+            if (i == 0)
+                trackWidth = Math.hypot(l.x - r.x, l.y - r.y);
+        }
+
+        for (int i = 0; i < LENGTH - 1; i++)
+            refOmega[i] = MercMath.wrapRadians(refHeading[i + 1] - refHeading[i]) / DT;
+
+        double[] gains = DriveTrainSettings.getRamseteValues();
+        controller = new RamseteController(gains[0], gains[1], gains[2], trackWidth);
+    }
+
+    /**
+     * Anchors the path on the robot's current pose and starts following it.
+     */
+    public void start() {
+        finished = LENGTH == 0;
+        arrived = finished;
+        endError = 0;
+        loopCount = 0;
+        loopTotalNanos = 0;
+        loopMaxNanos = 0;
+
+        double[] pid = DriveTrainSettings.getPIDValues("followPath");
+        configurePID(pid[0], pid[1], pid[2], Robot.driveTrain.getFeedForward());
+
+        if (finished)
+            return;
+
+        // Anchor the start of the path on the robot's current pose.
+        Robot.driveTrain.updateOdometry();
+        Robot.driveTrain.getOdometry().getPose(pose);
+        toVirtualPose();
+
+        originX = pose[0];
+        originY = pose[1];
+        startX = refX[0];
+        startY = refY[0];
+        rotation = MercMath.wrapRadians(pose[2] - refHeading[0]);
+        rotCos = Math.cos(rotation);
+        rotSin = Math.sin(rotation);
+
+        startTime = Timer.getFPGATimestamp();
+        loop = new Notifier(this::step);
+        loop.startPeriodic(LOOP_PERIOD);
+    }
+
+    /**
+     * Stops following the path, and the drive train with it.
+     */
+    public void stop() {
+        if (loop != null) {
+            loop.close();
+            loop = null;
+        }
+        Robot.driveTrain.stop();
+
+        if (loopCount > 0) {
+            log.info(NAME + " loop timing: avg " + (loopTotalNanos / loopCount / 1000) + " us, max "
+                + (loopMaxNanos / 1000) + " us over " + loopCount + " iterations");
+        }
+    }
+
+    /**
+     * @return true once the robot has reached the end of the path, or given up on it
+     */
+    public boolean isFinished() {
+        return finished;
+    }
+
+    /**
+     * @return true if the robot finished within {@code POSITION_TOLERANCE} of the end of the path,
+     *         false if it has not finished yet or gave up
+     */
+    public boolean hasArrived() {
+        return arrived;
+    }
+
+    /**
+     * @return distance from the end of the path when the follower finished, in feet
+     */
+    public double getEndError() {
+        return endError;
+    }
+
+    /**
+     * @return seconds the path takes to drive
+     */
+    public double getDuration() {
+        return LENGTH * DT;
+    }
+
+    /**
+     * Moves an estimated pose by the path's displacement from its first point,
+     * turned around when driving backwards, as following the path would.
+     *
+     * @param state the estimated state to move
+     */
+    public void estimateEnd(EstimatedState state) {
+        if (LENGTH == 0)
+            return;
+
+        int end = LENGTH - 1;
+        double
+            dx = refX[end] - refX[0],
+            dy = refY[end] - refY[0],
+            cos = Math.cos(refHeading[0]),
+            sin = Math.sin(refHeading[0]);
+        state.move(dir * (dx * cos + dy * sin), dir * (dy * cos - dx * sin),
+            MercMath.wrapRadians(refHeading[end] - refHeading[0]));
+    }
+
+    /**
+     * @return points in the path
+     */
+    public int getLength() {
+        return LENGTH;
+    }
+
+    /**
+     * One iteration of the follower loop. Runs on the {@link Notifier} thread.
+     */
+    private void step() {
+        if (finished)
+            return;
+
+        long loopStart = System.nanoTime();
+
+        double t = Timer.getFPGATimestamp() - startTime;
+        int i = Math.min((int) (t / DT), LENGTH - 1);
+
+        Robot.driveTrain.updateOdometry();
+        Robot.driveTrain.getOdometry().getPose(pose);
+        toVirtualPose();
+
+        double
+            px = refX[i] - startX,
+            py = refY[i] - startY,
+            targetX = originX + rotCos * px - rotSin * py,
+            targetY = originY + rotSin * px + rotCos * py;
+
+        controller.calculate(
+            pose[0], pose[1], pose[2],
+            targetX, targetY, refHeading[i] + rotation,
+            refVel[i], refOmega[i]
+        );
+
+        double leftVel = controller.getLeftVelocity(), rightVel = controller.getRightVelocity();
+
+        // When driving backwards the robot's left side plays the part of the path's right side.
+        if (dir < 0) {
+            double temp = leftVel;
+            leftVel = -rightVel;
+            rightVel = -temp;
+        }
+
+        // NOTE: Encoder ticks are backwards, we need to work with that.
+        left.set(ControlMode.Velocity, -DriveTrain.KINEMATICS.feetToTicks(leftVel) / 10);
+        right.set(ControlMode.Velocity, -DriveTrain.KINEMATICS.feetToTicks(rightVel) / 10);
+
+        if (i == LENGTH - 1) {
+            double error = Math.hypot(targetX - pose[0], targetY - pose[1]);
+
+            if (error <= POSITION_TOLERANCE) {
+                endError = error;
+                arrived = true;
+                finished = true;
+            } else if (t > LENGTH * DT + END_TIMEOUT) {
+                endError = error;
+                finished = true;
+                log.warn(NAME + " failed to reach the end of the path, " + MercMath.roundFloat(error, 2)
+                    + " ft off after " + MercMath.roundFloat(t, 2) + " s");
+            }
+        }
+
+        long elapsed = System.nanoTime() - loopStart;
+        loopCount++;
+        loopTotalNanos += elapsed;
+        loopMaxNanos = Math.max(loopMaxNanos, elapsed);
+    }
+
+    /**
+     * Converts the pose in {@link #pose} into the pose of a robot facing
+     * the direction of travel. When driving backwards, this is the robot turned around.
+     */
+    private void toVirtualPose() {
+        if (dir < 0)
+            pose[2] = MercMath.wrapRadians(pose[2] + Math.PI);
+    }
+
+    private void configurePID(double p, double i, double d, double f) {
+        left.config_kP(DriveTrain.SLOT_0, p, DriveTrain.TIMEOUT_MS);
+        right.config_kP(DriveTrain.SLOT_0, p, DriveTrain.TIMEOUT_MS);
+
+        left.config_kI(DriveTrain.SLOT_0, i, DriveTrain.TIMEOUT_MS);
+        right.config_kI(DriveTrain.SLOT_0, i, DriveTrain.TIMEOUT_MS);
+
+        left.config_kD(DriveTrain.SLOT_0, d, DriveTrain.TIMEOUT_MS);
+        right.config_kD(DriveTrain.SLOT_0, d, DriveTrain.TIMEOUT_MS);
+
+        left.config_kF(DriveTrain.SLOT_0, f, DriveTrain.TIMEOUT_MS);
+        right.config_kF(DriveTrain.SLOT_0, f, DriveTrain.TIMEOUT_MS);
+    }
+}
@@ -0,0 +1,181 @@
+package frc.robot.commands;
+
+import edu.wpi.first.wpilibj.Notifier;
+import edu.wpi.first.wpilibj.Timer;
+import edu.wpi.first.wpilibj.command.Command;
+import edu.wpi.first.wpilibj.interfaces.Gyro;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import frc.robot.Robot;
+import frc.util.Estimable;
+import frc.util.EstimatedState;
+import frc.util.MercMath;
+import frc.util.MotionProfile;
+import frc.util.ProfiledRotationController;
+import frc.util.Recallable;
+import frc.util.config.DriveTrainSettings;
+
+/**
+ * Turns the robot a set amount of degrees along a motion profile.
+ * <p>
+ * Unlike {@link DegreeRotate}, which pushes at least a minimum output until it happens to be
+ * on target, this plans the whole turn up front and follows it with feedforward and feedback
+ * on a fast {@link Notifier}, so the robot slows down onto the target instead of overshooting it.
+ *
+ * @see ProfiledRotationController
+ */
+public class ProfiledRotate extends Command implements Recallable<Double>, Estimable {
+    private static Logger log = LogManager.getLogger(ProfiledRotate.class);
+
+    private static final double
+        PERIOD = 0.005,         // seconds; 200 Hz control loop
+        SETTLE_TIMEOUT = 1.0,   // seconds allowed after the profile ends
+        ESTIMATED_SETTLE_TIME = 0.1;
+
+    private final ProfiledRotationController CONTROLLER = new ProfiledRotationController(PERIOD);
+    private final double[] OUTPUT_RANGE;
+
+    // Only exists while the command runs, so commands built for auton routines don't each hold a thread
+    private Notifier loop;
+
+    private double targetHeading;
+    private DegreeRotate.RotationType rotationType;
+
+    private Gyro gyro;
+    private Recallable<Double> originator;
+    private RecallMethod treatment;
+
+    private double startTime;
+    private volatile boolean settled;
+
+    /**
+     * @param targetHeading degrees to turn by, or the heading to turn to if absolute
+     * @param rotationType  whether the heading is relative to the current one
+     */
+    public ProfiledRotate(double targetHeading, DegreeRotate.RotationType rotationType) {
+        log.info(getName() + " Beginning constructor");
+        requires(Robot.driveTrain);
+
+        this.targetHeading = targetHeading;
+        this.rotationType = rotationType;
+        gyro = Robot.driveTrain.getGyro();
+        OUTPUT_RANGE = DriveTrainSettings.getOutputRange("profiledRotate");
+
+        log.info(getName() + " constructed");
+    }
+
+    public ProfiledRotate(Recallable<Double> o, RecallMethod t) {
+        this(0, DegreeRotate.RotationType.RELATIVE);
+
+        if (o.getType() == getType()) {
+            originator = o;
+            treatment = t;
+        } else {
+            log.warn("Recallable type not equal! Looking for " + getType() + ", found " + o.getType() + ".");
+        }
+    }
+
+    @Override
+    protected void initialize() {
+        if (originator != null) {
+            Double recalled = originator.recall();
+
+            // Recallables such as RotateToTarget have nothing to recall until they have run
+            if (recalled == null) {
+                log.warn(getName() + " has nothing to recall, not turning");
+                recalled = 0.0;
+            }
+
+            targetHeading = treatment == RecallMethod.REVERSE ? -recalled : recalled;
+        }
+
+        double heading = gyro.getAngle();
+        double target = rotationType == DegreeRotate.RotationType.ABSOLUTE ? targetHeading : heading + targetHeading;
+
+        CONTROLLER.start(heading, target);
+        setTimeout(CONTROLLER.getDuration() + SETTLE_TIMEOUT);
+
+        settled = false;
+        startTime = Timer.getFPGATimestamp();
+        loop = new Notifier(this::step);
+        loop.startPeriodic(PERIOD);
+
+        log.info(getName() + " initialized, turning from " + heading + " to " + target
+            + " in " + CONTROLLER.getDuration() + " s");
+    }
+
+    private void step() {
+        double t = Timer.getFPGATimestamp() - startTime;
+        double heading = gyro.getAngle(), rate = gyro.getRate();
+
+        if (settled || CONTROLLER.isSettled(t, heading, rate)) {
+            settled = true;
+            Robot.driveTrain.pidWrite(0);
+            return;
+        }
+
+        double output = MercMath.clamp(CONTROLLER.calculate(t, heading, rate), OUTPUT_RANGE[0], OUTPUT_RANGE[1]);
+
+        // Same direction convention as DegreeRotate
+        Robot.driveTrain.pidWrite(-output);
+    }
+
+    @Override
+    protected boolean isFinished() {
+        return settled || isTimedOut();
+    }
+
+    @Override
+    protected void end() {
+        if (loop != null) {
+            loop.close();
+            loop = null;
+        }
+        Robot.driveTrain.stop();
+
+        if (settled)
+            log.info(getName() + " ended on target after " + (Timer.getFPGATimestamp() - startTime) + " s");
+        else
+            log.warn(getName() + " timed out " + CONTROLLER.getError() + " degrees off the profile");
+    }
+
+    @Override
+    protected void interrupted() {
+        log.info(getName() + " interrupted");
+        end();
+    }
+
+    @Override
+    public Double recall() {
+        return targetHeading;
+    }
+
+    @Override
+    public CommandType getType() {
+        return CommandType.ROTATION;
+    }
+
+    /**
+     * Estimates the rotation as the length of its profile, plus a little settling.
+     */
+    @Override
+    public double estimateDuration(EstimatedState state) {
+        double degrees = targetHeading;
+        if (originator != null) {
+            Double recalled = originator.recall();
+            degrees = recalled != null ? recalled : 0;
+        }
+        if (treatment == RecallMethod.REVERSE)
+            degrees *= -1;
+
+        double start = state.getGyroAngle();
+        double target = rotationType == DegreeRotate.RotationType.ABSOLUTE ? degrees : start + degrees;
+        state.setGyroAngle(target);
+
+        double[] limits = DriveTrainSettings.getRotationProfile();
+        MotionProfile profile = new MotionProfile(limits[0], limits[1], limits[2], PERIOD);
+        profile.generate(target - start);
+
+        return profile.getDuration() + ESTIMATED_SETTLE_TIME;
+    }
+}
@@ -0,0 +1,47 @@
+package frc.robot.commands;
+
+import edu.wpi.first.wpilibj.command.ConditionalCommand;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import frc.util.Correctable;
+import frc.util.Estimable;
+import frc.util.EstimatedState;
+
+/**
+ * Re-plans a path to where a command should have left the robot, but only if that command failed,
+ * from wherever the robot actually is. Add it right after the command it watches.
+ *
+ * @see ReplanPath#ReplanPath(Correctable)
+ */
+public class ReplanOnFailure extends ConditionalCommand implements Estimable {
+    private static Logger log = LogManager.getLogger(ReplanOnFailure.class);
+
+    private final Correctable originator;
+
+    /**
+     * @param o the command to watch
+     */
+    public ReplanOnFailure(Correctable o) {
+        super(new ReplanPath(o));
+        setName("ReplanOnFailure-" + o);
+
+        originator = o;
+    }
+
+    @Override
+    protected boolean condition() {
+        if (!originator.hasFailed())
+            return false;
+
+        log.warn(getName() + ": " + originator + " failed, re-planning from the live pose");
+        return true;
+    }
+
+    /**
+     * Estimates nothing, since the command it watches is expected to succeed.
+     */
+    @Override
+    public double estimateDuration(EstimatedState state) {
+        return 0;
+    }
+}
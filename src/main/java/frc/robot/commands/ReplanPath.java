@@ -0,0 +1,189 @@
+package frc.robot.commands;
+
+import edu.wpi.first.wpilibj.command.Command;
+import jaci.pathfinder.Waypoint;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import frc.robot.Robot;
+import frc.robot.auton.AutonTrajectoryGenerator.TrajectoryPair;
+import frc.robot.auton.PathPlanner;
+import frc.util.Correctable;
+import frc.util.Estimable;
+import frc.util.EstimatedState;
+import frc.util.MercMath;
+
+import java.util.concurrent.Future;
+
+/**
+ * Plans a new path from the robot's current pose to a goal on the field,
+ * then drives it with a {@link PathFollower}, as {@link FollowPath} does.
+ * <p>
+ * This lets auton recover from wherever the robot ended up instead of giving up.
+ * The goal can be fixed, or taken from a {@link Correctable} command when this command
+ * starts, to put the robot back where that command should have left it; {@link ReplanOnFailure}
+ * only does so when that command failed. Goals behind the robot are driven to backwards.
+ * <p>
+ * The path is generated in the background by {@link PathPlanner}; if it is not
+ * ready within the time budget, this command gives up and ends without moving.
+ */
+public class ReplanPath extends Command implements Estimable {
+    private static Logger log = LogManager.getLogger(ReplanPath.class);
+
+    private static final double MIN_DISTANCE = 0.5; // feet; closer goals are not worth a path
+
+    private final Correctable originator;
+    private final double timeBudget;
+    private final double[] pose = new double[3];
+
+    private Waypoint goal;
+    private MoveOnPath.Direction direction;
+
+    private Future<TrajectoryPair> plan;
+    private PathFollower follower;
+    private boolean failed;
+
+    /**
+     * Creates this command with the default planning budget of 0.25 seconds.
+     *
+     * @param goal where to drive to, in field coordinates (feet and radians)
+     */
+    public ReplanPath(Waypoint goal) {
+        this(goal, 0.25);
+    }
+
+    /**
+     * Creates this command.
+     *
+     * @param goal       where to drive to, in field coordinates (feet and radians)
+     * @param timeBudget how long to wait for the path to be planned, in seconds
+     */
+    public ReplanPath(Waypoint goal, double timeBudget) {
+        requires(Robot.driveTrain);
+        setName("ReplanPath (" + goal.x + ", " + goal.y + ")");
+
+        this.goal = goal;
+        this.timeBudget = timeBudget;
+        originator = null;
+
+        log.info(getName() + " Constructed");
+    }
+
+    /**
+     * Creates this command to drive to where another command should have left the robot,
+     * with the default planning budget of 0.25 seconds.
+     *
+     * @param o the command whose target to drive to; read when this command starts
+     */
+    public ReplanPath(Correctable o) {
+        requires(Robot.driveTrain);
+        setName("ReplanPath-" + o);
+
+        timeBudget = 0.25;
+        originator = o;
+
+        log.info(getName() + " Constructed");
+    }
+
+    // Called just before this Command runs the first time
+    @Override
+    protected void initialize() {
+        follower = null;
+        failed = false;
+        plan = null;
+
+        Robot.driveTrain.stop();
+
+        if (originator != null) {
+            originator.getTargetPose(pose);
+            goal = new Waypoint(pose[0], pose[1], pose[2]);
+        }
+
+        Robot.driveTrain.updateOdometry();
+        Robot.driveTrain.getOdometry().getPose(pose);
+
+        double dx = goal.x - pose[0], dy = goal.y - pose[1];
+        if (Math.hypot(dx, dy) < MIN_DISTANCE) {
+            log.info(getName() + " is already at its goal");
+            failed = true;
+            return;
+        }
+
+        // Back up to goals behind the robot rather than turning around to reach them
+        if (dx * Math.cos(pose[2]) + dy * Math.sin(pose[2]) < 0) {
+            direction = MoveOnPath.Direction.BACKWARD;
+            plan = PathPlanner.plan(pose[0], pose[1], MercMath.wrapRadians(pose[2] + Math.PI),
+                new Waypoint(goal.x, goal.y, MercMath.wrapRadians(goal.angle + Math.PI)));
+        } else {
+            direction = MoveOnPath.Direction.FORWARD;
+            plan = PathPlanner.plan(pose[0], pose[1], pose[2], goal);
+        }
+
+        log.info(getName() + " initialized, planning to (" + goal.x + ", " + goal.y + ")");
+    }
+
+    // Called repeatedly when this Command is scheduled to run
+    @Override
+    protected void execute() {
+        if (follower != null || failed)
+            return;
+
+        if (plan.isDone()) {
+            try {
+                follower = new PathFollower(getName(), plan.get(), direction);
+                follower.start();
+            } catch (Exception e) {
+                log.warn(getName() + " could not plan a path!");
+                log.catching(e);
+                failed = true;
+            }
+        } else if (timeSinceInitialized() > timeBudget) {
+            log.warn(getName() + " ran out of time to plan a path!");
+            plan.cancel(true);
+            failed = true;
+        }
+    }
+
+    /**
+     * Estimates the full planning budget plus driving straight to the goal
+     * from the estimated pose. When the goal comes from another command, the robot
+     * is assumed to be there already.
+     */
+    @Override
+    public double estimateDuration(EstimatedState state) {
+        if (originator != null)
+            return timeBudget;
+
+        double distance = Math.hypot(goal.x - state.getX(), goal.y - state.getY());
+        state.setPose(goal.x, goal.y, goal.angle);
+
+        return timeBudget + PathPlanner.estimateDuration(distance);
+    }
+
+    // Make this return true when this Command no longer needs to run execute()
+    @Override
+    protected boolean isFinished() {
+        return failed || (follower != null && follower.isFinished());
+    }
+
+    // Called once after isFinished returns true
+    @Override
+    protected void end() {
+        if (follower != null)
+            follower.stop();
+        else
+            Robot.driveTrain.stop();
+
+        log.info(getName() + " ended");
+    }
+
+    // Called when another command which requires one or more of the same
+    // subsystems is scheduled to run
+    @Override
+    protected void interrupted() {
+        log.info(getName() + " interrupted");
+
+        if (plan != null)
+            plan.cancel(true);
+        end();
+    }
+}
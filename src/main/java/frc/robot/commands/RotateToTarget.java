@@ -1,12 +1,13 @@
 package frc.robot.commands;
 
 import edu.wpi.first.wpilibj.command.PIDCommand;
-import edu.wpi.first.wpilibj.filters.LinearDigitalFilter;
 import edu.wpi.first.wpilibj.interfaces.Gyro;
 import org.apache.logging.log4j.Level;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import frc.robot.Robot;
+import frc.robot.sensors.vision.Target;
+import frc.robot.sensors.vision.VisionPipeline;
 import frc.util.DelayableLogger;
 import frc.util.Recallable;
 import frc.util.config.DriveTrainSettings;
@@ -15,7 +16,11 @@ import frc.util.config.SensorsSettings;
 import java.util.concurrent.TimeUnit;
 
 /**
- * Turns the robot towards a target found with the PixyCam
+ * Turns the robot towards the primary target of the claw's vision pipeline.
+ * The PID loop works on the angle to the target, in degrees.
+ * <p>
+ * rotateToTarget.PID is tuned on the displacement in pixels, as this command used to work,
+ * so the gains are scaled by the camera's pixels per degree to push just as hard.
  */
 public class RotateToTarget extends PIDCommand implements Recallable<Double> {
 	private final Logger LOG = LogManager.getLogger(RotateToTarget.class);
@@ -25,7 +30,7 @@ public class RotateToTarget extends PIDCommand implements Recallable<Double> {
 	private final double MIN_PERCENT_VBUS;
 	private final int ONTARGET_THRESHOLD = 3;
 
-	private LinearDigitalFilter filter;
+	private VisionPipeline vision;
 	private Gyro gyro;
 
 	private double finalRotation = Double.NEGATIVE_INFINITY;
@@ -34,16 +39,17 @@ public class RotateToTarget extends PIDCommand implements Recallable<Double> {
 	 * Constructs this command with a setClawState degree to rotate.
 	 */
 	public RotateToTarget() {
-		super( // Sloppy, but configurable
-				DriveTrainSettings.getPIDValues("rotateToTarget")[0],
-				DriveTrainSettings.getPIDValues("rotateToTarget")[1],
-				DriveTrainSettings.getPIDValues("rotateToTarget")[2]
-		);
+		super(0, 0, 0);
 
 		LOG.info(getName() + " Beginning constructor");
 		requires(Robot.driveTrain);
 
-		filter = LinearDigitalFilter.movingAverage(Robot.claw.getPixyCam(), 5);
+		double[] pid = DriveTrainSettings.getPIDValues("rotateToTarget");
+		double pixelsPerDegree = getPixelsPerDegree();
+		getPIDController().setPID(pid[0] * pixelsPerDegree, pid[1] * pixelsPerDegree, pid[2] * pixelsPerDegree);
+
+		// Targets are tracked by the pipeline, so they are used without further smoothing
+		vision = Robot.claw.getVision();
 		gyro = Robot.driveTrain.getGyro();
 
 		MIN_PERCENT_VBUS = DriveTrainSettings.getRotMinPVBus();
@@ -54,17 +60,15 @@ public class RotateToTarget extends PIDCommand implements Recallable<Double> {
 
 	// Called just before this Command runs the first time
 	protected void initialize() {
-		filter.reset();
-
 		double[] outputRange = DriveTrainSettings.getOutputRange("rotateRelative");
 
-		int camResWidth = SensorsSettings.getCameraResolution().width;
-		getPIDController().setInputRange(-camResWidth / 2, camResWidth / 2);
+		double halfFOV = SensorsSettings.getCameraFOV()[0] / 2;
+		getPIDController().setInputRange(-halfFOV, halfFOV);
 		getPIDController().setOutputRange(outputRange[0], outputRange[1]);
 
 		//Set the controller to continuous AFTER setInputRange()
 		getPIDController().setContinuous(true);
-		getPIDController().setAbsoluteTolerance(5);
+		getPIDController().setAbsoluteTolerance(1);
 
 		getPIDController().setSetpoint(0);
 
@@ -97,7 +101,10 @@ public class RotateToTarget extends PIDCommand implements Recallable<Double> {
 
 	@Override
 	protected double returnPIDInput() {
-		return filter.pidGet();
+		Target target = vision.getPrimary();
+
+		// Positive when the target is to the left, like the camera's displacement
+		return target != null ? -target.getAngle() : Double.NEGATIVE_INFINITY;
 	}
 
 	@Override
@@ -111,6 +118,16 @@ public class RotateToTarget extends PIDCommand implements Recallable<Double> {
 		Robot.driveTrain.pidWrite(-output);
 	}
 
+	/**
+	 * @return pixels the target moves in the image per degree the robot turns, near the center of the image
+	 */
+	private static double getPixelsPerDegree() {
+		double halfWidth = SensorsSettings.getCameraResolution().width / 2.0;
+		double halfFOV = Math.toRadians(SensorsSettings.getCameraFOV()[0] / 2);
+
+		return Math.toRadians(halfWidth / Math.tan(halfFOV));
+	}
+
 	@Override
 	public Double recall() {
 		if (finalRotation > Double.NEGATIVE_INFINITY)
@@ -0,0 +1,175 @@
+package frc.robot.commands;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import frc.util.MercMath;
+import frc.util.ProfiledRotationController;
+import frc.util.config.DriveTrainSettings;
+
+/**
+ * Compares how long {@link DegreeRotate} and {@link ProfiledRotate} take to settle
+ * on a simulated drive train, using each command's tuning from drivetrain.properties.
+ * <p>
+ * The drive train turns like a first-order system: the turn rate approaches the rate
+ * the output would sustain with a fixed time constant, less a constant friction that
+ * opposes turning and holds the robot still against outputs too small to overcome it.
+ * Its constants are rough guesses, and the default ProfiledRotate feedforward gains were
+ * picked to match them, so ProfiledRotate's results only hold once both are fit to the robot.
+ */
+public class RotationBenchmark {
+    private static final Logger log = LogManager.getLogger(RotationBenchmark.class);
+
+    // Simulated drive train
+    private static final double
+        FULL_OUTPUT_RATE = 860,     // deg/s at full output
+        TIME_CONSTANT = 0.12,       // seconds
+        STATIC_FRICTION = 0.05,     // output lost to friction
+        SIM_DT = 0.001,             // seconds per simulation step
+        MAX_TIME = 5.0;             // seconds before a turn counts as never settling
+
+    // How the real commands are run
+    private static final double
+        SCHEDULER_PERIOD = 0.02,
+        PID_CONTROLLER_PERIOD = 0.05,   // PIDCommand's default
+        PROFILED_PERIOD = 0.005,
+        DEGREE_ROTATE_TOLERANCE = 1.5;
+    private static final int DEGREE_ROTATE_ONTARGET_COUNT = 3;
+
+    private static final double[] TURNS = {15, 45, 90, 120, 180};
+
+    private RotationBenchmark() { } // Should never be constructed.
+
+    /**
+     * Simulates both commands over a few typical turns and logs the results.
+     */
+    public static void run() {
+        log.info("Rotation settle time (s) and overshoot (deg), simulated:");
+        log.info(String.format("%8s %22s %22s", "turn", "DegreeRotate", "ProfiledRotate"));
+
+        double[] degree = new double[2], profiled = new double[2];
+        for (double turn : TURNS) {
+            simulateDegreeRotate(turn, degree);
+            simulateProfiledRotate(turn, profiled);
+
+            log.info(String.format("%8.0f %22s %22s", turn, format(degree), format(profiled)));
+        }
+    }
+
+    private static String format(double[] result) {
+        String time = result[0] < MAX_TIME ? String.format("%.2f", result[0]) : "never";
+        return String.format("%s / %.1f", time, result[1]);
+    }
+
+    /**
+     * Runs DegreeRotate's control law: PID at the PID controller's rate, outputs below the minimum
+     * raised to it, and finished after enough consecutive on-target scheduler ticks.
+     *
+     * @param out receives {settle time, overshoot}
+     */
+    private static void simulateDegreeRotate(double turn, double[] out) {
+        double[] pid = DriveTrainSettings.getPIDValues("degreeRotate");
+        double[] range = DriveTrainSettings.getOutputRange("degreeRotate");
+        double minOutput = DriveTrainSettings.getRotMinPVBus();
+
+        double heading = 0, rate = 0, output = 0, overshoot = 0;
+        double error = turn, previousError = turn, totalError = 0;
+        double nextPID = 0, nextTick = SCHEDULER_PERIOD;
+        int counter = 0;
+
+        for (double t = 0; t < MAX_TIME; t += SIM_DT) {
+            if (t >= nextPID) {
+                nextPID += PID_CONTROLLER_PERIOD;
+                error = turn - heading;
+                totalError += error;
+
+                double pidOutput = MercMath.clamp(pid[0] * error + pid[1] * totalError + pid[2] * (error - previousError),
+                    range[0], range[1]);
+                previousError = error;
+
+                if (Math.abs(error) <= DEGREE_ROTATE_TOLERANCE)
+                    output = 0;
+                else if (Math.abs(pidOutput) < minOutput)
+                    output = Math.signum(pidOutput) * minOutput;
+                else
+                    output = pidOutput;
+            }
+
+            if (t >= nextTick) {
+                nextTick += SCHEDULER_PERIOD;
+                counter = Math.abs(error) <= DEGREE_ROTATE_TOLERANCE ? counter + 1 : 0;
+                if (counter > DEGREE_ROTATE_ONTARGET_COUNT) {
+                    out[0] = t;
+                    out[1] = overshoot;
+                    return;
+                }
+            }
+
+            rate = step(rate, output);
+            heading += rate * SIM_DT;
+            overshoot = Math.max(overshoot, Math.signum(turn) * (heading - turn));
+        }
+
+        out[0] = MAX_TIME;
+        out[1] = overshoot;
+    }
+
+    /**
+     * Runs ProfiledRotate's controller at its own rate, finishing on the
+     * first scheduler tick after it reports being settled.
+     *
+     * @param out receives {settle time, overshoot}
+     */
+    private static void simulateProfiledRotate(double turn, double[] out) {
+        ProfiledRotationController controller = new ProfiledRotationController(PROFILED_PERIOD);
+        double[] range = DriveTrainSettings.getOutputRange("profiledRotate");
+        controller.start(0, turn);
+
+        double heading = 0, rate = 0, output = 0, overshoot = 0;
+        double nextStep = 0, nextTick = SCHEDULER_PERIOD;
+        boolean settled = false;
+
+        for (double t = 0; t < MAX_TIME; t += SIM_DT) {
+            if (t >= nextStep) {
+                nextStep += PROFILED_PERIOD;
+
+                if (settled || controller.isSettled(t, heading, rate)) {
+                    settled = true;
+                    output = 0;
+                } else {
+                    output = MercMath.clamp(controller.calculate(t, heading, rate), range[0], range[1]);
+                }
+            }
+
+            if (t >= nextTick) {
+                nextTick += SCHEDULER_PERIOD;
+                if (settled) {
+                    out[0] = t;
+                    out[1] = overshoot;
+                    return;
+                }
+            }
+
+            rate = step(rate, output);
+            heading += rate * SIM_DT;
+            overshoot = Math.max(overshoot, Math.signum(turn) * (heading - turn));
+        }
+
+        out[0] = MAX_TIME;
+        out[1] = overshoot;
+    }
+
+    /**
+     * @return the simulated turn rate after one step at the given output
+     */
+    private static double step(double rate, double output) {
+        // Friction opposes turning, and holds the robot still against small outputs
+        if (Math.abs(rate) < 1e-3 && Math.abs(output) <= STATIC_FRICTION)
+            return 0;
+
+        double direction = Math.abs(rate) >= 1e-3 ? Math.signum(rate) : Math.signum(output);
+        double next = rate + (FULL_OUTPUT_RATE * (output - STATIC_FRICTION * direction) - rate) / TIME_CONSTANT * SIM_DT;
+
+        // Friction can stop the robot, but not turn it back
+        return Math.signum(next) == -direction && Math.abs(output) <= STATIC_FRICTION ? 0 : next;
+    }
+}
@@ -0,0 +1,77 @@
+package frc.robot.commands;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import frc.robot.subsystems.DriveTrain;
+import frc.util.DriveKinematics;
+import frc.util.MercMath;
+
+/**
+ * Times the drive train's unit conversions three ways: worked out from the drive train's
+ * constants on every call, as {@link MercMath} used to; through {@link MercMath}; and
+ * straight through a {@link DriveKinematics}.
+ * <p>
+ * Each way converts the same positions and velocities, after a few passes to let the JIT
+ * compile it, and the results are summed so none of the work can be optimized away.
+ */
+public class UnitConversionBenchmark {
+    private static final Logger log = LogManager.getLogger(UnitConversionBenchmark.class);
+
+    private static final int SAMPLES = 4096, WARMUP_PASSES = 20, PASSES = 200;
+
+    private UnitConversionBenchmark() { } // Should never be constructed.
+
+    /**
+     * Runs each way over the same inputs and logs the time per conversion.
+     */
+    public static void run() {
+        double[] ticks = new double[SAMPLES];
+        for (int i = 0; i < SAMPLES; i++)
+            ticks[i] = i * 37.0 - 50000;
+
+        DriveKinematics kinematics = DriveTrain.KINEMATICS;
+        double recomputed = 0, mercMath = 0, direct = 0;
+        long recomputedTime = 0, mercMathTime = 0, directTime = 0;
+
+        for (int pass = 0; pass < WARMUP_PASSES + PASSES; pass++) {
+            long start = System.nanoTime();
+            for (double t : ticks)
+                recomputed += recomputedFeet(t) + recomputedTicks(t) + recomputedRevsPerMinute(t);
+            long afterRecomputed = System.nanoTime();
+            for (double t : ticks)
+                mercMath += MercMath.getEncPosition(t) + MercMath.feetToEncoderTicks(t) + MercMath.ticksPerTenthToRevsPerMinute(t);
+            long afterMercMath = System.nanoTime();
+            for (double t : ticks)
+                direct += kinematics.ticksToFeet(t) + kinematics.feetToTicks(t) + kinematics.ticksPerTenthToRevsPerMinute(t);
+            long afterDirect = System.nanoTime();
+
+            if (pass >= WARMUP_PASSES) {
+                recomputedTime += afterRecomputed - start;
+                mercMathTime += afterMercMath - afterRecomputed;
+                directTime += afterDirect - afterMercMath;
+            }
+        }
+
+        double conversions = 3.0 * SAMPLES * PASSES;
+        log.info(String.format("Unit conversions, ns each: recomputed %.2f, MercMath %.2f, DriveKinematics %.2f",
+            recomputedTime / conversions, mercMathTime / conversions, directTime / conversions));
+
+        // Same conversions, so the sums should only differ by rounding
+        log.info(String.format("Unit conversion sums: %.6g, %.6g, %.6g", recomputed, mercMath, direct));
+    }
+
+    // The conversions as MercMath used to do them, from the drive train's constants on every call
+
+    private static double recomputedFeet(double ticks) {
+        return ((Math.PI * DriveTrain.WHEEL_DIAMETER_INCHES) /
+                (DriveTrain.MAG_ENCODER_TICKS_PER_REVOLUTION * DriveTrain.GEAR_RATIO) * ticks) / 12;
+    }
+
+    private static double recomputedTicks(double feet) {
+        return feet * 12 / (Math.PI * DriveTrain.WHEEL_DIAMETER_INCHES) * DriveTrain.MAG_ENCODER_TICKS_PER_REVOLUTION;
+    }
+
+    private static double recomputedRevsPerMinute(double ticksPerTenthSecond) {
+        return ticksPerTenthSecond / DriveTrain.MAG_ENCODER_TICKS_PER_REVOLUTION * 600;
+    }
+}
@@ -6,20 +6,26 @@ import org.apache.logging.log4j.Logger;
 import frc.robot.Robot;
 import frc.robot.subsystems.Claw;
 import frc.util.DelayableLogger;
+import frc.util.Estimable;
+import frc.util.EstimatedState;
 
 import java.util.concurrent.TimeUnit;
 
 /**
  * Command that utilizes the claw depending on the state given.
  */
-public class UseClaw extends Command {
+public class UseClaw extends Command implements Estimable {
     private static final Logger LOG = LogManager.getLogger(UseClaw.class);
 
     private Claw.ClawState targetState;
     private DelayableLogger exeLog = new DelayableLogger(LOG, 1, TimeUnit.SECONDS);
     private final double minimumDistance = 8, timeThreshold = 550;
+    private final double STOP_LATENCY = 0.1;   // seconds between deciding to stop and the rollers stopping
     private long startTimeMillis;
 
+    // Grabbing depends on where the cube is; this is a typical grab in auton
+    private static final double ESTIMATED_GRAB_TIME = 1.0;
+
     public UseClaw(Claw.ClawState state) {
         LOG.info(getName() + "Beginning constructor");
         requires(Robot.claw);
@@ -58,10 +64,18 @@ public class UseClaw extends Command {
         Robot.claw.setClawState(Claw.ClawState.STOP);
     }
 
+    @Override
+    public double estimateDuration(EstimatedState state) {
+        if (targetState == Claw.ClawState.GRAB)
+            return ESTIMATED_GRAB_TIME;
+
+        return timeThreshold / 1000;
+    }
+
     @Override
     protected boolean isFinished() {
         if (targetState == Claw.ClawState.GRAB)
-            return Robot.claw.getLidar().getDistance() - minimumDistance <= 0;
+            return Robot.claw.getCubeRange(STOP_LATENCY) - minimumDistance <= 0;
 
         return System.currentTimeMillis() - startTimeMillis > timeThreshold;
     }
@@ -1,6 +1,5 @@
 package frc.robot.commands;
 
-import com.ctre.phoenix.motorcontrol.ControlMode;
 import edu.wpi.first.wpilibj.command.Command;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -9,6 +8,9 @@ import frc.robot.RobotMap;
 import frc.robot.subsystems.DriveTrain;
 import frc.robot.subsystems.Elevator;
 import frc.util.DelayableLogger;
+import frc.util.Estimable;
+import frc.util.EstimatedState;
+import frc.util.MercMath;
 
 import java.util.concurrent.TimeUnit;
 
@@ -16,11 +18,9 @@ import java.util.concurrent.TimeUnit;
  * Command that constantly updates the height of the elevator based
  * on the elevator's current target position.
  */
-public class UseElevator extends Command {
+public class UseElevator extends Command implements Estimable {
     private final Logger LOG = LogManager.getLogger(UseElevator.class);
     private final DelayableLogger SLOW_LOG = new DelayableLogger(LOG, 1, TimeUnit.SECONDS);
-    private final int ELEVATOR_THRESHOLD = 500;
-
     private Elevator.ElevatorPosition targetPos;
 
     private int counter = 0;
@@ -49,8 +49,7 @@ public class UseElevator extends Command {
     @Override
     protected void initialize() {
 
-        Robot.elevator.setPosition(targetPos); //line switched with next
-        Robot.elevator.getElevatorTalon().set(ControlMode.Position, targetPos.encPos);
+        Robot.elevator.moveTo(targetPos);
 
         LOG.info(getName() + " initialized");
     }
@@ -70,18 +69,29 @@ public class UseElevator extends Command {
         LOG.info(getName() + "elevator ended");
     }
 
+    /**
+     * Estimates the time for the elevator to travel from its estimated height to the target,
+     * following the target's Motion Magic limits. Commands that do not end on their own
+     * keep holding the elevator after this.
+     */
+    @Override
+    public double estimateDuration(EstimatedState state) {
+        double travel = targetPos.encPos - state.getElevatorHeight();
+        state.setElevatorHeight(targetPos.encPos);
+
+        // Motion Magic units are per 100 ms
+        return MercMath.trapezoidTime(travel, targetPos.cruiseVelocity * 10.0, targetPos.acceleration * 10.0);
+    }
+
     @Override
     protected boolean isFinished() {
-        if (endable && ELEVATOR_THRESHOLD >= Math.abs(targetPos.encPos - Robot.elevator.getCurrentHeight())) {
+        if (endable && Robot.elevator.isAtTarget()) {
             LOG.info("Reached " + targetPos.toString());
             return true;
         }
-        if (targetPos == Elevator.ElevatorPosition.FLOOR) {
-            if (Robot.elevator.isLimitSwitchClosed()) {
-                Robot.elevator.getElevatorTalon().set(ControlMode.Position, targetPos.encPos);
-                LOG.info("Reached!");
-                return true;
-            }
+        if (targetPos == Elevator.ElevatorPosition.FLOOR && Robot.elevator.isAtTarget()) {
+            LOG.info("Reached!");
+            return true;
         }
         return false;
     }
@@ -0,0 +1,70 @@
+package frc.robot.sensors;
+
+import frc.util.RangeKalmanFilter;
+import frc.util.config.SensorsSettings;
+
+/**
+ * Fuses the claw's LIDAR and ultrasonic readings into one range to the cube,
+ * weighting each by how noisy it is. The LIDAR is trusted less when its own filter has little
+ * confidence, and the ultrasonic is ignored at its minimum range, since it reads the same
+ * for anything closer.
+ * <p>
+ * This only does the math, taking readings rather than sensors, so that
+ * {@link frc.util.telemetry.InputReplay} can run it on recorded readings.
+ */
+public class CubeRangeEstimator {
+    private static final double MIN_LIDAR_CONFIDENCE = 0.1; // keeps an untrusted LIDAR from getting infinite noise
+
+    private final RangeKalmanFilter FILTER;
+    private final double LIDAR_NOISE, ULTRASONIC_NOISE, ULTRASONIC_MIN_RANGE, ULTRASONIC_OFFSET;
+
+    /**
+     * Creates an estimator tuned from sensors.properties.
+     */
+    public CubeRangeEstimator() {
+        FILTER = new RangeKalmanFilter(SensorsSettings.getRangeAccelerationNoise());
+        LIDAR_NOISE = SensorsSettings.getLidarNoise();
+        ULTRASONIC_NOISE = SensorsSettings.getUltrasonicNoise();
+        ULTRASONIC_MIN_RANGE = SensorsSettings.getUltrasonicMinRange();
+        ULTRASONIC_OFFSET = SensorsSettings.getUltrasonicOffset();
+    }
+
+    /**
+     * Adds one loop's readings.
+     *
+     * @param dt                seconds since the last update
+     * @param lidarReading      LIDAR distance in inches, or NaN if the LIDAR's filter rejected it
+     * @param lidarConfidence   the LIDAR's confidence in its readings, from 0 to 1
+     * @param ultrasonicReading ultrasonic range in inches
+     */
+    public void update(double dt, double lidarReading, double lidarConfidence, double ultrasonicReading) {
+        FILTER.predict(dt);
+
+        if (!Double.isNaN(lidarReading))
+            FILTER.update(lidarReading, LIDAR_NOISE / Math.max(lidarConfidence, MIN_LIDAR_CONFIDENCE));
+
+        if (ultrasonicReading > ULTRASONIC_MIN_RANGE)
+            FILTER.update(ultrasonicReading - ULTRASONIC_OFFSET, ULTRASONIC_NOISE);
+    }
+
+    /**
+     * @return range to the cube in inches, measured from the LIDAR, or NaN before any reading
+     */
+    public double getRange() {
+        return FILTER.getRange();
+    }
+
+    /**
+     * @return how fast the range is changing, in inches per second
+     */
+    public double getRate() {
+        return FILTER.getRate();
+    }
+
+    /**
+     * @return standard deviation of the range, in inches
+     */
+    public double getRangeDeviation() {
+        return FILTER.getRangeDeviation();
+    }
+}
@@ -0,0 +1,263 @@
+package frc.robot.sensors;
+
+import edu.wpi.first.wpilibj.ADXRS450_Gyro;
+import edu.wpi.first.wpilibj.Notifier;
+import edu.wpi.first.wpilibj.SerialPort;
+import edu.wpi.first.wpilibj.Timer;
+import edu.wpi.first.wpilibj.interfaces.Gyro;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import frc.util.DelayableLogger;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Heading from whichever gyro on the robot is working, corrected for drift.
+ * <p>
+ * A background loop reads every gyro and keeps its own heading by adding up how far the
+ * active gyro turned each update, less that gyro's estimated bias. If the active gyro fails,
+ * the next healthy one takes over without the heading jumping, and the preferred gyro
+ * takes back over once it is working again. A NavX reports whether it is connected and
+ * calibrated; other gyros count as failed once their readings stop changing.
+ * <p>
+ * Bias is estimated whenever the robot reports itself stationary, by measuring how far each
+ * gyro drifts over a second. {@link #calibrate()} only restarts that estimate and returns
+ * right away, so it can be called at any time without holding up the robot.
+ */
+public class GyroService implements Gyro {
+    private static final Logger log = LogManager.getLogger(GyroService.class);
+    private static final DelayableLogger SLOW_LOG = new DelayableLogger(log, 1, TimeUnit.SECONDS);
+
+    private static final double
+        UPDATE_PERIOD = 0.01,       // seconds
+        BIAS_WINDOW = 1.0,          // seconds of standing still per bias measurement
+        BIAS_SMOOTHING = 0.2,       // weight of each new bias measurement
+        MAX_STATIONARY_RATE = 2.0,  // deg/s; any faster and the robot is being moved
+        STALE_TIME = 0.5;           // seconds of identical readings before a gyro counts as dead
+    private static final int CALIBRATED_WINDOWS = 3;
+
+    public enum GyroType {
+        ADXRS450,
+        NAVX,
+        NONE;
+
+        /**
+         * @return a new gyro of this type, or null for {@link #NONE}
+         */
+        public Gyro create() {
+            switch (this) {
+                case ADXRS450:
+                    return new ADXRS450_Gyro();
+                case NAVX:
+                    return new NavX(SerialPort.Port.kUSB1);
+                default:
+                    return null;
+            }
+        }
+    }
+
+    private final Channel[] CHANNELS;
+    private final BooleanSupplier STATIONARY;
+    private final Notifier UPDATER;
+
+    private Channel active;
+    private volatile double heading, rate;
+
+    /**
+     * @param stationary whether the robot is standing still and may be used to measure bias
+     * @param gyros      gyros in order of preference; nulls are skipped
+     */
+    public GyroService(BooleanSupplier stationary, Gyro... gyros) {
+        STATIONARY = stationary;
+
+        int count = 0;
+        for (Gyro gyro : gyros) {
+            if (gyro != null)
+                count++;
+        }
+
+        CHANNELS = new Channel[count];
+        count = 0;
+        for (Gyro gyro : gyros) {
+            if (gyro != null)
+                CHANNELS[count++] = new Channel(gyro);
+        }
+
+        if (CHANNELS.length == 0)
+            log.error("No gyro configured; heading will stay at 0");
+        else
+            active = CHANNELS[0];
+
+        UPDATER = new Notifier(this::update);
+        UPDATER.startPeriodic(UPDATE_PERIOD);
+    }
+
+    private synchronized void update() {
+        double now = Timer.getFPGATimestamp();
+        boolean stationary = STATIONARY.getAsBoolean();
+
+        for (Channel channel : CHANNELS)
+            channel.read(now, stationary);
+
+        if (active == null)
+            return;
+
+        // Use the most preferred gyro that is working, so the primary takes back over once it recovers
+        for (Channel channel : CHANNELS) {
+            if (channel.healthy) {
+                if (channel != active) {
+                    String message = "Switching gyro from " + active.name + " to " + channel.name;
+                    SLOW_LOG.run(log -> log.warn(message));
+                }
+                active = channel;
+                break;
+            }
+        }
+
+        if (active.healthy) {
+            heading += active.delta;
+            rate = active.rate;
+        } else {
+            rate = 0;
+        }
+    }
+
+    /**
+     * Restarts bias estimation. This does not block; the estimate is refined in the
+     * background while the robot is stationary, see {@link #isCalibrated()}.
+     */
+    @Override
+    public synchronized void calibrate() {
+        for (Channel channel : CHANNELS)
+            channel.restartBias();
+    }
+
+    /**
+     * @return whether the active gyro's bias has been measured since the last {@link #calibrate()}
+     */
+    public synchronized boolean isCalibrated() {
+        return active != null && active.biasWindows >= CALIBRATED_WINDOWS;
+    }
+
+    @Override
+    public synchronized void reset() {
+        heading = 0;
+    }
+
+    /**
+     * @return heading in degrees, clockwise positive
+     */
+    @Override
+    public double getAngle() {
+        return heading;
+    }
+
+    /**
+     * @return turn rate in degrees per second, clockwise positive
+     */
+    @Override
+    public double getRate() {
+        return rate;
+    }
+
+    /**
+     * @return name of the gyro the heading currently comes from
+     */
+    public synchronized String getActiveName() {
+        return active != null ? active.name : "none";
+    }
+
+    /**
+     * @return estimated bias of the active gyro, in degrees per second
+     */
+    public synchronized double getBias() {
+        return active != null ? active.bias : 0;
+    }
+
+    @Override
+    public void close() {
+        UPDATER.stop();
+    }
+
+    /**
+     * One gyro and what has been learned about it.
+     */
+    private static class Channel {
+        private final Gyro GYRO;
+        private final String name;
+
+        double lastAngle, lastTime, lastChange;
+        boolean started, healthy;
+
+        // Turn since the last read with bias removed, and bias-corrected rate
+        double delta, rate;
+
+        // Bias estimate, and the current stationary window measuring it
+        double bias, windowStartAngle, windowStartTime = Double.NaN;
+        int biasWindows;
+
+        Channel(Gyro gyro) {
+            GYRO = gyro;
+            name = gyro.getClass().getSimpleName();
+        }
+
+        void read(double now, boolean stationary) {
+            double angle = GYRO.getAngle();
+
+            if (!started) {
+                lastAngle = angle;
+                lastTime = lastChange = now;
+                started = healthy = true;
+                return;
+            }
+
+            double dt = now - lastTime;
+            if (angle != lastAngle)
+                lastChange = now;
+
+            if (GYRO instanceof NavX) {
+                // The NavX filters out its noise, so its reading holds still whenever the robot does
+                NavX navX = (NavX) GYRO;
+                healthy = navX.isConnected() && !navX.isCalibrating();
+            } else {
+                // The ADXRS450 always has some noise, so a reading that never changes means the gyro is gone
+                healthy = now - lastChange < STALE_TIME;
+            }
+
+            delta = angle - lastAngle - bias * dt;
+            rate = GYRO.getRate() - bias;
+            lastAngle = angle;
+            lastTime = now;
+
+            if (stationary && healthy && Math.abs(rate) < MAX_STATIONARY_RATE)
+                measureBias(angle, now);
+            else
+                windowStartTime = Double.NaN;
+        }
+
+        private void measureBias(double angle, double now) {
+            if (Double.isNaN(windowStartTime)) {
+                windowStartTime = now;
+                windowStartAngle = angle;
+                return;
+            }
+
+            double elapsed = now - windowStartTime;
+            if (elapsed < BIAS_WINDOW)
+                return;
+
+            double drift = (angle - windowStartAngle) / elapsed;
+            bias = biasWindows == 0 ? drift : bias + BIAS_SMOOTHING * (drift - bias);
+            biasWindows++;
+
+            windowStartTime = now;
+            windowStartAngle = angle;
+        }
+
+        void restartBias() {
+            biasWindows = 0;
+            windowStartTime = Double.NaN;
+        }
+    }
+}
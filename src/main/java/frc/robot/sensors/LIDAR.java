@@ -3,19 +3,45 @@ package frc.robot.sensors;
 import com.ctre.phoenix.CANifier;
 import edu.wpi.first.wpilibj.PIDSource;
 import edu.wpi.first.wpilibj.PIDSourceType;
-import edu.wpi.first.wpilibj.filters.LinearDigitalFilter;
+import edu.wpi.first.wpilibj.Timer;
 import frc.util.MercMath;
+import frc.util.RollingMedian;
+import frc.util.config.SensorsSettings;
 
 /**
  * Wrapper class for the entire LIDAR system that we are using to check for distance.
+ * <p>
+ * Every reading goes through a filter chain before it is used:
+ * <ol>
+ *     <li>Readings with no PWM signal or outside the sensor's range are dropped.</li>
+ *     <li>Hampel outlier rejection: a reading too many median absolute deviations from the
+ *     recent median is replaced by that median, so a single bad pulse cannot spike the distance.
+ *     A real jump still gets through once it has lasted for half the window.</li>
+ *     <li>A rolling median smooths what is left.</li>
+ *     <li>The result may only change so fast.</li>
+ * </ol>
+ * Each stage is configured in sensors.properties and can be turned off there.
  */
 public class LIDAR  implements PIDSource {
+    private static final double
+        MAX_RANGE = 1575,       // inches; the LIDAR-Lite reads up to 40 m
+        MAD_TO_SIGMA = 1.4826,  // scales a median absolute deviation to a standard deviation for normal noise
+        MIN_SIGMA = 0.5,        // inches; keeps a perfectly steady window from rejecting everything
+        SPREAD_SCALE = 2.0;     // inches of noise that halve the confidence
+    private static final int CONFIDENCE_HISTORY = 16;  // samples, at most 32
+
     private CANifier canifier;
     private CANifier.PWMChannel pwmChannel;
     private final double[] PWM_INPUT = new double[2];
     private PWMOffset equation;
 
-    private LinearDigitalFilter linearDigitalFilter;
+    // Filter chain
+    private final RollingMedian HAMPEL_WINDOW, MEDIAN_WINDOW;
+    private final double HAMPEL_THRESHOLD, MAX_RATE;
+    private double filteredDistance = Double.NaN, lastReading = Double.NaN, lastUpdate, sigma;
+
+    // Bit per recent sample, set if it was used as-is; the newest is the lowest bit
+    private int acceptedHistory, samples;
 
     public enum PWMOffset {
         EQUATION_A(-5.55, 1.0),
@@ -54,17 +80,61 @@ public class LIDAR  implements PIDSource {
         pwmChannel = channel;
         equation = o;
 
-        linearDigitalFilter = LinearDigitalFilter.movingAverage(this, 5);
+        HAMPEL_WINDOW = new RollingMedian(Math.max(1, SensorsSettings.getLidarHampelWindow()));
+        MEDIAN_WINDOW = new RollingMedian(Math.max(1, SensorsSettings.getLidarMedianWindow()));
+        HAMPEL_THRESHOLD = SensorsSettings.getLidarHampelThreshold();
+        MAX_RATE = SensorsSettings.getLidarMaxRate();
 
         // canifier(channel.value, true);
     }
 
     /**
      * Updates the current duty cycle and period recieved
-     * from the LIDAR.
+     * from the LIDAR, and runs the new reading through the filter chain.
      */
     public void updatePWMInput() {
         canifier.getPWMInput(pwmChannel, PWM_INPUT);
+        filter(pidGet(), Timer.getFPGATimestamp());
+    }
+
+    private void filter(double reading, double now) {
+        double dt = now - lastUpdate;
+        lastUpdate = now;
+
+        boolean accepted = false;
+        lastReading = Double.NaN;
+        if (samples < CONFIDENCE_HISTORY)
+            samples++;
+
+        if (getPeriod() > 0 && reading > 0 && reading < MAX_RANGE) {
+            double value = reading;
+            HAMPEL_WINDOW.add(reading);
+
+            if (HAMPEL_WINDOW.getSize() >= 3) {
+                double median = HAMPEL_WINDOW.getMedian();
+                sigma = MAD_TO_SIGMA * HAMPEL_WINDOW.getMedianAbsoluteDeviation();
+
+                if (HAMPEL_THRESHOLD > 0 && Math.abs(reading - median) > HAMPEL_THRESHOLD * Math.max(sigma, MIN_SIGMA))
+                    value = median;
+                else
+                    accepted = true;
+            } else {
+                accepted = true;
+            }
+
+            lastReading = value;
+            MEDIAN_WINDOW.add(value);
+            double target = MEDIAN_WINDOW.getMedian();
+
+            if (Double.isNaN(filteredDistance) || MAX_RATE <= 0) {
+                filteredDistance = target;
+            } else {
+                double step = MAX_RATE * dt;
+                filteredDistance += MercMath.clamp(target - filteredDistance, -step, step);
+            }
+        }
+
+        acceptedHistory = (acceptedHistory << 1) | (accepted ? 1 : 0);
     }
 
 
@@ -79,8 +149,51 @@ public class LIDAR  implements PIDSource {
         return equation.apply(getRawDistance());
     }
 
+    /**
+     * Gets the filtered distance from the LIDAR sensor.
+     *
+     * @return filtered distance, in inches; the unfiltered distance until a valid reading has been seen
+     */
     public double getDistance() {
-        return linearDigitalFilter.pidGet();
+        return Double.isNaN(filteredDistance) ? pidGet() : filteredDistance;
+    }
+
+    /**
+     * Gets the latest reading after outlier rejection but before smoothing, for
+     * consumers that do their own filtering and cannot afford the median's lag.
+     *
+     * @return latest reading in inches, or NaN if it was not a valid reading
+     */
+    public double getLastReading() {
+        return lastReading;
+    }
+
+    /**
+     * Gets how much the filtered distance can be trusted, from how many recent readings
+     * were used as-is and how noisy they were.
+     *
+     * @return confidence from 0 (no usable readings) to 1 (steady, valid readings)
+     */
+    public double getConfidence() {
+        int count = samples;
+        if (count == 0 || Double.isNaN(filteredDistance))
+            return 0;
+
+        int mask = (int) ((1L << count) - 1);
+        double acceptedFraction = Integer.bitCount(acceptedHistory & mask) / (double) count;
+
+        return acceptedFraction / (1 + sigma / SPREAD_SCALE);
+    }
+
+    /**
+     * Clears the filter chain, for when old readings no longer apply.
+     */
+    public void resetFilter() {
+        HAMPEL_WINDOW.reset();
+        MEDIAN_WINDOW.reset();
+        filteredDistance = lastReading = Double.NaN;
+        acceptedHistory = samples = 0;
+        sigma = 0;
     }
 
     /**
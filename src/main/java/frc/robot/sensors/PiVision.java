@@ -2,55 +2,215 @@ package frc.robot.sensors;
 
 import edu.wpi.first.networktables.EntryListenerFlags;
 import edu.wpi.first.networktables.EntryNotification;
+import edu.wpi.first.networktables.NetworkTable;
 import edu.wpi.first.networktables.NetworkTableInstance;
+import edu.wpi.first.wpilibj.Timer;
+import frc.robot.sensors.vision.AngleStage;
+import frc.robot.sensors.vision.Target;
+import frc.robot.sensors.vision.TargetFrame;
+import frc.robot.sensors.vision.TargetSource;
 import frc.util.config.SensorsSettings;
 
 import java.awt.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 
 /**
  * Implementation of vision sense using Raspberry Pi
- *
- * @deprecated since it is slow and inefficient; we are better off using the PixyCam.
+ * <p>
+ * The Pi publishes every processed frame as a single raw value in the format described by
+ * {@link PiVisionProtocol}. Frames are decoded on the NetworkTables listener thread into
+ * reused buffers, so nothing is allocated until the vision pipeline asks for the frame.
+ * For the lowest latency the Pi should flush NetworkTables right after publishing.
+ * <p>
+ * Older Pi scripts that only publish centerX still work; that entry is ignored once
+ * a batched frame has been received.
  */
-public class PiVision {
+public class PiVision implements TargetSource {
+    public static final String
+        TABLE = "CubeVision",
+        FRAME_ENTRY = "frame",
+        CENTER_X_ENTRY = "centerX";
+
+    private static final int RECEIVE_HISTORY = 256;     // frames whose receive times are kept
+
     private double centerX;
-    private long lastUpdate;
+    private volatile double lastReceiveTime = Double.NEGATIVE_INFINITY;
 
-    private final long LATENCY_MS;
+    private final double LATENCY;
     private final Dimension RESOLUTION;
-    private final double[] FOV;
+    private final AngleStage ANGLE;
+
+    // Decoded frames; the listener decodes into back and swaps it with front
+    private PiVisionProtocol.Frame front = new PiVisionProtocol.Frame(), back = new PiVisionProtocol.Frame();
+    private double frontCaptureTime;
+    private boolean batched;
+
+    // Receive time of recent frames, indexed by frame id, for measuring end-to-end latency
+    private final int[] RECEIVED_ID = new int[RECEIVE_HISTORY];
+    private final double[] RECEIVED_TIME = new double[RECEIVE_HISTORY];
+
+    // Statistics, only written by the listener thread
+    private volatile long framesReceived, framesDropped, invalidFrames, decodeNanos;
+    private volatile int lastFrameId;
+
+    private long frameNumber;
+    private TargetFrame latestFrame;
+    private long latestFrameNumber = -1;
 
     public PiVision() {
-        LATENCY_MS = SensorsSettings.getCameraServerLatency();
+        LATENCY = SensorsSettings.getCameraServerLatency() / 1000.0;
         RESOLUTION = SensorsSettings.getCameraResolution();
-        FOV = SensorsSettings.getCameraFOV();
+        ANGLE = new AngleStage(0);
+        Arrays.fill(RECEIVED_ID, -1);
+
+        NetworkTable table = NetworkTableInstance.getDefault().getTable(TABLE);
+
+        // kLocal so frames published on the RIO itself (by PiVisionStandIn) are seen too
+        table.getEntry(FRAME_ENTRY).addListener(this::onFrame,
+            EntryListenerFlags.kNew | EntryListenerFlags.kUpdate | EntryListenerFlags.kLocal);
 
-        NetworkTableInstance.getDefault().getTable("CubeVision").getEntry("centerX").addListener(
+        table.getEntry(CENTER_X_ENTRY).addListener(
             (EntryNotification note) -> {
+                if (batched)
+                    return;
+
                 double val = note.value.getDouble();
                 centerX = val != -1 ? val : 0;
 
-                lastUpdate = System.currentTimeMillis();
+                double now = Timer.getFPGATimestamp();
+                lastReceiveTime = now;
+
+                // The old scripts do not send when the frame was captured, so the time it arrived is the best we have
+                synchronized (this) {
+                    latestFrame = new TargetFrame(getName(), ++frameNumber, now,
+                        val != -1
+                            ? Collections.singletonList(new Target(val, RESOLUTION.height / 2.0, 0, 0))
+                            : Collections.emptyList());
+                    latestFrameNumber = frameNumber;
+                }
             }, EntryListenerFlags.kUpdate
         );
     }
 
-    public double getAngleFromCube() {
-        // Start by defining what we need
-        double ratio, angle, halfHRes = RESOLUTION.width / 2.0, hfov = FOV[0];
+    private void onFrame(EntryNotification note) {
+        double now = Timer.getFPGATimestamp();
+        long start = System.nanoTime();
+
+        if (!PiVisionProtocol.decode(note.value.getRaw(), back)) {
+            invalidFrames++;
+            return;
+        }
+
+        if (framesReceived > 0 && back.id - lastFrameId > 1)
+            framesDropped += back.id - lastFrameId - 1;
+        lastFrameId = back.id;
+        framesReceived++;
+
+        int slot = Math.floorMod(back.id, RECEIVE_HISTORY);
+        RECEIVED_ID[slot] = back.id;
+        RECEIVED_TIME[slot] = now;
+
+        // The Pi's clock is not the RIO's, so capture time comes from how long the Pi had the frame
+        double captureTime = now - back.latencyMicros / 1e6;
 
-        // Get ratio of distance from the center
-        // to the full half-width of the resolution
-        ratio = centerX / halfHRes - 0.5;
+        synchronized (this) {
+            PiVisionProtocol.Frame temp = front;
+            front = back;
+            back = temp;
+            frontCaptureTime = captureTime;
+            frameNumber++;
+            batched = true;
 
-        // Multiply ratio by horizontal FOV
-        angle = ratio * hfov;
+            centerX = front.count > 0 ? front.x[largest(front)] : 0;
+        }
 
-        return angle;
+        lastReceiveTime = now;
+        decodeNanos += System.nanoTime() - start;
+    }
+
+    private static int largest(PiVisionProtocol.Frame frame) {
+        int best = 0;
+        for (int i = 1; i < frame.count; i++) {
+            if (frame.width[i] * frame.height[i] > frame.width[best] * frame.height[best])
+                best = i;
+        }
+        return best;
+    }
+
+    public double getAngleFromCube() {
+        return ANGLE.toAngle(centerX);
     }
 
     public boolean isRecent () {
-        return Math.abs(System.currentTimeMillis() - lastUpdate) <= LATENCY_MS;
+        return Timer.getFPGATimestamp() - lastReceiveTime <= LATENCY;
+    }
+
+    @Override
+    public String getName() {
+        return "PiVision";
+    }
+
+    /**
+     * Builds the frame for the vision pipeline. Only this allocates, and only once per new frame.
+     */
+    @Override
+    public synchronized TargetFrame getLatestFrame() {
+        if (batched && latestFrameNumber != frameNumber) {
+            List<Target> targets = new ArrayList<>(front.count);
+            for (int i = 0; i < front.count; i++)
+                targets.add(new Target(front.x[i], front.y[i], front.width[i], front.height[i]));
+
+            latestFrame = new TargetFrame(getName(), frameNumber, frontCaptureTime, targets);
+            latestFrameNumber = frameNumber;
+        }
+
+        return latestFrame;
+    }
+
+    /**
+     * @return FPGA time the last frame arrived, in seconds
+     */
+    public double getLastReceiveTime() {
+        return lastReceiveTime;
     }
 
-}
\ No newline at end of file
+    /**
+     * @param id id of a recent frame
+     * @return FPGA time that frame arrived, or NaN if it never did or is too old to remember
+     */
+    public double getReceiveTime(int id) {
+        int slot = Math.floorMod(id, RECEIVE_HISTORY);
+        return RECEIVED_ID[slot] == id ? RECEIVED_TIME[slot] : Double.NaN;
+    }
+
+    /**
+     * @return number of batched frames decoded
+     */
+    public long getFramesReceived() {
+        return framesReceived;
+    }
+
+    /**
+     * @return number of frames the Pi processed that never arrived, judging by gaps in frame ids
+     */
+    public long getFramesDropped() {
+        return framesDropped;
+    }
+
+    /**
+     * @return number of raw values that were not valid frames
+     */
+    public long getInvalidFrames() {
+        return invalidFrames;
+    }
+
+    /**
+     * @return average time spent decoding a frame, in microseconds
+     */
+    public double getAverageDecodeMicros() {
+        return framesReceived > 0 ? decodeNanos / 1000.0 / framesReceived : 0;
+    }
+}
@@ -0,0 +1,122 @@
+package frc.robot.sensors;
+
+/**
+ * Compact binary format the Raspberry Pi uses to send a whole frame of targets
+ * in one NetworkTables update.
+ * <p>
+ * Each frame is published as a raw value on CubeVision/frame. All values are big-endian:
+ * <pre>
+ *     byte   version          (currently 1)
+ *     int    frame id         (increases by 1 for every frame the Pi processes)
+ *     int    latency          (microseconds from capture until the frame was published)
+ *     byte   target count
+ *     then for each target:
+ *     short  center x, center y, width, height   (pixels)
+ * </pre>
+ * The Pi reports latency instead of a capture time because its clock is not synchronized
+ * with the RIO's; the RIO subtracts the latency from the time the frame arrives.
+ */
+public class PiVisionProtocol {
+    public static final int
+        VERSION = 1,
+        HEADER_BYTES = 10,
+        TARGET_BYTES = 8,
+        MAX_TARGETS = 16;
+
+    private PiVisionProtocol() { } // Should never be constructed.
+
+    /**
+     * Decodes a frame without allocating.
+     *
+     * @param data raw value received from the Pi
+     * @param out  frame to decode into
+     * @return whether the data was a valid frame; {@code out} is unchanged if not
+     */
+    public static boolean decode(byte[] data, Frame out) {
+        if (data == null || data.length < HEADER_BYTES || data[0] != VERSION)
+            return false;
+
+        int count = data[9] & 0xff;
+        if (count > MAX_TARGETS || data.length < HEADER_BYTES + count * TARGET_BYTES)
+            return false;
+
+        out.id = readInt(data, 1);
+        out.latencyMicros = readInt(data, 5);
+        out.count = count;
+
+        for (int i = 0, offset = HEADER_BYTES; i < count; i++, offset += TARGET_BYTES) {
+            out.x[i] = readShort(data, offset);
+            out.y[i] = readShort(data, offset + 2);
+            out.width[i] = readShort(data, offset + 4);
+            out.height[i] = readShort(data, offset + 6);
+        }
+
+        return true;
+    }
+
+    /**
+     * Encodes a frame. This is what the Pi does on its side; it is used here to stand in for the Pi.
+     *
+     * @param frame frame to encode
+     * @param out   buffer of at least {@link #getSize(int)} bytes
+     * @return the number of bytes written
+     */
+    public static int encode(Frame frame, byte[] out) {
+        int count = Math.min(frame.count, MAX_TARGETS);
+
+        out[0] = VERSION;
+        writeInt(out, 1, frame.id);
+        writeInt(out, 5, frame.latencyMicros);
+        out[9] = (byte) count;
+
+        for (int i = 0, offset = HEADER_BYTES; i < count; i++, offset += TARGET_BYTES) {
+            writeShort(out, offset, frame.x[i]);
+            writeShort(out, offset + 2, frame.y[i]);
+            writeShort(out, offset + 4, frame.width[i]);
+            writeShort(out, offset + 6, frame.height[i]);
+        }
+
+        return getSize(count);
+    }
+
+    /**
+     * @param targets number of targets in the frame
+     * @return the encoded size of a frame, in bytes
+     */
+    public static int getSize(int targets) {
+        return HEADER_BYTES + targets * TARGET_BYTES;
+    }
+
+    private static int readInt(byte[] data, int offset) {
+        return ((data[offset] & 0xff) << 24) | ((data[offset + 1] & 0xff) << 16)
+            | ((data[offset + 2] & 0xff) << 8) | (data[offset + 3] & 0xff);
+    }
+
+    private static int readShort(byte[] data, int offset) {
+        return ((data[offset] & 0xff) << 8) | (data[offset + 1] & 0xff);
+    }
+
+    private static void writeInt(byte[] data, int offset, int value) {
+        data[offset] = (byte) (value >>> 24);
+        data[offset + 1] = (byte) (value >>> 16);
+        data[offset + 2] = (byte) (value >>> 8);
+        data[offset + 3] = (byte) value;
+    }
+
+    private static void writeShort(byte[] data, int offset, int value) {
+        data[offset] = (byte) (value >>> 8);
+        data[offset + 1] = (byte) value;
+    }
+
+    /**
+     * One decoded frame, stored as parallel arrays so it can be reused.
+     */
+    public static class Frame {
+        public final int[]
+            x = new int[MAX_TARGETS],
+            y = new int[MAX_TARGETS],
+            width = new int[MAX_TARGETS],
+            height = new int[MAX_TARGETS];
+        public int id, latencyMicros, count;
+    }
+}
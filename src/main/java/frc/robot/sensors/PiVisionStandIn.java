@@ -0,0 +1,125 @@
+package frc.robot.sensors;
+
+import edu.wpi.first.networktables.NetworkTableEntry;
+import edu.wpi.first.networktables.NetworkTableInstance;
+import edu.wpi.first.wpilibj.Notifier;
+import edu.wpi.first.wpilibj.Timer;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.Arrays;
+
+/**
+ * Publishes synthetic frames in the Pi's format from the RIO itself, so {@link PiVision}
+ * can be tested for throughput and end-to-end latency without a Pi attached.
+ * <p>
+ * Every frame pretends to have been captured a fixed processing time before it is published,
+ * and the time from that capture until {@link PiVision} decodes it is recorded.
+ * Only run this while a real Pi is disconnected, since both would publish to the same entry.
+ */
+public class PiVisionStandIn {
+    private static final Logger log = LogManager.getLogger(PiVisionStandIn.class);
+    private static final int HISTORY = 256;     // must not exceed what PiVision remembers
+
+    private final PiVision VISION;
+    private final NetworkTableEntry ENTRY;
+    private final Notifier PUBLISHER;
+    private final double PERIOD;
+    private final int PROCESSING_MICROS;
+
+    private final PiVisionProtocol.Frame FRAME = new PiVisionProtocol.Frame();
+    private final byte[] BUFFER;
+
+    // Capture time of recent frames, indexed by frame id
+    private final double[] CAPTURE_TIME = new double[HISTORY];
+
+    private int nextId;
+    private long bytesPublished;
+    private double startTime;
+
+    /**
+     * @param vision          receiver to measure
+     * @param framesPerSecond how fast to publish frames
+     * @param targets         number of targets in each frame
+     * @param processingMS    how long the pretend Pi takes to process each frame
+     */
+    public PiVisionStandIn(PiVision vision, double framesPerSecond, int targets, double processingMS) {
+        VISION = vision;
+        ENTRY = NetworkTableInstance.getDefault().getTable(PiVision.TABLE).getEntry(PiVision.FRAME_ENTRY);
+        PUBLISHER = new Notifier(this::publish);
+        PERIOD = 1.0 / framesPerSecond;
+        PROCESSING_MICROS = (int) (processingMS * 1000);
+
+        FRAME.count = Math.min(targets, PiVisionProtocol.MAX_TARGETS);
+        BUFFER = new byte[PiVisionProtocol.getSize(FRAME.count)];
+    }
+
+    public void start() {
+        nextId = 0;
+        bytesPublished = 0;
+        startTime = Timer.getFPGATimestamp();
+        PUBLISHER.startPeriodic(PERIOD);
+    }
+
+    public void stop() {
+        PUBLISHER.stop();
+    }
+
+    private void publish() {
+        double now = Timer.getFPGATimestamp();
+
+        // Targets drift across the image so consecutive frames differ
+        double t = now - startTime;
+        for (int i = 0; i < FRAME.count; i++) {
+            FRAME.x[i] = (int) (160 + 120 * Math.sin(t + i));
+            FRAME.y[i] = 100 + 10 * i;
+            FRAME.width[i] = 20 + 5 * i;
+            FRAME.height[i] = 20 + 5 * i;
+        }
+
+        FRAME.id = nextId;
+        FRAME.latencyMicros = PROCESSING_MICROS;
+        CAPTURE_TIME[nextId % HISTORY] = now - PROCESSING_MICROS / 1e6;
+        nextId++;
+
+        // NetworkTables copies the value, so the buffer can be reused
+        bytesPublished += PiVisionProtocol.encode(FRAME, BUFFER);
+        ENTRY.setRaw(BUFFER);
+    }
+
+    /**
+     * Logs throughput and the latency of the most recent frames.
+     */
+    public void report() {
+        double elapsed = Timer.getFPGATimestamp() - startTime;
+        int published = nextId;
+        int first = Math.max(0, published - HISTORY);
+
+        double[] latency = new double[published - first];
+        int received = 0;
+        for (int id = first; id < published; id++) {
+            double receiveTime = VISION.getReceiveTime(id);
+            if (!Double.isNaN(receiveTime))
+                latency[received++] = (receiveTime - CAPTURE_TIME[id % HISTORY]) * 1000;
+        }
+
+        log.info(String.format("PiVision stand-in: %d frames in %.1f s (%.1f fps, %.0f bytes/s), %d received, %d dropped, %d invalid, %.1f us to decode",
+            published, elapsed, published / elapsed, bytesPublished / elapsed,
+            VISION.getFramesReceived(), VISION.getFramesDropped(), VISION.getInvalidFrames(),
+            VISION.getAverageDecodeMicros()));
+
+        if (received == 0) {
+            log.warn("PiVision stand-in: no frames arrived");
+            return;
+        }
+
+        Arrays.sort(latency, 0, received);
+        double sum = 0;
+        for (int i = 0; i < received; i++)
+            sum += latency[i];
+
+        log.info(String.format("PiVision end-to-end latency over last %d frames: mean %.2f ms, p50 %.2f ms, p95 %.2f ms, max %.2f ms (%.2f ms of it processing)",
+            received, sum / received, latency[received / 2], latency[(int) (received * 0.95)],
+            latency[received - 1], PROCESSING_MICROS / 1000.0));
+    }
+}
@@ -0,0 +1,295 @@
+package frc.robot.sensors;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Streaming decoder for the block protocol the PixyCam sends over I2C and SPI.
+ * <p>
+ * Raw bytes are fed in as they are read, in chunks of any size, and kept in a ring
+ * so blocks that span two reads are not lost. The decoder resynchronizes on the
+ * 0xaa55 sync word whenever the stream is misaligned, validates every block's checksum,
+ * and writes blocks into a preallocated {@link Frame}. Once the camera has sent a whole
+ * frame, it is published by swapping it with the one readers see, so decoding
+ * never allocates and readers never see a half-written frame.
+ * <p>
+ * Words are 16 bits, least significant byte first over I2C and most significant first over SPI. A frame starts with an extra sync word;
+ * each block is a sync word, a checksum, then signature, x, y, width and height.
+ * Color code blocks use the 0xaa56 sync word and carry an extra angle word.
+ */
+public class PixyBlockParser {
+    static final int
+        SYNC_WORD = 0xaa55,
+        SYNC_WORD_CC = 0xaa56,
+        MAX_BLOCKS = 32;
+
+    private static final int
+        RING_SIZE = 512,            // must be a power of 2
+        RING_MASK = RING_SIZE - 1,
+        BLOCK_BYTES = 12,           // checksum, signature, x, y, width, height
+        BLOCK_BYTES_CC = 14;        // ... and angle
+
+    private final boolean BIG_ENDIAN;
+    private final byte[] ring = new byte[RING_SIZE];
+    private int head, tail;         // read and write positions; they only ever increase
+
+    private Frame front = new Frame(), back = new Frame();
+    private boolean inBlock, blockIsCC, frameStarted;
+    private long frameNumber;
+
+    // Statistics
+    private long checksumErrors, droppedBytes;
+
+    /**
+     * Creates a decoder for the I2C interface, which sends words least significant byte first.
+     */
+    public PixyBlockParser() {
+        this(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * Creates a decoder.
+     *
+     * @param order the order the camera sends the bytes of each word in
+     */
+    public PixyBlockParser(ByteOrder order) {
+        BIG_ENDIAN = order == ByteOrder.BIG_ENDIAN;
+    }
+
+    /**
+     * Adds raw bytes read from the camera to the stream. If the ring is full,
+     * the oldest unparsed bytes are dropped.
+     *
+     * @param data   buffer holding the bytes
+     * @param length number of bytes in the buffer to add
+     */
+    public void feed(byte[] data, int length) {
+        for (int i = 0; i < length; i++) {
+            if (tail - head == RING_SIZE) {
+                head++;
+                droppedBytes++;
+            }
+            ring[tail++ & RING_MASK] = data[i];
+        }
+    }
+
+    /**
+     * Adds raw bytes read from the camera to the stream, without changing the buffer's position.
+     * If the ring is full, the oldest unparsed bytes are dropped.
+     *
+     * @param data   buffer holding the bytes, starting at index 0
+     * @param length number of bytes in the buffer to add
+     */
+    public void feed(ByteBuffer data, int length) {
+        for (int i = 0; i < length; i++) {
+            if (tail - head == RING_SIZE) {
+                head++;
+                droppedBytes++;
+            }
+            ring[tail++ & RING_MASK] = data.get(i);
+        }
+    }
+
+    /**
+     * Decodes as much of the stream as possible.
+     *
+     * @param timestamp time the bytes were read, in seconds; stamped on frames that start now
+     * @return whether a new frame was published
+     */
+    public boolean parse(double timestamp) {
+        boolean published = false;
+
+        while (true) {
+            if (!inBlock) {
+                if (available() < 2)
+                    break;
+
+                int word = peekWord(0);
+                if (word == SYNC_WORD || word == SYNC_WORD_CC) {
+                    head += 2;
+                    inBlock = true;
+                    blockIsCC = word == SYNC_WORD_CC;
+                } else if (word == 0) {
+                    // The camera has sent everything it has for this frame
+                    head += 2;
+                    published |= publish();
+                } else {
+                    // Not aligned on a sync word; slide forward one byte at a time
+                    head++;
+                }
+            } else {
+                if (available() < 2)
+                    break;
+
+                int first = peekWord(0);
+                if (first == SYNC_WORD || first == SYNC_WORD_CC) {
+                    // Two sync words in a row mark the start of a frame; the second is the first block's
+                    head += 2;
+                    published |= publish();
+                    back.clear();
+                    back.number = ++frameNumber;
+                    back.timestamp = timestamp;
+                    frameStarted = true;
+                    blockIsCC = first == SYNC_WORD_CC;
+                    continue;
+                } else if (first == 0) {
+                    // The camera has sent everything it has for this frame
+                    head += 2;
+                    inBlock = false;
+                    published |= publish();
+                    continue;
+                }
+
+                int length = blockIsCC ? BLOCK_BYTES_CC : BLOCK_BYTES;
+                if (available() < length)
+                    break;
+
+                decodeBlock(length);
+                head += length;
+                inBlock = false;
+            }
+        }
+
+        return published;
+    }
+
+    /**
+     * Copies the most recently completed frame without allocating.
+     *
+     * @param out frame to copy into
+     */
+    public synchronized void getLatest(Frame out) {
+        out.copyFrom(front);
+    }
+
+    /**
+     * @return the number of the most recently completed frame, 0 if none has completed
+     */
+    public synchronized long getFrameNumber() {
+        return front.number;
+    }
+
+    /**
+     * @return how many blocks have been thrown out because their checksum did not match
+     */
+    public long getChecksumErrors() {
+        return checksumErrors;
+    }
+
+    /**
+     * @return how many bytes were dropped because they arrived faster than they were parsed
+     */
+    public long getDroppedBytes() {
+        return droppedBytes;
+    }
+
+    private void decodeBlock(int length) {
+        int checksum = peekWord(0);
+        int sig = peekWord(2), x = peekWord(4), y = peekWord(6), width = peekWord(8), height = peekWord(10);
+        int angle = length == BLOCK_BYTES_CC ? (short) peekWord(12) : 0;
+        int sum = sig + x + y + width + height + (length == BLOCK_BYTES_CC ? peekWord(12) : 0);
+
+        if ((sum & 0xffff) != checksum) {
+            checksumErrors++;
+            return;
+        }
+
+        // Blocks seen before the first frame start belong to a frame that was only partly read
+        if (frameStarted)
+            back.add(sig, x, y, width, height, angle);
+    }
+
+    /**
+     * Publishes the frame that was being filled, if one was started.
+     */
+    private boolean publish() {
+        if (!frameStarted)
+            return false;
+
+        synchronized (this) {
+            Frame done = back;
+            back = front;
+            front = done;
+        }
+        frameStarted = false;
+
+        return true;
+    }
+
+    private int available() {
+        return tail - head;
+    }
+
+    private int peekWord(int offset) {
+        int first = ring[(head + offset) & RING_MASK] & 0xff;
+        int second = ring[(head + offset + 1) & RING_MASK] & 0xff;
+
+        if (BIG_ENDIAN)
+            return (first << 8) | second;
+
+        return (second << 8) | first;
+    }
+
+    /**
+     * All blocks the camera found in one frame, largest first as sent by the camera.
+     * Stored as parallel arrays so frames can be reused without allocating.
+     */
+    public static class Frame {
+        public final int[]
+            signature = new int[MAX_BLOCKS],
+            x = new int[MAX_BLOCKS],
+            y = new int[MAX_BLOCKS],
+            width = new int[MAX_BLOCKS],
+            height = new int[MAX_BLOCKS],
+            angle = new int[MAX_BLOCKS];
+        public int count;
+        public long number;
+        public double timestamp;
+
+        /**
+         * Finds the largest block with a signature.
+         *
+         * @param sig the color signature to look for
+         * @return index of the block, or -1 if there is none
+         */
+        public int find(int sig) {
+            int best = -1;
+
+            for (int i = 0; i < count; i++) {
+                if (signature[i] == sig && (best < 0 || width[i] * height[i] > width[best] * height[best]))
+                    best = i;
+            }
+
+            return best;
+        }
+
+        void add(int sig, int bx, int by, int bw, int bh, int ba) {
+            if (count == MAX_BLOCKS)
+                return;
+
+            signature[count] = sig;
+            x[count] = bx;
+            y[count] = by;
+            width[count] = bw;
+            height[count] = bh;
+            angle[count] = ba;
+            count++;
+        }
+
+        void clear() {
+            count = 0;
+        }
+
+        void copyFrom(Frame other) {
+            System.arraycopy(other.signature, 0, signature, 0, other.count);
+            System.arraycopy(other.x, 0, x, 0, other.count);
+            System.arraycopy(other.y, 0, y, 0, other.count);
+            System.arraycopy(other.width, 0, width, 0, other.count);
+            System.arraycopy(other.height, 0, height, 0, other.count);
+            System.arraycopy(other.angle, 0, angle, 0, other.count);
+            count = other.count;
+            number = other.number;
+            timestamp = other.timestamp;
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package frc.robot.sensors;
+
+import edu.wpi.first.wpilibj.Notifier;
+import edu.wpi.first.wpilibj.Timer;
+import frc.robot.sensors.vision.Target;
+import frc.robot.sensors.vision.TargetFrame;
+import frc.robot.sensors.vision.TargetSource;
+import frc.robot.sensors.vision.TrackingStage;
+import frc.robot.sensors.vision.VisionPipeline;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Common base for PixyCam connections.
+ * <p>
+ * Subclasses only move raw bytes from the camera into a {@link PixyBlockParser}; decoding
+ * and publishing frames are shared. Reads run on a {@link Notifier} at the camera's full
+ * frame rate and only decode into the parser, so they allocate nothing. The blocks of the
+ * signature being looked for are turned into a {@link TargetFrame} when one is asked for,
+ * once per camera frame.
+ * <p>
+ * Targets are not tracked here; a {@link VisionPipeline} with a {@link TrackingStage} does that.
+ */
+public abstract class PixyCam implements TargetSource {
+    private static final double
+        UPDATE_PERIOD = 0.02,   // 50 fps
+        STALE_TIME = 0.1;       // seconds without a frame before the camera counts as seeing nothing
+
+    protected final PixyBlockParser PARSER;
+    private final Notifier UPDATE_NOTIFIER;
+    private final int SIGNATURE;
+
+    // Latest frame from the parser, and the target frame built from it; guarded by this
+    private final PixyBlockParser.Frame FRAME = new PixyBlockParser.Frame();
+    private TargetFrame latestFrame, staleFrame;
+
+    /**
+     * @param parser    decoder matching the byte order of the connection
+     * @param signature the color signature to look for, as numbered in PixyMon
+     */
+    protected PixyCam(PixyBlockParser parser, int signature) {
+        PARSER = parser;
+        SIGNATURE = signature;
+        UPDATE_NOTIFIER = new Notifier(this::read);
+    }
+
+    /**
+     * Reads whatever the camera has sent since the last call into {@link #PARSER}.
+     */
+    protected abstract void transfer();
+
+    /**
+     * Starts reading from the camera. Subclasses call this once their connection is set up.
+     */
+    protected void start() {
+        UPDATE_NOTIFIER.startPeriodic(UPDATE_PERIOD);
+    }
+
+    /**
+     * Reads and decodes the data the Pixy has sent.
+     */
+    public void read() {
+        transfer();
+        PARSER.parse(Timer.getFPGATimestamp());
+    }
+
+    @Override
+    public String getName() {
+        return getClass().getSimpleName();
+    }
+
+    /**
+     * The camera sends nothing when it sees nothing, so once its latest frame is stale
+     * this returns an empty frame in its place.
+     */
+    @Override
+    public synchronized TargetFrame getLatestFrame() {
+        double now = Timer.getFPGATimestamp();
+
+        if (PARSER.getFrameNumber() != FRAME.number) {
+            PARSER.getLatest(FRAME);
+
+            List<Target> targets = new ArrayList<>(FRAME.count);
+            for (int i = 0; i < FRAME.count; i++) {
+                if (FRAME.signature[i] == SIGNATURE)
+                    targets.add(new Target(FRAME.x[i], FRAME.y[i], FRAME.width[i], FRAME.height[i]));
+            }
+
+            latestFrame = new TargetFrame(getName(), FRAME.number, FRAME.timestamp, targets);
+            staleFrame = null;
+        }
+
+        if (latestFrame == null || now - FRAME.timestamp <= STALE_TIME)
+            return latestFrame;
+
+        if (staleFrame == null)
+            staleFrame = new TargetFrame(getName(), FRAME.number, now, Collections.emptyList());
+
+        return staleFrame;
+    }
+
+    /**
+     * @return the decoder for this camera's data, for its statistics
+     */
+    public PixyBlockParser getParser() {
+        return PARSER;
+    }
+}
@@ -0,0 +1,44 @@
+package frc.robot.sensors.vision;
+
+import frc.util.config.SensorsSettings;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Converts each target's horizontal position into the angle the robot has to turn to face it,
+ * using the camera's resolution and field of view from the sensors config.
+ */
+public class AngleStage implements VisionStage {
+    private final double CENTER_X, FOCAL_LENGTH;
+
+    /**
+     * @param centerOffset pixels right of the middle of the image that the robot is centered on,
+     *                     to account for where the camera is mounted
+     */
+    public AngleStage(double centerOffset) {
+        double halfWidth = SensorsSettings.getCameraResolution().width / 2.0;
+        double halfFOV = Math.toRadians(SensorsSettings.getCameraFOV()[0] / 2);
+
+        CENTER_X = halfWidth + centerOffset;
+        FOCAL_LENGTH = halfWidth / Math.tan(halfFOV);
+    }
+
+    @Override
+    public TargetFrame process(TargetFrame frame) {
+        List<Target> converted = new ArrayList<>(frame.getTargets().size());
+
+        for (Target target : frame.getTargets())
+            converted.add(target.withAngle(toAngle(target.getX())));
+
+        return frame.withTargets(converted);
+    }
+
+    /**
+     * @param x horizontal position in the image, in pixels
+     * @return the angle to that position, in degrees (clockwise positive)
+     */
+    public double toAngle(double x) {
+        return Math.toDegrees(Math.atan((x - CENTER_X) / FOCAL_LENGTH));
+    }
+}
@@ -0,0 +1,32 @@
+package frc.robot.sensors.vision;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Drops targets too small to be real, such as specks of color in the background.
+ */
+public class SizeFilterStage implements VisionStage {
+    private final double MIN_WIDTH, MIN_HEIGHT;
+
+    /**
+     * @param minWidth  smallest width kept, in pixels
+     * @param minHeight smallest height kept, in pixels
+     */
+    public SizeFilterStage(double minWidth, double minHeight) {
+        MIN_WIDTH = minWidth;
+        MIN_HEIGHT = minHeight;
+    }
+
+    @Override
+    public TargetFrame process(TargetFrame frame) {
+        List<Target> kept = new ArrayList<>(frame.getTargets().size());
+
+        for (Target target : frame.getTargets()) {
+            if (target.getWidth() >= MIN_WIDTH && target.getHeight() >= MIN_HEIGHT)
+                kept.add(target);
+        }
+
+        return frame.withTargets(kept);
+    }
+}
@@ -0,0 +1,86 @@
+package frc.robot.sensors.vision;
+
+/**
+ * One target seen by a camera. Targets are immutable; pipeline stages
+ * that add information return a new target.
+ */
+public final class Target {
+    private final double x, y, width, height, angle, velocity;
+    private final int trackId;
+
+    /**
+     * Creates an untracked target whose angle is not yet known.
+     *
+     * @param x      center x, in pixels
+     * @param y      center y, in pixels
+     * @param width  width, in pixels
+     * @param height height, in pixels
+     */
+    public Target(double x, double y, double width, double height) {
+        this(x, y, width, height, Double.NaN, 0, 0);
+    }
+
+    /**
+     * @param x        center x, in pixels
+     * @param y        center y, in pixels
+     * @param width    width, in pixels
+     * @param height   height, in pixels
+     * @param angle    horizontal angle to the target, in degrees (clockwise positive), or NaN if unknown
+     * @param trackId  id of the track this target belongs to, or 0 if untracked
+     * @param velocity horizontal velocity in the image, in pixels per second
+     */
+    public Target(double x, double y, double width, double height, double angle, int trackId, double velocity) {
+        this.x = x;
+        this.y = y;
+        this.width = width;
+        this.height = height;
+        this.angle = angle;
+        this.trackId = trackId;
+        this.velocity = velocity;
+    }
+
+    public double getX() {
+        return x;
+    }
+
+    public double getY() {
+        return y;
+    }
+
+    public double getWidth() {
+        return width;
+    }
+
+    public double getHeight() {
+        return height;
+    }
+
+    public double getArea() {
+        return width * height;
+    }
+
+    /**
+     * @return horizontal angle to the target, in degrees (clockwise positive), or NaN if unknown
+     */
+    public double getAngle() {
+        return angle;
+    }
+
+    /**
+     * @return id of the track this target belongs to, or 0 if untracked
+     */
+    public int getTrackId() {
+        return trackId;
+    }
+
+    /**
+     * @return horizontal velocity in the image, in pixels per second
+     */
+    public double getVelocity() {
+        return velocity;
+    }
+
+    public Target withAngle(double angle) {
+        return new Target(x, y, width, height, angle, trackId, velocity);
+    }
+}
@@ -0,0 +1,70 @@
+package frc.robot.sensors.vision;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Everything one camera saw in one frame, stamped with when the frame was captured.
+ * Frames are immutable, so they can be shared between threads and commands freely.
+ */
+public final class TargetFrame {
+    private final String source;
+    private final long number;
+    private final double timestamp;
+    private final List<Target> targets;
+
+    /**
+     * @param source    name of the source the frame came from
+     * @param number    frame number, increasing with each frame from the source
+     * @param timestamp time the frame was captured, in FPGA seconds
+     * @param targets   targets in the frame; the most important target first
+     */
+    public TargetFrame(String source, long number, double timestamp, List<Target> targets) {
+        this.source = source;
+        this.number = number;
+        this.timestamp = timestamp;
+        this.targets = Collections.unmodifiableList(new ArrayList<>(targets));
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    public long getNumber() {
+        return number;
+    }
+
+    /**
+     * @return time the frame was captured, in FPGA seconds
+     */
+    public double getTimestamp() {
+        return timestamp;
+    }
+
+    /**
+     * @param now the current FPGA time, in seconds
+     * @return how long ago the frame was captured, in seconds
+     */
+    public double getAge(double now) {
+        return now - timestamp;
+    }
+
+    public List<Target> getTargets() {
+        return targets;
+    }
+
+    /**
+     * @return the most important target, or null if there are none
+     */
+    public Target getPrimary() {
+        return targets.isEmpty() ? null : targets.get(0);
+    }
+
+    /**
+     * @return a copy of this frame with different targets
+     */
+    public TargetFrame withTargets(List<Target> targets) {
+        return new TargetFrame(source, number, timestamp, targets);
+    }
+}
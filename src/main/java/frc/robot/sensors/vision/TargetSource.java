@@ -0,0 +1,16 @@
+package frc.robot.sensors.vision;
+
+/**
+ * Anything that can see targets, such as a camera or a coprocessor.
+ */
+public interface TargetSource {
+    /**
+     * @return name of this source, used to tell frames from different sources apart
+     */
+    public String getName();
+
+    /**
+     * @return the most recent frame from this source, or null if it has not sent one yet
+     */
+    public TargetFrame getLatestFrame();
+}
@@ -0,0 +1,56 @@
+package frc.robot.sensors.vision;
+
+import frc.util.TargetTracker;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Follows targets across frames with a {@link TargetTracker} and reduces each frame
+ * to the stable primary target, with its track id and velocity.
+ */
+public class TrackingStage implements VisionStage {
+    private static final int MAX_TARGETS = 32;
+
+    private final TargetTracker TRACKER = new TargetTracker();
+    private final int[]
+        X = new int[MAX_TARGETS],
+        Y = new int[MAX_TARGETS],
+        WIDTH = new int[MAX_TARGETS],
+        HEIGHT = new int[MAX_TARGETS];
+
+    @Override
+    public TargetFrame process(TargetFrame frame) {
+        List<Target> targets = frame.getTargets();
+        int count = Math.min(targets.size(), MAX_TARGETS);
+
+        for (int i = 0; i < count; i++) {
+            Target target = targets.get(i);
+            X[i] = (int) Math.round(target.getX());
+            Y[i] = (int) Math.round(target.getY());
+            WIDTH[i] = (int) Math.round(target.getWidth());
+            HEIGHT[i] = (int) Math.round(target.getHeight());
+        }
+
+        TRACKER.update(X, Y, WIDTH, HEIGHT, count, frame.getTimestamp());
+
+        if (!TRACKER.hasPrimary())
+            return frame.withTargets(Collections.emptyList());
+
+        double time = frame.getTimestamp();
+        return frame.withTargets(Collections.singletonList(new Target(
+            TRACKER.getPrimaryX(time),
+            TRACKER.getPrimaryY(time),
+            TRACKER.getPrimaryWidth(),
+            TRACKER.getPrimaryHeight(),
+            Double.NaN,
+            TRACKER.getPrimaryId(),
+            TRACKER.getPrimaryVelocityX()
+        )));
+    }
+
+    @Override
+    public void reset() {
+        TRACKER.reset();
+    }
+}
@@ -0,0 +1,87 @@
+package frc.robot.sensors.vision;
+
+import edu.wpi.first.wpilibj.Timer;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Combines any number of {@link TargetSource}s into one stream of processed targets.
+ * <p>
+ * Each time a frame is requested, the freshest frame from any source that is still within
+ * the maximum age is run through the stages in order. A frame is only processed once, no
+ * matter how often it is requested, and stateful stages are reset whenever the pipeline
+ * switches to a different source.
+ */
+public class VisionPipeline {
+    private final TargetSource[] SOURCES;
+    private final List<VisionStage> STAGES = new ArrayList<>();
+    private final double MAX_AGE;
+
+    private TargetFrame lastRaw, lastProcessed;
+    private String lastSource;
+
+    /**
+     * @param maxAge  oldest a frame may be and still be used, in seconds
+     * @param sources sources to choose frames from
+     */
+    public VisionPipeline(double maxAge, TargetSource... sources) {
+        MAX_AGE = maxAge;
+        SOURCES = sources;
+    }
+
+    /**
+     * Adds a stage to the end of the pipeline.
+     *
+     * @return this pipeline, so stages can be chained
+     */
+    public VisionPipeline addStage(VisionStage stage) {
+        STAGES.add(stage);
+        return this;
+    }
+
+    /**
+     * @return the processed frame from the freshest source, or an empty frame if no source has a recent frame
+     */
+    public synchronized TargetFrame getLatest() {
+        double now = Timer.getFPGATimestamp();
+        TargetFrame freshest = null;
+
+        for (TargetSource source : SOURCES) {
+            TargetFrame frame = source.getLatestFrame();
+
+            if (frame != null && frame.getAge(now) <= MAX_AGE
+                && (freshest == null || frame.getTimestamp() > freshest.getTimestamp()))
+                freshest = frame;
+        }
+
+        if (freshest == null)
+            return new TargetFrame("none", 0, now, Collections.emptyList());
+
+        if (freshest == lastRaw)
+            return lastProcessed;
+
+        if (!freshest.getSource().equals(lastSource)) {
+            for (VisionStage stage : STAGES)
+                stage.reset();
+            lastSource = freshest.getSource();
+        }
+
+        TargetFrame processed = freshest;
+        for (VisionStage stage : STAGES)
+            processed = stage.process(processed);
+
+        lastRaw = freshest;
+        lastProcessed = processed;
+
+        return processed;
+    }
+
+    /**
+     * @return the primary target of the latest processed frame, or null if there is none
+     */
+    public Target getPrimary() {
+        return getLatest().getPrimary();
+    }
+}
@@ -0,0 +1,20 @@
+package frc.robot.sensors.vision;
+
+/**
+ * One step of a {@link VisionPipeline}, such as filtering, tracking or unit conversion.
+ */
+public interface VisionStage {
+    /**
+     * Processes a frame.
+     *
+     * @param frame the frame from the previous stage
+     * @return the processed frame
+     */
+    public TargetFrame process(TargetFrame frame);
+
+    /**
+     * Clears any state kept between frames. Called when the pipeline switches sources.
+     */
+    public default void reset() {
+    }
+}
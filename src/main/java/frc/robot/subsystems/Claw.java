@@ -6,6 +6,7 @@ import com.ctre.phoenix.motorcontrol.can.WPI_VictorSPX;
 import edu.wpi.first.wpilibj.PWM;
 import edu.wpi.first.wpilibj.RobotState;
 import edu.wpi.first.wpilibj.SerialPort;
+import edu.wpi.first.wpilibj.Timer;
 import edu.wpi.first.wpilibj.command.Subsystem;
 import edu.wpi.first.wpilibj.filters.LinearDigitalFilter;
 import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
@@ -13,11 +14,20 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import frc.robot.Robot;
 import frc.robot.commands.UseClaw;
+import frc.robot.sensors.CubeRangeEstimator;
 import frc.robot.sensors.LIDAR;
 import frc.robot.sensors.PixyI2C;
 import frc.robot.sensors.Ultrasonic;
+import frc.robot.sensors.vision.AngleStage;
+import frc.robot.sensors.vision.SizeFilterStage;
+import frc.robot.sensors.vision.Target;
+import frc.robot.sensors.vision.TrackingStage;
+import frc.robot.sensors.vision.VisionPipeline;
 import frc.util.MercMath;
+import frc.util.OutputArbiter;
 import frc.util.config.SensorsSettings;
+import frc.util.telemetry.TelemetryChannel;
+import frc.util.telemetry.TelemetryRegistry;
 
 /**
  * Subsystem that encapsulates actuators and sensors for
@@ -26,6 +36,15 @@ import frc.util.config.SensorsSettings;
 public class Claw extends Subsystem {
     private static Logger log = LogManager.getLogger(Claw.class);
     public final double MIN_INCHES = 10.0;
+    private final int PIXY_CENTER_OFFSET = 30; // pixels; the Pixy is mounted off the center of the claw
+    private final int MIN_CUBE_WIDTH = 45; //Arbitrary value, change to what minimum value of width can be for cube to be cassified as "In range"
+    private final double
+        HAS_CUBE_INCHES = 6.0,
+        MAX_RANGE_DEVIATION = 1.5,  // inches; a less certain fused range is not trusted for hasCube
+        RUMBLE_RANGE = 24.0;        // inches beyond HAS_CUBE_INCHES over which the rumble fades in
+
+    // LED request priorities
+    public static final int LED_STATUS = 0, LED_ALERT = 1;
 
     private WPI_VictorSPX
         clawMotor_M,
@@ -35,9 +54,19 @@ public class Claw extends Subsystem {
     private LIDAR lidar;
     private CANifier canifier;
     private PixyI2C pixyCam;
+    private VisionPipeline vision;
+    private double pixyCenterX;
     private Ultrasonic ultrasonic;
 
+    // Range to the cube, fused from the LIDAR and the ultrasonic
+    private CubeRangeEstimator rangeEstimator;
+    private double lastRangeUpdate;
+    private volatile double cubeRange = Double.NaN, cubeRate, cubeRangeDeviation = Double.POSITIVE_INFINITY;
+    private final TelemetryChannel cubeRangeChannel, hasCubeChannel, lidarConfidenceChannel;
+
     private int[] currentLEDOutput = new int[3];
+    private OutputArbiter leds;
+    private boolean hadCube;
     private LinearDigitalFilter linearDF;
 
     private boolean hasCube;
@@ -65,14 +94,28 @@ public class Claw extends Subsystem {
      */
     public Claw(int usPort, int cfID, int lidarPort, int leadID, int folID) {
         canifier = new CANifier(cfID);
+        leds = new OutputArbiter(this::writeLEDs, 3, 2, 1 / 255.0, 1.0);
 
         clawMotor_S = new WPI_VictorSPX(folID);
         clawMotor_M = new WPI_VictorSPX(leadID);
 
         pixyCam = new PixyI2C();
+        pixyCenterX = SensorsSettings.getCameraResolution().width / 2.0 + PIXY_CENTER_OFFSET;
+
+        vision = new VisionPipeline(SensorsSettings.getVisionMaxAge(), pixyCam)
+            .addStage(new SizeFilterStage(4, 4))
+            .addStage(new TrackingStage())
+            .addStage(new AngleStage(PIXY_CENTER_OFFSET));
 
         ultrasonic = new Ultrasonic(usPort);
 
+        rangeEstimator = new CubeRangeEstimator();
+
+        TelemetryRegistry telemetry = TelemetryRegistry.getInstance();
+        cubeRangeChannel = telemetry.register("Claw/Cube Range", TelemetryChannel.Type.NUMBER);
+        hasCubeChannel = telemetry.register("Claw/Has Cube", TelemetryChannel.Type.BOOLEAN);
+        lidarConfidenceChannel = telemetry.register("Claw/LIDAR Confidence", TelemetryChannel.Type.NUMBER);
+
         // Clamp pwm id between 0 and 3
         LIDAR.PWMOffset offset = SensorsSettings.getLidarEquation();
 
@@ -93,21 +136,38 @@ public class Claw extends Subsystem {
     @Override
     public void periodic() {
         lidar.updatePWMInput();
+        updateCubeRange();
         updateState();
     }
 
+    /**
+     * Fuses this loop's LIDAR and ultrasonic readings into the range to the cube.
+     */
+    private void updateCubeRange() {
+        double now = Timer.getFPGATimestamp();
+        rangeEstimator.update(now - lastRangeUpdate, lidar.getLastReading(), lidar.getConfidence(), ultrasonic.getRange());
+        lastRangeUpdate = now;
+
+        cubeRange = rangeEstimator.getRange();
+        cubeRate = rangeEstimator.getRate();
+        cubeRangeDeviation = rangeEstimator.getRangeDeviation();
+
+        cubeRangeChannel.record(cubeRange);
+        lidarConfidenceChannel.record(lidar.getConfidence());
+    }
+
     /**
      * Updates the states of the LEDs and the gamepad rumble
      * based on whether or not the cube is in range or is being held.
      */
     private void updateState() {
         double rumbleVal = 0.0;
+        boolean cube = hasCube();
+        hasCubeChannel.record(cube);
 
         if (RobotState.isDisabled()) { // Turn off LEDs when disabled
-            currentLEDOutput[0] = 0;
-            currentLEDOutput[1] = 0;
-            currentLEDOutput[2] = 0;
-        } else if (hasCube()) { // Have cube?
+            leds.clearAll();
+        } else if (cube) { // Have cube?
             // Listen from SmartDash
 
             // Fun colors to note:
@@ -117,42 +177,60 @@ public class Claw extends Subsystem {
             //int r = (int) SmartDashboard.getNumber("LED Color (R)", 255);
             //int g = (int) SmartDashboard.getNumber("LED Color (G)", 161);
             //int b = (int) SmartDashboard.getNumber("LED Color (B)", 0);
-            currentLEDOutput[0] = 0;
-            currentLEDOutput[1] = 255;
-            currentLEDOutput[2] = 0;
-        } else if (Math.abs(pixyCam.pidGet()) <= 20) { // If displacement is within 3 pixels of center
-            currentLEDOutput[0] = 255;
-            currentLEDOutput[1] = 0;
-            currentLEDOutput[2] = 255;
-            rumbleVal = lidar.getRumbleVal();
-        } else if (pixyCam.inRange()) { // Cube is in range to auto pickup
+            if (!hadCube) // Just got it; blink so the drivers notice
+                leds.flash(LED_ALERT, OutputArbiter.Pattern.BLINK, 0.2, 1.0, 0, 1, 0);
+            leds.set(LED_STATUS, OutputArbiter.Pattern.SOLID, 0, 0, 1, 0);
+        } else if (Math.abs(getCubeDisplacement()) <= 20) { // If displacement is within 3 pixels of center
+            // Purple
+            leds.set(LED_STATUS, OutputArbiter.Pattern.SOLID, 0, 1, 0, 1);
+            rumbleVal = getRumbleVal();
+        } else if (isCubeInRange()) { // Cube is in range to auto pickup
             // Yellow
-            currentLEDOutput[0] = 255;
-            currentLEDOutput[1] = 161;
-            currentLEDOutput[2] = 0;
-            rumbleVal = lidar.getRumbleVal();
+            leds.set(LED_STATUS, OutputArbiter.Pattern.SOLID, 0, 1, 161 / 255.0, 0);
+            rumbleVal = getRumbleVal();
         } else {
             // None
-            currentLEDOutput[0] = 0;
-            currentLEDOutput[1] = 0;
-            currentLEDOutput[2] = 0;
+            leds.clear(LED_STATUS);
         }
+        hadCube = cube;
 
-        colorLED(currentLEDOutput[0], currentLEDOutput[1], currentLEDOutput[2]);
+        // Both only send when their output changes
+        leds.update(Timer.getFPGATimestamp());
         Robot.oi.rumbleController(rumbleVal);
     }
 
     /**
-     * Sets the color of the LED based on RBG int values
+     * @return rumble that grows as the cube gets closer, 0 if its range is unknown
+     */
+    private double getRumbleVal() {
+        if (Double.isNaN(cubeRange))
+            return 0;
+
+        return MercMath.clamp(1 - (cubeRange - HAS_CUBE_INCHES) / RUMBLE_RANGE, 0, 1);
+    }
+
+    /**
+     * Sets the color of the LED
+     *
+     * @param rgb red, green and blue values [0 - 1]
+     */
+    private void writeLEDs(double[] rgb) {
+        canifier.setLEDOutput(rgb[2], CANifier.LEDChannel.LEDChannelA);
+        canifier.setLEDOutput(rgb[0], CANifier.LEDChannel.LEDChannelB);
+        canifier.setLEDOutput(rgb[1], CANifier.LEDChannel.LEDChannelC);
+
+        for (int i = 0; i < 3; i++)
+            currentLEDOutput[i] = (int) Math.round(rgb[i] * 255);
+    }
+
+    /**
+     * Gets the LED arbiter, for commands that want to show something on the LEDs
+     * over the claw's status. Requests above {@link #LED_STATUS} take precedence.
      *
-     * @param r red value [0 - 255]
-     * @param g green value [0 - 255]
-     * @param b blue value [0 - 255]
+     * @return the LED arbiter
      */
-    private void colorLED(int r, int g, int b) {
-        canifier.setLEDOutput((double) b / 255.0, CANifier.LEDChannel.LEDChannelA);
-        canifier.setLEDOutput((double) r / 255.0, CANifier.LEDChannel.LEDChannelB);
-        canifier.setLEDOutput((double) g / 255.0, CANifier.LEDChannel.LEDChannelC);
+    public OutputArbiter getLEDs() {
+        return leds;
     }
 
     public int[] getCurrentLEDOutput() {
@@ -180,6 +258,30 @@ public class Claw extends Subsystem {
         return pixyCam;
     }
 
+    public VisionPipeline getVision() {
+        return vision;
+    }
+
+    /**
+     * @return pixels the tracked cube is left of the claw's center, or negative infinity if none is seen
+     */
+    public double getCubeDisplacement() {
+        Target target = vision.getPrimary();
+
+        return target != null ? pixyCenterX - target.getX() : Double.NEGATIVE_INFINITY;
+    }
+
+    /**
+     * Gets whether or not the tracked cube is close enough to pick up, based on its width
+     *
+     * @return whether or not we can see a cube and if it is close enough
+     */
+    public boolean isCubeInRange() {
+        Target target = vision.getPrimary();
+
+        return target != null && target.getWidth() >= MIN_CUBE_WIDTH;
+    }
+
     public Ultrasonic getUltrasonic() {
         return ultrasonic;
     }
@@ -193,7 +295,27 @@ public class Claw extends Subsystem {
     }
 
     public boolean hasCube() {
-        return lidar.getDistance() <= 6;
+        double range = cubeRange;
+        if (Double.isNaN(range))
+            return lidar.getDistance() <= HAS_CUBE_INCHES;
+
+        return range <= HAS_CUBE_INCHES && cubeRangeDeviation <= MAX_RANGE_DEVIATION;
+    }
+
+    /**
+     * Gets the range to the cube, fused from the LIDAR and the ultrasonic, as it will be
+     * a little later if it keeps closing at the current rate. Deciding on the predicted range
+     * makes up for the time the claw takes to react.
+     *
+     * @param lookahead seconds into the future
+     * @return predicted range to the cube in inches, measured from the LIDAR
+     */
+    public double getCubeRange(double lookahead) {
+        double range = cubeRange;
+        if (Double.isNaN(range))
+            return lidar.getDistance();
+
+        return range + cubeRate * lookahead;
     }
 
     public boolean getEjecting() {
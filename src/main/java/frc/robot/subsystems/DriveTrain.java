@@ -2,21 +2,30 @@ package frc.robot.subsystems;
 
 import com.ctre.phoenix.motorcontrol.ControlMode;
 import com.ctre.phoenix.motorcontrol.FeedbackDevice;
+import com.ctre.phoenix.motorcontrol.FollowerType;
 import com.ctre.phoenix.motorcontrol.NeutralMode;
+import com.ctre.phoenix.motorcontrol.RemoteSensorSource;
+import com.ctre.phoenix.motorcontrol.SensorTerm;
 import com.ctre.phoenix.motorcontrol.can.BaseMotorController;
 import com.ctre.phoenix.motorcontrol.can.TalonSRX;
 import com.ctre.phoenix.motorcontrol.can.WPI_TalonSRX;
 import com.ctre.phoenix.motorcontrol.can.WPI_VictorSPX;
-import edu.wpi.first.wpilibj.ADXRS450_Gyro;
 import edu.wpi.first.wpilibj.PIDOutput;
+import edu.wpi.first.wpilibj.RobotState;
 import edu.wpi.first.wpilibj.command.Subsystem;
-import edu.wpi.first.wpilibj.interfaces.Gyro;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import frc.robot.commands.DriveWithJoysticks;
+import frc.robot.sensors.GyroService;
+import frc.util.DriveKinematics;
+import frc.util.DriveLimiter;
+import frc.util.DriveOdometry;
 import frc.util.MercMath;
 import frc.util.TalonDrive;
 import frc.util.config.DriveTrainSettings;
+import frc.util.config.SensorsSettings;
+import frc.util.telemetry.TelemetryChannel;
+import frc.util.telemetry.TelemetryRegistry;
 
 /**
  * Subsystem that encapsulates the drive train.
@@ -27,29 +36,63 @@ public class DriveTrain extends Subsystem implements PIDOutput {
     private Logger log = LogManager.getLogger(DriveTrain.class);
     public static final int TIMEOUT_MS = 10;
     public static final int SLOT_0 = 0;
+    public static final int SLOT_1 = 1;
+    public static final int SLOT_2 = 2;     // Velocity drive; commands retune slots 0 and 1 for themselves
     public static final int PRIMARY_PID_LOOP = 0;
+    public static final int AUX_PID_LOOP = 1;
+    public static final int REMOTE_DEVICE_0 = 0;
+    public static final int REMOTE_DEVICE_1 = 1;
+
+    /**
+     * Pigeon IMU units per degree of yaw, used when the Pigeon is the auxiliary sensor.
+     */
+    public static final double PIGEON_UNITS_PER_DEGREE = 8192.0 / 360.0;
 
     public static final double MAX_SPEED = 1.0;
     public static final double MIN_SPEED = .65;
 
+    /**
+     * Encoder speed, in ticks per 100 ms, under which the robot counts as standing still.
+     */
+    private static final int STATIONARY_TICKS = 5;
+
+    /**
+     * Encoder position, in feet, under which a freshly zeroed encoder counts as having been reset.
+     */
+    private static final double RESET_TOLERANCE_FEET = 0.5;
+
     private WPI_TalonSRX tMasterLeft, tMasterRight;
     private BaseMotorController vFollowerLeft, vFollowerRight;
 
     private TalonDrive tDrive;
-    // private NavX navX;
-    private ADXRS450_Gyro gyroSPI;
+    private DriveLimiter driveLimiter;
+    private GyroService gyro;
 
-	public static final int MAG_ENCODER_TICKS_PER_REVOLUTION = 4096;
+    private final DriveOdometry odometry;
+    private boolean encodersReset;
+
+    // Whether the right Talon's primary sensor is the average of both encoders
+    private volatile boolean arcFeedback;
+    private final TelemetryChannel xChannel, yChannel, headingChannel;
+
+	public static final int MAG_ENCODER_TICKS_PER_REVOLUTION = DriveKinematics.MAG_ENCODER_TICKS_PER_REVOLUTION;
 	public static final double GEAR_RATIO;
     public static final double MAX_RPM;
     public static final double WHEEL_DIAMETER_INCHES;
     public static final DriveTrainSettings.DriveTrainLayout LAYOUT;
 
+    /**
+     * Unit conversions for this drive train, built once from drivetrain.properties.
+     */
+    public static final DriveKinematics KINEMATICS;
+
     static {
         LAYOUT = DriveTrainSettings.getControllerLayout();
-        GEAR_RATIO = DriveTrainSettings.getGearRatio();
+        KINEMATICS = DriveKinematics.fromSettings();
+        MercMath.setDriveKinematics(KINEMATICS);
+        GEAR_RATIO = KINEMATICS.GEAR_RATIO;
         MAX_RPM = DriveTrainSettings.getMaxRPM();
-        WHEEL_DIAMETER_INCHES = DriveTrainSettings.getWheelDiameter();
+        WHEEL_DIAMETER_INCHES = KINEMATICS.WHEEL_DIAMETER_INCHES;
 	}
 
 	/**
@@ -78,9 +121,10 @@ public class DriveTrain extends Subsystem implements PIDOutput {
 				break;
         }
 
-        //Initialize the gyro that is currently on the robot. Comment out the initialization of the one not in use.
-        // navX = new NavX(SerialPort.Port.kUSB1);
-        gyroSPI = new ADXRS450_Gyro();
+        // Gyros are picked in sensors.properties; bias is measured whenever the robot sits still while disabled
+        gyro = new GyroService(this::isStationary,
+            SensorsSettings.getPrimaryGyro().create(),
+            SensorsSettings.getSecondaryGyro().create());
 
         //Account for motor orientation.
         tMasterLeft.setInverted(true);
@@ -96,6 +140,17 @@ public class DriveTrain extends Subsystem implements PIDOutput {
 
         tDrive = new TalonDrive(tMasterLeft, tMasterRight);
 
+        double[] acceleration = DriveTrainSettings.getDriveAcceleration();
+        driveLimiter = new DriveLimiter(acceleration[0], acceleration[1]);
+        tDrive.setLimiter(driveLimiter);
+
+        odometry = new DriveOdometry();
+
+        TelemetryRegistry telemetry = TelemetryRegistry.getInstance();
+        xChannel = telemetry.register("DriveTrain/X", TelemetryChannel.Type.NUMBER);
+        yChannel = telemetry.register("DriveTrain/Y", TelemetryChannel.Type.NUMBER);
+        headingChannel = telemetry.register("DriveTrain/Heading", TelemetryChannel.Type.NUMBER);
+
         // Set follower control on back talons. Use follow() instead of ControlMode.Follower so that Talons can follow Victors and vice versa.
         vFollowerLeft.follow(tMasterLeft);
         vFollowerRight.follow(tMasterRight);
@@ -108,11 +163,116 @@ public class DriveTrain extends Subsystem implements PIDOutput {
 
         configVoltage(0, DriveTrainSettings.getMaxOutput());
         setMaxOutput(DriveTrainSettings.getMaxOutput());
+        configVelocityDrive();
+    }
+
+    /**
+     * Tunes both Talons' velocity loops for {@link TalonDrive.DriveMode#VELOCITY}, in their own slot.
+     * Feedforward is taken from {@link #MAX_RPM}, with the output compensated to a fixed voltage
+     * so that the same feedforward drives at the same speed however charged the battery is.
+     */
+    private void configVelocityDrive() {
+        double[] pid = DriveTrainSettings.getPIDValues("velocityDrive", 0.1, 0, 0);
+        double voltage = DriveTrainSettings.getVoltageCompensation();
+
+        for (WPI_TalonSRX talon : new WPI_TalonSRX[] {tMasterLeft, tMasterRight}) {
+            talon.config_kP(SLOT_2, pid[0], TIMEOUT_MS);
+            talon.config_kI(SLOT_2, pid[1], TIMEOUT_MS);
+            talon.config_kD(SLOT_2, pid[2], TIMEOUT_MS);
+            talon.config_kF(SLOT_2, getFeedForward(), TIMEOUT_MS);
+            talon.configVoltageCompSaturation(voltage, TIMEOUT_MS);
+        }
+
+        tDrive.setMaxVelocity(KINEMATICS.revsPerMinuteToTicksPerTenth(MAX_RPM));
+    }
+
+    /**
+     * Switches how {@link TalonDrive} drives. Velocity mode selects the velocity drive slot
+     * and turns on voltage compensation; percent output mode undoes both, so other
+     * commands find the Talons as they expect.
+     *
+     * @param mode the drive mode
+     */
+    public void setDriveMode(TalonDrive.DriveMode mode) {
+        boolean velocity = mode == TalonDrive.DriveMode.VELOCITY;
+
+        tMasterLeft.selectProfileSlot(velocity ? SLOT_2 : SLOT_0, PRIMARY_PID_LOOP);
+        tMasterRight.selectProfileSlot(velocity ? SLOT_2 : SLOT_0, PRIMARY_PID_LOOP);
+        tMasterLeft.enableVoltageCompensation(velocity);
+        tMasterRight.enableVoltageCompensation(velocity);
+
+        tDrive.setDriveMode(mode);
+    }
+
+    /**
+     * Configures the right Talon to run both sides of the drive train on its own,
+     * for use with {@link ControlMode#MotionProfileArc}.
+     * <p>
+     * The primary loop closes on the average of both encoders (distance), and
+     * the auxiliary loop closes on heading. Heading comes from a Pigeon IMU
+     * on the CAN bus if one is configured; otherwise it is the difference between
+     * the two encoders. The left Talon follows the auxiliary output of the right one.
+     *
+     * @return true if the auxiliary loop uses the Pigeon, false if it uses the encoder difference
+     */
+    public boolean configArcFeedback() {
+        int pigeonID = DriveTrainSettings.getPigeonID();
+
+        // Left encoder is read through the right Talon as remote sensor 0
+        tMasterRight.configRemoteFeedbackFilter(tMasterLeft.getDeviceID(), RemoteSensorSource.TalonSRX_SelectedSensor, REMOTE_DEVICE_0, TIMEOUT_MS);
+
+        // Primary: (right + left) / 2
+        tMasterRight.configSensorTerm(SensorTerm.Sum0, FeedbackDevice.RemoteSensor0, TIMEOUT_MS);
+        tMasterRight.configSensorTerm(SensorTerm.Sum1, FeedbackDevice.CTRE_MagEncoder_Relative, TIMEOUT_MS);
+        tMasterRight.configSelectedFeedbackSensor(FeedbackDevice.SensorSum, PRIMARY_PID_LOOP, TIMEOUT_MS);
+        tMasterRight.configSelectedFeedbackCoefficient(0.5, PRIMARY_PID_LOOP, TIMEOUT_MS);
+
+        // Auxiliary: heading
+        if (pigeonID >= 0) {
+            tMasterRight.configRemoteFeedbackFilter(pigeonID, RemoteSensorSource.Pigeon_Yaw, REMOTE_DEVICE_1, TIMEOUT_MS);
+            tMasterRight.configSelectedFeedbackSensor(FeedbackDevice.RemoteSensor1, AUX_PID_LOOP, TIMEOUT_MS);
+        } else {
+            tMasterRight.configSensorTerm(SensorTerm.Diff0, FeedbackDevice.CTRE_MagEncoder_Relative, TIMEOUT_MS);
+            tMasterRight.configSensorTerm(SensorTerm.Diff1, FeedbackDevice.RemoteSensor0, TIMEOUT_MS);
+            tMasterRight.configSelectedFeedbackSensor(FeedbackDevice.SensorDifference, AUX_PID_LOOP, TIMEOUT_MS);
+            log.warn("No Pigeon configured for arc mode; heading comes from the encoder difference, which cannot see wheel slip");
+        }
+        tMasterRight.configSelectedFeedbackCoefficient(1.0, AUX_PID_LOOP, TIMEOUT_MS);
+
+        // Without inverting, a positive auxiliary output adds to the right side and takes from the left.
+        // Forward is negative output, so that turns the robot clockwise. The encoder difference
+        // (right - left) grows clockwise, but Pigeon yaw grows counter-clockwise, so only the Pigeon is inverted.
+        tMasterRight.configAuxPIDPolarity(pigeonID >= 0, TIMEOUT_MS);
+
+        tMasterRight.selectProfileSlot(SLOT_0, PRIMARY_PID_LOOP);
+        tMasterRight.selectProfileSlot(SLOT_1, AUX_PID_LOOP);
+
+        tMasterLeft.follow(tMasterRight, FollowerType.AuxOutput1);
+        arcFeedback = true;
+
+        return pigeonID >= 0;
+    }
+
+    /**
+     * Undoes {@link #configArcFeedback()}, so that each side closes
+     * its loops on its own encoder again.
+     */
+    public void configStandardFeedback() {
+        tMasterRight.configSelectedFeedbackSensor(FeedbackDevice.CTRE_MagEncoder_Relative, PRIMARY_PID_LOOP, TIMEOUT_MS);
+        tMasterRight.configSelectedFeedbackCoefficient(1.0, PRIMARY_PID_LOOP, TIMEOUT_MS);
+        tMasterRight.selectProfileSlot(SLOT_0, PRIMARY_PID_LOOP);
+        arcFeedback = false;
+
+        // Take the left Talon out of follower mode
+        tMasterLeft.set(ControlMode.PercentOutput, 0);
     }
 
     public void resetEncoders() {
-        tMasterLeft.getSensorCollection().setQuadraturePosition(0, TIMEOUT_MS);
-        tMasterRight.getSensorCollection().setQuadraturePosition(0, TIMEOUT_MS);
+        synchronized (odometry) {
+            tMasterLeft.getSensorCollection().setQuadraturePosition(0, TIMEOUT_MS);
+            tMasterRight.getSensorCollection().setQuadraturePosition(0, TIMEOUT_MS);
+            encodersReset = true;
+        }
     }
 
     /**
@@ -123,6 +283,53 @@ public class DriveTrain extends Subsystem implements PIDOutput {
         tMasterRight.set(ControlMode.Velocity, 0);
     }
 
+    @Override
+    public void periodic() {
+        updateOdometry();
+
+        // Recorded here rather than in updateOdometry, which faster loops may call from other threads
+        xChannel.record(odometry.getX());
+        yChannel.record(odometry.getY());
+        headingChannel.record(Math.toDegrees(odometry.getHeading()));
+    }
+
+    /**
+     * Integrates the latest encoder and gyro readings into the robot's pose.
+     * This is called every robot loop, but can also be called from faster loops
+     * that need fresher pose feedback.
+     * <p>
+     * The sensors are read under the odometry's lock, so that updates from different
+     * threads integrate in the order their readings were taken. Zeroing the encoders
+     * with {@link #resetEncoders()} does not move the pose.
+     */
+    public void updateOdometry() {
+        synchronized (odometry) {
+            double leftFeet = getLeftEncPositionInFeet(), rightFeet = getRightEncPositionInFeet();
+
+            // The Talons report a reset a status frame later; hold the pose until they do,
+            // then start integrating from the zeroed positions instead of counting the jump as travel.
+            if (encodersReset) {
+                if (Math.abs(leftFeet) > RESET_TOLERANCE_FEET || Math.abs(rightFeet) > RESET_TOLERANCE_FEET)
+                    return;
+
+                encodersReset = false;
+                odometry.rebaseline();
+            }
+
+            // Encoder ticks are backwards, so forward travel is negative.
+            odometry.update(-leftFeet, -rightFeet, -Math.toRadians(getGyro().getAngle()));
+        }
+    }
+
+    /**
+     * Gets the field-relative pose tracker for the drive train.
+     *
+     * @return the odometry, in feet and radians
+     */
+    public DriveOdometry getOdometry() {
+        return odometry;
+    }
+
     public void initDefaultCommand() {
         setDefaultCommand(new DriveWithJoysticks(DriveWithJoysticks.DriveType.ARCADE));
     }
@@ -147,17 +354,19 @@ public class DriveTrain extends Subsystem implements PIDOutput {
     /**
      * Gets the gyro being used by the drive train.
      *
-     * @return The gyro, either the NavX or Analog Gyro, currently in use on the robot
+     * @return the heading from whichever of the configured gyros is working
      */
-    public Gyro getGyro() {
-       /* if (navX != null) {
-            return navX;
-        } else */
-        if (gyroSPI != null) {
-            return gyroSPI;
-        } else {
-            return null;
-        }
+    public GyroService getGyro() {
+        return gyro;
+    }
+
+    /**
+     * @return whether the robot is disabled with its wheels not turning
+     */
+    private boolean isStationary() {
+        return RobotState.isDisabled()
+            && Math.abs(tMasterLeft.getSelectedSensorVelocity(PRIMARY_PID_LOOP)) < STATIONARY_TICKS
+            && Math.abs(tMasterRight.getSelectedSensorVelocity(PRIMARY_PID_LOOP)) < STATIONARY_TICKS;
     }
 
     public int getLeftEncPositionInTicks() {
@@ -165,15 +374,19 @@ public class DriveTrain extends Subsystem implements PIDOutput {
     }
 
     public double getRightEncPositionInTicks() {
+        // In arc mode the right Talon's sensor reads the average of both sides
+        if (arcFeedback)
+            return 2.0 * tMasterRight.getSelectedSensorPosition(PRIMARY_PID_LOOP) - getLeftEncPositionInTicks();
+
         return tMasterRight.getSelectedSensorPosition(PRIMARY_PID_LOOP);
     }
 
     public double getLeftEncPositionInFeet() {
-        return MercMath.getEncPosition(getLeftEncPositionInTicks());
+        return KINEMATICS.ticksToFeet(getLeftEncPositionInTicks());
     }
 
     public double getRightEncPositionInFeet() {
-        return MercMath.getEncPosition(getRightEncPositionInTicks());
+        return KINEMATICS.ticksToFeet(getRightEncPositionInTicks());
     }
 
     public TalonSRX getLeft() {
@@ -188,8 +401,12 @@ public class DriveTrain extends Subsystem implements PIDOutput {
         return tDrive;
     }
 
+    public DriveLimiter getDriveLimiter() {
+        return driveLimiter;
+    }
+
     public double getFeedForward() {
-        return MercMath.calculateFeedForward(MAX_RPM);
+        return KINEMATICS.feedForward(MAX_RPM);
     }
 
     public void pidWrite(double output) {
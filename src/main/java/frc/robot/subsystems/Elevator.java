@@ -1,20 +1,30 @@
 package frc.robot.subsystems;
 
 import com.ctre.phoenix.ParamEnum;
+import com.ctre.phoenix.motorcontrol.ControlMode;
+import com.ctre.phoenix.motorcontrol.DemandType;
 import com.ctre.phoenix.motorcontrol.FeedbackDevice;
 import com.ctre.phoenix.motorcontrol.NeutralMode;
 import com.ctre.phoenix.motorcontrol.can.WPI_TalonSRX;
 import com.ctre.phoenix.motorcontrol.can.WPI_VictorSPX;
 import edu.wpi.first.wpilibj.DigitalInput;
+import edu.wpi.first.wpilibj.Timer;
 import edu.wpi.first.wpilibj.command.Subsystem;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import frc.robot.RobotMap;
 import frc.robot.commands.ManualElevator;
 import frc.util.config.ManipulatorSettings;
+import frc.util.telemetry.TelemetryChannel;
+import frc.util.telemetry.TelemetryRegistry;
 
 /**
  * Subsystem encapsulating elevator mechanism to move claw up and down.
+ * <p>
+ * Moves to an {@link ElevatorPosition} use Motion Magic, so the Talon ramps up to the position's
+ * cruise velocity and back down instead of jumping at the target with a position loop.
+ * The output needed to hold the carriage against gravity is added as arbitrary feedforward,
+ * and is larger once the inner stage is being lifted too.
  */
 public class Elevator extends Subsystem {
     private static Logger log = LogManager.getLogger(Elevator.class);
@@ -27,6 +37,15 @@ public class Elevator extends Subsystem {
     public static final double NORMAL_P_VAL = 0.1;
     public static final double CLIMBING_P_VAL = 0.15;
 
+    // Motion Magic limits, in ticks per 100 ms and ticks per 100 ms per second
+    public static final int NORMAL_CRUISE = 5000, NORMAL_ACCELERATION = 10000;
+    public static final int CLIMBING_CRUISE = 2500, CLIMBING_ACCELERATION = 5000;
+
+    /**
+     * How close to its target, in ticks, the elevator must be to count as there.
+     */
+    public static final int SETPOINT_THRESHOLD = 500;
+
     /**
      * Enumeration of positions that the elevator can have.
      * This is more a representation of the target positions, and does not reflect
@@ -34,20 +53,22 @@ public class Elevator extends Subsystem {
      */
     public enum ElevatorPosition {
         // TODO: Temporary Values
-        SCALE_HIGH(80000.0, NORMAL_P_VAL, 0, 0),        // Scale at its highest point
-        SCALE_LOW(65000.0, NORMAL_P_VAL, 0, 0),         // Scale at its lowest point
-        INNER_STAGE(38000.0, NORMAL_P_VAL, 0, 0),       // Height of the inner stage
-        SWITCH(25000.0, NORMAL_P_VAL, 0, 0),            // Above switch fence
-        CUBE_LEVEL_3(25000, NORMAL_P_VAL, 0, 0),        // Top cube of three stacked
-        CUBE_LEVEL_2(14000.0, NORMAL_P_VAL, 0, 0),      // Top cube of two stacked
-        DRIVE_CUBE(7000.0, NORMAL_P_VAL, 0, 0),         // Height for driving around cube
-        CLIMB(5000.0, CLIMBING_P_VAL, 0, 0),            // Position to raise to when climbing
-        FLOOR(-2000.0, NORMAL_P_VAL, 0, 0);             // Elevator bottomed out
+        SCALE_HIGH(80000.0, NORMAL_P_VAL, 0, 0, NORMAL_CRUISE, NORMAL_ACCELERATION),        // Scale at its highest point
+        SCALE_LOW(65000.0, NORMAL_P_VAL, 0, 0, NORMAL_CRUISE, NORMAL_ACCELERATION),         // Scale at its lowest point
+        INNER_STAGE(38000.0, NORMAL_P_VAL, 0, 0, NORMAL_CRUISE, NORMAL_ACCELERATION),       // Height of the inner stage
+        SWITCH(25000.0, NORMAL_P_VAL, 0, 0, NORMAL_CRUISE, NORMAL_ACCELERATION),            // Above switch fence
+        CUBE_LEVEL_3(25000, NORMAL_P_VAL, 0, 0, NORMAL_CRUISE, NORMAL_ACCELERATION),        // Top cube of three stacked
+        CUBE_LEVEL_2(14000.0, NORMAL_P_VAL, 0, 0, NORMAL_CRUISE, NORMAL_ACCELERATION),      // Top cube of two stacked
+        DRIVE_CUBE(7000.0, NORMAL_P_VAL, 0, 0, NORMAL_CRUISE, NORMAL_ACCELERATION),         // Height for driving around cube
+        CLIMB(5000.0, CLIMBING_P_VAL, 0, 0, CLIMBING_CRUISE, CLIMBING_ACCELERATION),        // Position to raise to when climbing
+        FLOOR(-2000.0, NORMAL_P_VAL, 0, 0, NORMAL_CRUISE, NORMAL_ACCELERATION);             // Elevator bottomed out
 
         public final double encPos;
         public final double pVal;
         public final double iVal;
         public final double dVal;
+        public final int cruiseVelocity;
+        public final int acceleration;
 
 
         /**
@@ -55,22 +76,40 @@ public class Elevator extends Subsystem {
          * representing the height that the elevator should be at,
          * as well as the P value to use to reach that level.
          *
-         * @param ep encoder position, in ticks
-         * @param kp p value between 0 and 1
+         * @param ep     encoder position, in ticks
+         * @param kp     p value between 0 and 1
+         * @param cruise Motion Magic cruise velocity, in ticks per 100 ms
+         * @param accel  Motion Magic acceleration, in ticks per 100 ms per second
          */
-        ElevatorPosition(double ep, double kp, double ki, double kd) {
+        ElevatorPosition(double ep, double kp, double ki, double kd, int cruise, int accel) {
             encPos = ep;
             pVal = kp;
             iVal = ki;
             dVal = kd;
+            cruiseVelocity = cruise;
+            acceleration = accel;
         }
     }
 
     private ElevatorPosition position;
 
+    // Gravity feedforward with only the carriage, and with the inner stage too
+    private final double GRAVITY_FF_CARRIAGE, GRAVITY_FF_STAGE;
+
+    // Motion Magic target being held, or null under manual control
+    private ElevatorPosition target;
+
+    // Time to setpoint; NaN once the current move has arrived
+    private double moveStartTime = Double.NaN;
+    private double lastTimeToSetpoint = Double.NaN;
+    private final double[] TOTAL_TIME_TO_SETPOINT = new double[ElevatorPosition.values().length];
+    private final int[] MOVES_TO_SETPOINT = new int[ElevatorPosition.values().length];
+
     public static final double MAX_HEIGHT = ElevatorPosition.SCALE_HIGH.encPos;
     private double curHeight;
 
+    private final TelemetryChannel heightChannel, atTargetChannel;
+
     /**
      * Creates a new elevator, using the specified CAN IDs for the
      * leader controller (Talon SRX) and follower controller (Victor SPX).
@@ -106,6 +145,102 @@ public class Elevator extends Subsystem {
         elevatorTalon.configSelectedFeedbackSensor(FeedbackDevice.CTRE_MagEncoder_Relative, RobotMap.PID.PRIMARY_PID_LOOP, DriveTrain.TIMEOUT_MS);
 
         elevatorTalon.configSetParameter(ParamEnum.eClearPositionOnLimitR, 1, 0, 0, 10);
+
+        double[] feedForward = ManipulatorSettings.getElevatorFeedForward();
+        elevatorTalon.config_kF(DriveTrain.PRIMARY_PID_LOOP, feedForward[0], 10);
+        GRAVITY_FF_CARRIAGE = feedForward[1];
+        GRAVITY_FF_STAGE = feedForward[2];
+
+        TelemetryRegistry telemetry = TelemetryRegistry.getInstance();
+        heightChannel = telemetry.register("Elevator/Height", TelemetryChannel.Type.NUMBER);
+        atTargetChannel = telemetry.register("Elevator/At Target", TelemetryChannel.Type.BOOLEAN);
+    }
+
+    @Override
+    public void periodic() {
+        // Read once per loop; everything else this loop uses the cached height
+        curHeight = getCurrentHeight();
+        heightChannel.record(curHeight);
+
+        if (target == null)
+            return;
+
+        atTargetChannel.record(isAtTarget());
+
+        // Gravity feedforward depends on the height, so it is refreshed every loop
+        elevatorTalon.set(ControlMode.MotionMagic, target.encPos, DemandType.ArbitraryFeedForward, getGravityFeedForward());
+
+        if (!Double.isNaN(moveStartTime) && isAtTarget()) {
+            lastTimeToSetpoint = Timer.getFPGATimestamp() - moveStartTime;
+            moveStartTime = Double.NaN;
+
+            TOTAL_TIME_TO_SETPOINT[target.ordinal()] += lastTimeToSetpoint;
+            MOVES_TO_SETPOINT[target.ordinal()]++;
+            log.info("Reached " + target + " in " + lastTimeToSetpoint + " s");
+        }
+    }
+
+    /**
+     * Moves the elevator to a position with Motion Magic, and holds it there
+     * until another move or {@link #release()}.
+     *
+     * @param ep the position to move to
+     */
+    public void moveTo(ElevatorPosition ep) {
+        if (ep != position)
+            setPosition(ep);
+
+        target = ep;
+        moveStartTime = Timer.getFPGATimestamp();
+        elevatorTalon.set(ControlMode.MotionMagic, ep.encPos, DemandType.ArbitraryFeedForward, getGravityFeedForward());
+    }
+
+    /**
+     * Stops holding the Motion Magic target, so the elevator can be driven directly.
+     */
+    public void release() {
+        target = null;
+        moveStartTime = Double.NaN;
+    }
+
+    /**
+     * @return whether the elevator has reached the target of the last {@link #moveTo(ElevatorPosition)}
+     */
+    public boolean isAtTarget() {
+        if (target == null)
+            return false;
+
+        // The encoder is zeroed on the bottom limit switch, so the floor can never quite be reached
+        if (target == ElevatorPosition.FLOOR && isLimitSwitchClosed())
+            return true;
+
+        return Math.abs(target.encPos - curHeight) <= SETPOINT_THRESHOLD;
+    }
+
+    /**
+     * @return output needed to hold the elevator at its current height
+     */
+    private double getGravityFeedForward() {
+        if (target == ElevatorPosition.FLOOR && isLimitSwitchClosed())
+            return 0;   // Resting on the bottom
+
+        return curHeight > ElevatorPosition.INNER_STAGE.encPos ? GRAVITY_FF_STAGE : GRAVITY_FF_CARRIAGE;
+    }
+
+    /**
+     * @return seconds the most recent move took to reach its target, or NaN if none has yet
+     */
+    public double getLastTimeToSetpoint() {
+        return lastTimeToSetpoint;
+    }
+
+    /**
+     * @param ep a target position
+     * @return average seconds moves to that position have taken to reach it, or NaN if there have been none
+     */
+    public double getAverageTimeToSetpoint(ElevatorPosition ep) {
+        int moves = MOVES_TO_SETPOINT[ep.ordinal()];
+        return moves > 0 ? TOTAL_TIME_TO_SETPOINT[ep.ordinal()] / moves : Double.NaN;
     }
 
     @Override
@@ -132,15 +267,17 @@ public class Elevator extends Subsystem {
     }
 
     /**
-     * Sets the {@link ElevatorPosition} for the elevator.
+     * Sets the {@link ElevatorPosition} for the elevator, configuring
+     * its gains and Motion Magic limits without moving.
      *
      * @param ep the new ElevatorPosition to set
-     * @param pid the pid values
      */
     public void setPosition(ElevatorPosition ep) {
         elevatorTalon.config_kP(DriveTrain.PRIMARY_PID_LOOP, ep.pVal, 10);
         elevatorTalon.config_kI(DriveTrain.PRIMARY_PID_LOOP, ep.iVal, 10);
         elevatorTalon.config_kD(DriveTrain.PRIMARY_PID_LOOP, ep.dVal, 10);
+        elevatorTalon.configMotionCruiseVelocity(ep.cruiseVelocity, 10);
+        elevatorTalon.configMotionAcceleration(ep.acceleration, 10);
 
         position = ep;
     }
@@ -154,6 +291,13 @@ public class Elevator extends Subsystem {
         return elevatorTalon.getSelectedSensorPosition(RobotMap.PID.PRIMARY_PID_LOOP);
     }
 
+    /**
+     * @return the height read at the start of this loop, without another CAN read
+     */
+    public double getHeight() {
+        return curHeight;
+    }
+
 
     /*public void toggleClimbState() {
         double[] pid = ManipulatorSettings.getClimbingPID();
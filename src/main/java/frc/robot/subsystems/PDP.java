@@ -1,10 +1,11 @@
 package frc.robot.subsystems;
 
-import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import frc.robot.commands.LogPDPInfo;
 import frc.util.TalonDrive;
+import frc.util.telemetry.TelemetryChannel;
+import frc.util.telemetry.TelemetryRegistry;
 
 import edu.wpi.first.wpilibj.PowerDistributionPanel;
 import edu.wpi.first.wpilibj.command.Subsystem;
@@ -15,20 +16,20 @@ import edu.wpi.first.wpilibj.command.Subsystem;
 public class PDP extends Subsystem {
 	private static Logger log = LogManager.getLogger(PDP.class);
 	public PowerDistributionPanel pdpPanel;
+	private final TelemetryChannel voltageChannel, totalCurrentChannel;
 	
 	public PDP() {
 		pdpPanel = new PowerDistributionPanel();
+
+		TelemetryRegistry telemetry = TelemetryRegistry.getInstance();
+		voltageChannel = telemetry.register("PDP/Voltage", TelemetryChannel.Type.NUMBER);
+		totalCurrentChannel = telemetry.register("PDP/Total Current", TelemetryChannel.Type.NUMBER);
 	}
 
 	public void periodic() {
-		double[] currentVals = new double[16];
-
-		//for (int i = 0; i < 16; i++)
-			//currentVals[i] = pdpPanel.getCurrent(i);
-
-		//SmartDashboard.putNumberArray("PDP: Current Values", currentVals);
-		//SmartDashboard.putNumber("PDP: Voltage", pdpPanel.getVoltage());
-		//SmartDashboard.putNumber("PDP: Total Current", pdpPanel.getTotalCurrent());
+		// Per-channel currents are left to LogPDPInfo, once a second
+		voltageChannel.record(pdpPanel.getVoltage());
+		totalCurrentChannel.record(pdpPanel.getTotalCurrent());
 	}
 	
 	@Override
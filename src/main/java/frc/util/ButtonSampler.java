@@ -0,0 +1,76 @@
+package frc.util;
+
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.buttons.Button;
+import edu.wpi.first.wpilibj.buttons.JoystickButton;
+
+/**
+ * Reads every button on a set of joysticks at once, as one bitmask per joystick.
+ * <p>
+ * A {@link JoystickButton} asks the driver station for its own button each time the scheduler
+ * polls it, so a dozen bound buttons on a joystick read that joystick a dozen times a loop.
+ * Buttons from {@link #getButton(int, int)} instead answer from the snapshot taken by
+ * {@link #update()}, so each joystick is read once a loop, and every binding sees the buttons
+ * as they were at the same moment. Binding works the same as any other {@link Button}.
+ */
+public class ButtonSampler {
+    private static final int MAX_PORTS = 6;
+
+    private final DriverStation DS = DriverStation.getInstance();
+    private final int[] PORTS;
+    private final int[] STATE = new int[MAX_PORTS];
+
+    /**
+     * @param ports driver station ports of the joysticks to read
+     */
+    public ButtonSampler(int... ports) {
+        PORTS = ports.clone();
+    }
+
+    /**
+     * Reads the buttons of every joystick. Call once per loop, before the scheduler runs.
+     */
+    public void update() {
+        for (int port : PORTS)
+            STATE[port] = DS.getStickButtons(port);
+    }
+
+    /**
+     * @param port   driver station port of the joystick
+     * @param button button number, starting at 1
+     * @return whether the button was down at the last {@link #update()}
+     */
+    public boolean get(int port, int button) {
+        return (STATE[port] & 1 << button - 1) != 0;
+    }
+
+    /**
+     * Creates a button that reads from this sampler.
+     *
+     * @param port   driver station port of the joystick
+     * @param button button number, starting at 1
+     * @return a button to bind commands to
+     */
+    public Button getButton(int port, int button) {
+        return new SampledButton(this, port, button);
+    }
+
+    /**
+     * A button whose state comes from a {@link ButtonSampler}'s latest snapshot.
+     */
+    public static class SampledButton extends Button {
+        private final ButtonSampler SAMPLER;
+        private final int PORT, BUTTON;
+
+        public SampledButton(ButtonSampler sampler, int port, int button) {
+            SAMPLER = sampler;
+            PORT = port;
+            BUTTON = button;
+        }
+
+        @Override
+        public boolean get() {
+            return SAMPLER.get(PORT, BUTTON);
+        }
+    }
+}
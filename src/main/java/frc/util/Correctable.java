@@ -0,0 +1,22 @@
+package frc.util;
+
+/**
+ * Interface to implement for commands that can tell whether they left the robot where they meant to.
+ * <p>
+ * Auton uses this to re-plan a path from wherever the robot really is to where the command
+ * should have left it, instead of carrying on from the wrong place.
+ */
+public interface Correctable {
+    /**
+     * @return true if the command's last run ended without reaching its target
+     */
+    public boolean hasFailed();
+
+    /**
+     * Gets where the command's last run meant to leave the robot.
+     *
+     * @param pose array of at least length 3 that receives {x, y, heading},
+     *             in the odometry's feet and radians
+     */
+    public void getTargetPose(double[] pose);
+}
@@ -0,0 +1,133 @@
+package frc.util;
+
+import frc.util.config.DriveTrainSettings;
+
+/**
+ * Converts between the drive train's encoder units and real units.
+ * <p>
+ * Built once from the wheel and encoder geometry, with every scale factor worked out up front,
+ * so each conversion is a single multiply. It doesn't touch the robot, so it works the same
+ * off the robot, such as in tests and replays.
+ * <p>
+ * Encoder positions are in ticks and velocities in ticks per 100 ms, as the Talons report them.
+ * {@link #ticksToFeet(double)} counts the gear ratio between the encoder and the wheel; the other
+ * distance conversions take the encoder to turn with the wheel, as {@link MercMath}'s always have.
+ */
+public final class DriveKinematics {
+    public static final int MAG_ENCODER_TICKS_PER_REVOLUTION = 4096;
+
+    private static final double MAX_MOTOR_OUTPUT = 1023;
+
+    public final int TICKS_PER_REVOLUTION;
+    public final double WHEEL_DIAMETER_INCHES;
+    public final double GEAR_RATIO;
+
+    private final double INCHES_PER_TICK, TICKS_PER_INCH, TICKS_PER_FOOT, GEARED_FEET_PER_TICK;
+    private final double RPM_PER_TICKS_PER_TENTH, TICKS_PER_TENTH_PER_RPM, METERS_PER_SECOND_PER_RPM;
+
+    /**
+     * @param ticksPerRevolution  encoder ticks per revolution of the encoder
+     * @param wheelDiameterInches diameter of the wheels, in inches
+     * @param gearRatio           revolutions of the encoder per revolution of the wheel
+     */
+    public DriveKinematics(int ticksPerRevolution, double wheelDiameterInches, double gearRatio) {
+        TICKS_PER_REVOLUTION = ticksPerRevolution;
+        WHEEL_DIAMETER_INCHES = wheelDiameterInches;
+        GEAR_RATIO = gearRatio;
+
+        double circumference = Math.PI * wheelDiameterInches;
+        INCHES_PER_TICK = circumference / ticksPerRevolution;
+        TICKS_PER_INCH = ticksPerRevolution / circumference;
+        TICKS_PER_FOOT = 12 * TICKS_PER_INCH;
+        GEARED_FEET_PER_TICK = circumference / (ticksPerRevolution * gearRatio) / 12;
+
+        RPM_PER_TICKS_PER_TENTH = 600.0 / ticksPerRevolution;
+        TICKS_PER_TENTH_PER_RPM = ticksPerRevolution / 600.0;
+        METERS_PER_SECOND_PER_RPM = MercMath.feetToMeters(circumference / 12) / 60;
+    }
+
+    /**
+     * Builds the conversions for the drive train described in drivetrain.properties.
+     *
+     * @return conversions for a drive train with magnetic encoders
+     */
+    public static DriveKinematics fromSettings() {
+        return new DriveKinematics(MAG_ENCODER_TICKS_PER_REVOLUTION,
+            DriveTrainSettings.getWheelDiameter(), DriveTrainSettings.getGearRatio());
+    }
+
+    /**
+     * @param ticks encoder position, in ticks
+     * @return distance the wheel has rolled, in feet, through the gear ratio
+     */
+    public double ticksToFeet(double ticks) {
+        return ticks * GEARED_FEET_PER_TICK;
+    }
+
+    public double ticksToInches(double ticks) {
+        return ticks * INCHES_PER_TICK;
+    }
+
+    public double inchesToTicks(double inches) {
+        return inches * TICKS_PER_INCH;
+    }
+
+    public double feetToTicks(double feet) {
+        return feet * TICKS_PER_FOOT;
+    }
+
+    /**
+     * Converts a whole column of positions, such as a trajectory's, in one call.
+     *
+     * @param feet  positions, in feet
+     * @param ticks array to hold the positions in ticks, at least as long as {@code feet}; may be {@code feet}
+     */
+    public void feetToTicks(double[] feet, double[] ticks) {
+        MercMath.scale(feet, TICKS_PER_FOOT, ticks);
+    }
+
+    /**
+     * Converts a whole column of encoder positions in one call, through the gear ratio.
+     *
+     * @param ticks positions, in ticks
+     * @param feet  array to hold the positions in feet, at least as long as {@code ticks}; may be {@code ticks}
+     */
+    public void ticksToFeet(double[] ticks, double[] feet) {
+        MercMath.scale(ticks, GEARED_FEET_PER_TICK, feet);
+    }
+
+    /**
+     * Converts a whole column of velocities in one call.
+     *
+     * @param revsPerMinute velocities, in RPM
+     * @param ticksPerTenth array to hold the velocities in ticks per 100 ms, at least as long as
+     *                      {@code revsPerMinute}; may be {@code revsPerMinute}
+     */
+    public void revsPerMinuteToTicksPerTenth(double[] revsPerMinute, double[] ticksPerTenth) {
+        MercMath.scale(revsPerMinute, TICKS_PER_TENTH_PER_RPM, ticksPerTenth);
+    }
+
+    public double ticksPerTenthToRevsPerMinute(double ticksPerTenth) {
+        return ticksPerTenth * RPM_PER_TICKS_PER_TENTH;
+    }
+
+    public double revsPerMinuteToTicksPerTenth(double revsPerMinute) {
+        return revsPerMinute * TICKS_PER_TENTH_PER_RPM;
+    }
+
+    public double revsPerMinuteToMetersPerSecond(double revsPerMinute) {
+        return revsPerMinute * METERS_PER_SECOND_PER_RPM;
+    }
+
+    public double ticksPerTenthToMetersPerSecond(double ticksPerTenth) {
+        return ticksPerTenth * RPM_PER_TICKS_PER_TENTH * METERS_PER_SECOND_PER_RPM;
+    }
+
+    /**
+     * @param revsPerMinute speed the Talon reaches at full output, in RPM
+     * @return velocity feedforward gain (kF) for the Talon
+     */
+    public double feedForward(double revsPerMinute) {
+        return MAX_MOTOR_OUTPUT / (revsPerMinute * TICKS_PER_TENTH_PER_RPM);
+    }
+}
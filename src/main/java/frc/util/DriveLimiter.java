@@ -0,0 +1,133 @@
+package frc.util;
+
+import edu.wpi.first.wpilibj.Timer;
+import frc.robot.subsystems.DriveTrain;
+import frc.robot.subsystems.Elevator;
+
+/**
+ * Limits how fast and how hard the drive train may be driven with the elevator raised,
+ * so the robot does not tip.
+ * <p>
+ * The limits for every height are worked out once, from the {@link Elevator.ElevatorPosition}
+ * heights, into tables indexed by height; each loop only looks its height up. Speed is limited
+ * as it always has been: full speed up to the inner stage, easing down to
+ * {@link DriveTrain#MIN_SPEED} at the top. Acceleration is limited on the assumption that the
+ * center of gravity rises linearly with the elevator, which makes the tipping acceleration
+ * fall off as one over the height.
+ */
+public class DriveLimiter {
+    private static final int BIN_TICKS = 500;       // height covered by each table entry
+    private static final double MAX_DT = 0.1;       // seconds; longer gaps are treated as a fresh start
+
+    private final double[] MAX_OUTPUT, MAX_ACCELERATION;
+
+    private double maxOutput = DriveTrain.MAX_SPEED, maxAcceleration;
+    private boolean enabled;
+
+    // Slew limited outputs, and when they were last limited
+    private double left, right, lastTime = Double.NaN;
+
+    /**
+     * @param floorAcceleration change in output per second allowed with the elevator down
+     * @param topAcceleration   change in output per second allowed with the elevator all the way up
+     */
+    public DriveLimiter(double floorAcceleration, double topAcceleration) {
+        double innerStage = Elevator.ElevatorPosition.INNER_STAGE.encPos;
+        int bins = (int) Math.ceil(Elevator.MAX_HEIGHT / BIN_TICKS) + 1;
+
+        MAX_OUTPUT = new double[bins];
+        MAX_ACCELERATION = new double[bins];
+
+        for (int i = 0; i < bins; i++) {
+            double height = Math.min(i * BIN_TICKS, Elevator.MAX_HEIGHT);
+
+            if (height > innerStage) {
+                double percent = (height - innerStage) / (Elevator.MAX_HEIGHT - innerStage);
+
+                // Should be an ease-out type of thing?
+                MAX_OUTPUT[i] = MercMath.lerp(Math.sqrt(percent), DriveTrain.MAX_SPEED, DriveTrain.MIN_SPEED);
+            } else {
+                MAX_OUTPUT[i] = DriveTrain.MAX_SPEED;
+            }
+
+            // 1 / acceleration grows linearly with the height of the center of gravity
+            double inverse = MercMath.lerp(height / Elevator.MAX_HEIGHT, 1 / floorAcceleration, 1 / topAcceleration);
+            MAX_ACCELERATION[i] = 1 / inverse;
+        }
+
+        maxAcceleration = MAX_ACCELERATION[0];
+    }
+
+    /**
+     * Looks up the limits for the elevator's height. Call once per loop.
+     *
+     * @param height elevator height, in ticks
+     */
+    public void update(double height) {
+        int bin = (int) MercMath.clamp(Math.round(height / BIN_TICKS), 0, MAX_OUTPUT.length - 1);
+
+        maxOutput = MAX_OUTPUT[bin];
+        maxAcceleration = MAX_ACCELERATION[bin];
+    }
+
+    /**
+     * Slew limits a pair of outputs, for {@link #getLeft()} and {@link #getRight()}.
+     * Does nothing while disabled.
+     *
+     * @param leftOutput  requested left output
+     * @param rightOutput requested right output
+     */
+    public void apply(double leftOutput, double rightOutput) {
+        double now = Timer.getFPGATimestamp();
+        double dt = now - lastTime;
+        lastTime = now;
+
+        if (!enabled || !(dt <= MAX_DT)) {
+            left = leftOutput;
+            right = rightOutput;
+            return;
+        }
+
+        double step = maxAcceleration * dt;
+        left += MercMath.clamp(leftOutput - left, -step, step);
+        right += MercMath.clamp(rightOutput - right, -step, step);
+    }
+
+    /**
+     * Turns slew limiting on or off. Limiting restarts from the next outputs either way.
+     *
+     * @param enable whether to limit acceleration
+     */
+    public void setEnabled(boolean enable) {
+        enabled = enable;
+        lastTime = Double.NaN;
+    }
+
+    /**
+     * @return left output after the last {@link #apply(double, double)}
+     */
+    public double getLeft() {
+        return left;
+    }
+
+    /**
+     * @return right output after the last {@link #apply(double, double)}
+     */
+    public double getRight() {
+        return right;
+    }
+
+    /**
+     * @return max output for the height given to the last {@link #update(double)}
+     */
+    public double getMaxOutput() {
+        return maxOutput;
+    }
+
+    /**
+     * @return max change in output per second for the height given to the last {@link #update(double)}
+     */
+    public double getMaxAcceleration() {
+        return maxAcceleration;
+    }
+}
@@ -0,0 +1,97 @@
+package frc.util;
+
+/**
+ * Tracks the pose of a differential drive on the field by integrating
+ * wheel travel along the gyro heading.
+ * <p>
+ * Distances are in feet and headings are in radians, counter-clockwise positive,
+ * so that poses line up with the coordinate system of Pathfinder waypoints.
+ */
+public class DriveOdometry {
+    private double x, y, heading;
+    private double headingOffset;
+    private double lastLeft, lastRight;
+    private boolean baselined;
+
+    /**
+     * Creates odometry starting at the origin, facing along the x-axis.
+     */
+    public DriveOdometry() {
+        reset(0, 0, 0);
+    }
+
+    /**
+     * Sets the current pose. The next call to {@link #update(double, double, double)}
+     * uses its sensor values as the new baseline.
+     *
+     * @param x       x position, in feet
+     * @param y       y position, in feet
+     * @param heading heading, in radians
+     */
+    public synchronized void reset(double x, double y, double heading) {
+        this.x = x;
+        this.y = y;
+        this.heading = heading;
+        baselined = false;
+    }
+
+    /**
+     * Keeps the current pose, but uses the sensor values of the next call to
+     * {@link #update(double, double, double)} as the new baseline.
+     * This is needed whenever the encoders are zeroed.
+     */
+    public synchronized void rebaseline() {
+        baselined = false;
+    }
+
+    /**
+     * Integrates the wheel travel since the last update.
+     *
+     * @param leftFeet   total distance travelled by the left side, in feet (forward positive)
+     * @param rightFeet  total distance travelled by the right side, in feet (forward positive)
+     * @param rawHeading unadjusted gyro heading, in radians (counter-clockwise positive)
+     */
+    public synchronized void update(double leftFeet, double rightFeet, double rawHeading) {
+        if (!baselined) {
+            headingOffset = heading - rawHeading;
+            lastLeft = leftFeet;
+            lastRight = rightFeet;
+            baselined = true;
+            return;
+        }
+
+        double newHeading = MercMath.wrapRadians(rawHeading + headingOffset);
+        double midHeading = heading + MercMath.wrapRadians(newHeading - heading) / 2;
+        double distance = ((leftFeet - lastLeft) + (rightFeet - lastRight)) / 2;
+
+        x += distance * Math.cos(midHeading);
+        y += distance * Math.sin(midHeading);
+        heading = newHeading;
+
+        lastLeft = leftFeet;
+        lastRight = rightFeet;
+    }
+
+    /**
+     * Copies the current pose into the given array without allocating.
+     *
+     * @param out array of at least length 3 that receives {x, y, heading}
+     */
+    public synchronized void getPose(double[] out) {
+        out[0] = x;
+        out[1] = y;
+        out[2] = heading;
+    }
+
+    public synchronized double getX() {
+        return x;
+    }
+
+    public synchronized double getY() {
+        return y;
+    }
+
+    public synchronized double getHeading() {
+        return heading;
+    }
+}
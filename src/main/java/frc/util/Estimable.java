@@ -0,0 +1,18 @@
+package frc.util;
+
+/**
+ * Interface to implement for commands that can predict how long they take to run.
+ * <p>
+ * Estimates are made before the command runs, from the command's own parameters
+ * and simple models of the mechanisms it drives, so that whole autons can be
+ * timed without a robot on the field. Commands estimate from the {@link EstimatedState}
+ * the commands before them leave, never from the robot's sensors.
+ */
+public interface Estimable {
+    /**
+     * @param state where the robot is predicted to be when the command starts;
+     *              updated to where the command is predicted to leave it
+     * @return the predicted time from initialization until the command finishes, in seconds
+     */
+    public double estimateDuration(EstimatedState state);
+}
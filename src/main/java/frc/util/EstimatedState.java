@@ -0,0 +1,81 @@
+package frc.util;
+
+/**
+ * Where the robot is predicted to be partway through an auton, for {@link Estimable} commands
+ * to estimate from instead of reading the robot's sensors.
+ * <p>
+ * The pose is in feet and radians, counter-clockwise positive, like {@link DriveOdometry}'s.
+ * The elevator height is in encoder ticks, like the elevator's positions.
+ */
+public class EstimatedState {
+    private final double START_HEADING;
+    private double x, y, heading, elevatorHeight;
+
+    /**
+     * @param x              starting x position, in feet
+     * @param y              starting y position, in feet
+     * @param heading        starting heading, in radians; the gyro reads 0 here
+     * @param elevatorHeight starting elevator height, in ticks
+     */
+    public EstimatedState(double x, double y, double heading, double elevatorHeight) {
+        START_HEADING = heading;
+        this.x = x;
+        this.y = y;
+        this.heading = heading;
+        this.elevatorHeight = elevatorHeight;
+    }
+
+    public double getX() {
+        return x;
+    }
+
+    public double getY() {
+        return y;
+    }
+
+    public double getHeading() {
+        return heading;
+    }
+
+    public void setPose(double x, double y, double heading) {
+        this.x = x;
+        this.y = y;
+        this.heading = heading;
+    }
+
+    /**
+     * Moves the robot relative to its current pose.
+     *
+     * @param forward feet to move along the heading
+     * @param left    feet to move to the robot's left
+     * @param turn    radians to turn, counter-clockwise positive
+     */
+    public void move(double forward, double left, double turn) {
+        double cos = Math.cos(heading), sin = Math.sin(heading);
+        x += forward * cos - left * sin;
+        y += forward * sin + left * cos;
+        heading = MercMath.wrapRadians(heading + turn);
+    }
+
+    /**
+     * @return the angle the gyro would read, in degrees clockwise from the starting heading
+     */
+    public double getGyroAngle() {
+        return -Math.toDegrees(MercMath.wrapRadians(heading - START_HEADING));
+    }
+
+    /**
+     * @param degrees angle the gyro reads, in degrees clockwise from the starting heading
+     */
+    public void setGyroAngle(double degrees) {
+        heading = MercMath.wrapRadians(START_HEADING - Math.toRadians(degrees));
+    }
+
+    public double getElevatorHeight() {
+        return elevatorHeight;
+    }
+
+    public void setElevatorHeight(double elevatorHeight) {
+        this.elevatorHeight = elevatorHeight;
+    }
+}
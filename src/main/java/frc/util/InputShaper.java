@@ -0,0 +1,94 @@
+package frc.util;
+
+/**
+ * Shapes one joystick axis for driving: a deadband that is scaled so the output
+ * still starts at 0 at its edge, an expo curve for finer control near the center,
+ * and a slew rate limit so the output cannot jump.
+ * <p>
+ * Each axis keeps its own shaper, since the slew rate limit needs the last output.
+ * Shaping does not allocate.
+ */
+public class InputShaper {
+    private final double DEADBAND, EXPO, SLEW_RATE;
+
+    private double output;
+
+    /**
+     * @param profile {deadband, expo, slew rate}
+     * @see #InputShaper(double, double, double)
+     */
+    public InputShaper(double[] profile) {
+        this(profile[0], profile[1], profile[2]);
+    }
+
+    /**
+     * @param deadband  stick travel from center that is ignored, from 0 to 1
+     * @param expo      how much of the output follows a cubic instead of a line, from 0 to 1
+     * @param slewRate  fastest change in output per second, or 0 for no limit
+     */
+    public InputShaper(double deadband, double expo, double slewRate) {
+        DEADBAND = MercMath.clamp(deadband, 0, 0.99);
+        EXPO = MercMath.clamp(expo, 0, 1);
+        SLEW_RATE = slewRate;
+    }
+
+    /**
+     * Shapes the latest reading of the axis.
+     *
+     * @param raw raw axis value, from -1 to 1
+     * @param dt  seconds since the last reading
+     * @return the shaped value
+     */
+    public double shape(double raw, double dt) {
+        double target = applyExpo(applyDeadband(MercMath.clamp(raw, -1, 1), DEADBAND), EXPO);
+
+        if (SLEW_RATE > 0) {
+            double step = SLEW_RATE * dt;
+            output += MercMath.clamp(target - output, -step, step);
+        } else {
+            output = target;
+        }
+
+        return output;
+    }
+
+    /**
+     * @return the value from the last {@link #shape(double, double)}
+     */
+    public double get() {
+        return output;
+    }
+
+    /**
+     * Drops the slew rate limit's memory, so the next value starts from rest.
+     */
+    public void reset() {
+        output = 0;
+    }
+
+    /**
+     * Applies a deadband, scaling what is left so the output goes
+     * smoothly from 0 at the edge of the deadband to 1 at full travel.
+     *
+     * @param val      value from -1 to 1
+     * @param deadband stick travel from center that is ignored
+     * @return 0 inside the deadband, the scaled value outside it
+     */
+    public static double applyDeadband(double val, double deadband) {
+        if (Math.abs(val) <= deadband)
+            return 0;
+
+        return Math.copySign((Math.abs(val) - deadband) / (1 - deadband), val);
+    }
+
+    /**
+     * Blends a value with its cube, keeping its sign and its end points.
+     *
+     * @param val  value from -1 to 1
+     * @param expo 0 for linear, 1 for cubic
+     * @return the curved value
+     */
+    public static double applyExpo(double val, double expo) {
+        return (1 - expo) * val + expo * val * val * val;
+    }
+}
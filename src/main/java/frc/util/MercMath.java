@@ -8,7 +8,6 @@
 package frc.util;
 
 import java.nio.ByteBuffer;
-import frc.robot.Robot;
 
 /**
  * Class that contains various math functions.
@@ -16,6 +15,16 @@ import frc.robot.Robot;
 public class MercMath {
 	private final static char[] HEX_ARRAY = "0123456789ABCDEF".toCharArray();
 
+	// Exact, by definition of the inch and the foot
+	private final static double CENTIMETERS_PER_INCH = 2.54;
+	private final static double METERS_PER_FOOT = 0.3048;
+
+	// Above this, every double is already a whole number
+	private final static double MAX_FRACTIONAL = 0x1p52;
+
+	// Drive train conversions; built from drivetrain.properties unless one is set
+	private static volatile DriveKinematics driveKinematics;
+
 	/**
 	 * Clamps a value between a minimum and maximum, inclusive.
 	 * 
@@ -35,17 +44,22 @@ public class MercMath {
 		return val;
 	}
 
-	// TODO: Make this work
 	/**
-	 * Rounds a floating-point value to a certain number of places past the decimals
+	 * Rounds a floating-point value to a certain number of places past the decimals,
+	 * with halves rounded up.
 	 * @param val    the number to round
 	 * @param places the number of places to round to
-	 * @return the value, truncated to the setClawState amount of places
+	 * @return the value, rounded to the given amount of places; NaN and infinities are returned as they are
 	 */
 	public static double roundFloat(double val, int places) {
 		double factor = Math.pow(10.0, places);
+		double scaled = val * factor;
 
-		return Math.round(val * factor) / factor;
+		// Math.round would turn NaN into 0 and clip anything beyond a long
+		if (Double.isNaN(scaled) || Math.abs(scaled) >= MAX_FRACTIONAL)
+			return val;
+
+		return Math.round(scaled) / factor;
 	}
 
 	/**
@@ -62,12 +76,42 @@ public class MercMath {
 		return percent * b - percent * a + a;
 	}
 
+	/**
+	 * Wraps an angle into the range [-pi, pi).
+	 *
+	 * @param radians the angle to wrap, in radians
+	 * @return the equivalent angle in [-pi, pi)
+	 */
+	public static double wrapRadians(double radians) {
+		return radians - 2 * Math.PI * Math.floor((radians + Math.PI) / (2 * Math.PI));
+	}
+
+	/**
+	 * Computes how long a move takes under a trapezoidal velocity profile, starting
+	 * and ending at rest. Short moves that never reach the cruise velocity follow a
+	 * triangular profile instead.
+	 *
+	 * @param distance     distance to move, in any unit
+	 * @param velocity     cruise velocity, in the same unit per second
+	 * @param acceleration acceleration, in the same unit per second squared
+	 * @return the time needed to make the move, in seconds
+	 */
+	public static double trapezoidTime(double distance, double velocity, double acceleration) {
+		distance = Math.abs(distance);
+		double accelDistance = velocity * velocity / acceleration;
+
+		if (distance < accelDistance)
+			return 2 * Math.sqrt(distance / acceleration);
+
+		return velocity / acceleration + distance / velocity;
+	}
+
 	public static double centimetersToInches(double val) {
-		return val / 2.54;
+		return val / CENTIMETERS_PER_INCH;
 	}
 
 	public static double inchesToCentimeters(double val) {
-		return val * 0.393700787;
+		return val * CENTIMETERS_PER_INCH;
 	}
 
 	public static double secondsToMinutes(double val) {
@@ -87,20 +131,76 @@ public class MercMath {
 	}
 
 	public static double feetToMeters(double val) {
-		return 100 * inchesToCentimeters(val / 12);
+		return val * METERS_PER_FOOT;
 	}
 
 	public static double metersToFeet(double val) {
-		return 1 / (100 * inchesToCentimeters(val / 12));
+		return val / METERS_PER_FOOT;
+	}
+
+	/*
+	 * Bulk versions of the conversions above, to convert a whole column of values, such as
+	 * the positions of a trajectory, in one call. Each is a plain loop over the arrays so the
+	 * JIT can vectorize it. The output may be the input array, to convert in place.
+	 * Those that multiply by a reciprocal can differ from the single-value versions in the last bit.
+	 */
+
+	public static void centimetersToInches(double[] vals, double[] out) {
+		scale(vals, 1 / CENTIMETERS_PER_INCH, out);
+	}
+
+	public static void inchesToCentimeters(double[] vals, double[] out) {
+		scale(vals, CENTIMETERS_PER_INCH, out);
+	}
+
+	public static void feetToMeters(double[] vals, double[] out) {
+		scale(vals, METERS_PER_FOOT, out);
+	}
+
+	public static void metersToFeet(double[] vals, double[] out) {
+		scale(vals, 1 / METERS_PER_FOOT, out);
+	}
+
+	/**
+	 * Multiplies every value of an array by a factor.
+	 *
+	 * @param vals   the values to scale
+	 * @param factor the factor to multiply by
+	 * @param out    array to hold the results, at least as long as {@code vals}; may be {@code vals}
+	 */
+	public static void scale(double[] vals, double factor, double[] out) {
+		if (out.length < vals.length)
+			throw new IllegalArgumentException("Output holds " + out.length + " values, not " + vals.length);
+
+		for (int i = 0; i < vals.length; i++)
+			out[i] = vals[i] * factor;
 	}
 
 	public static double ticksToMeters(double ticks) {
-		return inchesToCentimeters(encoderTicksToInches(ticks)) * 100;
+		return inchesToCentimeters(encoderTicksToInches(ticks)) / 100;
+	}
+
+	/**
+	 * Sets the conversions used by the drive train methods below. The robot's drive train sets its own;
+	 * off the robot, set one to convert for a given drive train, or leave it to the default settings.
+	 *
+	 * @param kinematics the drive train's conversions, or null to build them from drivetrain.properties
+	 */
+	public static void setDriveKinematics(DriveKinematics kinematics) {
+		driveKinematics = kinematics;
+	}
+
+	private static DriveKinematics getDriveKinematics() {
+		DriveKinematics kinematics = driveKinematics;
+
+		if (kinematics == null)
+			driveKinematics = kinematics = DriveKinematics.fromSettings();
+
+		return kinematics;
 	}
 
 	public static double getEncPosition(double ticks) {
-		return ((Math.PI * Robot.driveTrain.WHEEL_DIAMETER_INCHES) /
-				(Robot.driveTrain.MAG_ENCODER_TICKS_PER_REVOLUTION * Robot.driveTrain.GEAR_RATIO) * ticks) / 12;
+		return getDriveKinematics().ticksToFeet(ticks);
 	}
 
 	/**
@@ -115,11 +215,11 @@ public class MercMath {
 	}
 
 	public static double inchesToEncoderTicks(double inches) {
-		return inches / (Math.PI * Robot.driveTrain.WHEEL_DIAMETER_INCHES) * Robot.driveTrain.MAG_ENCODER_TICKS_PER_REVOLUTION;
+		return getDriveKinematics().inchesToTicks(inches);
 	}
 
 	public static double encoderTicksToInches(double ticks) {
-		return ticks / Robot.driveTrain.MAG_ENCODER_TICKS_PER_REVOLUTION * (Math.PI * Robot.driveTrain.WHEEL_DIAMETER_INCHES);
+		return getDriveKinematics().ticksToInches(ticks);
 	}
 
 	/**
@@ -131,26 +231,24 @@ public class MercMath {
 	 * @return Revs per minute
 	 */
 	public static double ticksPerTenthToRevsPerMinute(double ticksPerTenthSecond) {
-		return ticksPerTenthSecond / Robot.driveTrain.MAG_ENCODER_TICKS_PER_REVOLUTION * 600;
+		return getDriveKinematics().ticksPerTenthToRevsPerMinute(ticksPerTenthSecond);
 	}
 
 
 	public static double revsPerMinuteToTicksPerTenth(double revsPerMinute) {
-        return revsPerMinute * Robot.driveTrain.MAG_ENCODER_TICKS_PER_REVOLUTION / 600;
-    }
+		return getDriveKinematics().revsPerMinuteToTicksPerTenth(revsPerMinute);
+	}
 
 	public static double revsPerMinuteToMetersPerSecond(double revsPerMinute) {
-		return revsPerMinute * feetToMeters(Robot.driveTrain.WHEEL_DIAMETER_INCHES * Math.PI / 12) / 60;
+		return getDriveKinematics().revsPerMinuteToMetersPerSecond(revsPerMinute);
 	}
 
 	public static double ticksPerTenthToMetersPerSecond(double ticksPerTenth) {
-		return revsPerMinuteToMetersPerSecond(ticksPerTenthToRevsPerMinute(ticksPerTenth));
+		return getDriveKinematics().ticksPerTenthToMetersPerSecond(ticksPerTenth);
 	}
 
 	public static double calculateFeedForward(double rpm) {
-		final double MAX_MOTOR_OUTPUT = 1023;
-		final double NATIVE_UNITS_PER_100 = rpm / 600 * Robot.driveTrain.MAG_ENCODER_TICKS_PER_REVOLUTION;
-		return MAX_MOTOR_OUTPUT/NATIVE_UNITS_PER_100;
+		return getDriveKinematics().feedForward(rpm);
 	}
 
 	public static String bytesToHex(byte[] bytes) {
@@ -0,0 +1,151 @@
+package frc.util;
+
+/**
+ * One-dimensional motion profile from rest to rest over a given distance.
+ * <p>
+ * The profile is a trapezoid (or triangle, if the distance is too short to reach full velocity)
+ * whose velocity is then run through a moving average. The moving average limits jerk,
+ * turning the trapezoid into an S-curve that takes one smoothing time longer;
+ * a smoothing time of 0 leaves the plain trapezoid.
+ * <p>
+ * The profile is generated into tables once per move, so sampling it is a cheap lookup
+ * that does not allocate. Tables are only reallocated when a longer move needs more room.
+ */
+public class MotionProfile {
+    private final double MAX_VELOCITY, MAX_ACCELERATION, DT;
+    private final int SMOOTHING_SAMPLES;
+
+    private double[] position = new double[0], velocity = new double[0], acceleration = new double[0];
+    private int length;
+    private double sign = 1;
+
+    // Latest sample
+    private double samplePosition, sampleVelocity, sampleAcceleration;
+
+    /**
+     * @param maxVelocity     maximum velocity, in distance units per second
+     * @param maxAcceleration maximum acceleration, in distance units per second squared
+     * @param smoothingTime   seconds the velocity is averaged over; 0 for a trapezoid
+     * @param dt              seconds between table entries
+     */
+    public MotionProfile(double maxVelocity, double maxAcceleration, double smoothingTime, double dt) {
+        MAX_VELOCITY = maxVelocity;
+        MAX_ACCELERATION = maxAcceleration;
+        DT = dt;
+        SMOOTHING_SAMPLES = Math.max(1, (int) Math.round(smoothingTime / dt));
+    }
+
+    /**
+     * Generates the profile for a move, replacing the previous one.
+     *
+     * @param distance signed distance to move
+     */
+    public void generate(double distance) {
+        sign = Math.signum(distance);
+        double d = Math.abs(distance);
+
+        // Trapezoid: accelerate for accelTime, cruise for cruiseTime, decelerate for accelTime
+        double accelTime = MAX_VELOCITY / MAX_ACCELERATION, peak = MAX_VELOCITY, cruiseTime;
+        if (d < peak * accelTime) {
+            accelTime = Math.sqrt(d / MAX_ACCELERATION);
+            peak = MAX_ACCELERATION * accelTime;
+            cruiseTime = 0;
+        } else {
+            cruiseTime = (d - peak * accelTime) / peak;
+        }
+        double totalTime = 2 * accelTime + cruiseTime;
+
+        length = (int) Math.ceil(totalTime / DT) + SMOOTHING_SAMPLES + 1;
+        if (position.length < length) {
+            position = new double[length];
+            velocity = new double[length];
+            acceleration = new double[length];
+        }
+
+        // Moving average of the trapezoid's velocity; the acceleration table holds the raw velocity for now
+        double sum = 0;
+        for (int i = 0; i < length; i++) {
+            double t = i * DT, v;
+            if (t >= totalTime)
+                v = 0;
+            else if (t < accelTime)
+                v = MAX_ACCELERATION * t;
+            else if (t < accelTime + cruiseTime)
+                v = peak;
+            else
+                v = MAX_ACCELERATION * (totalTime - t);
+
+            acceleration[i] = v;
+            sum += v;
+            if (i >= SMOOTHING_SAMPLES)
+                sum -= acceleration[i - SMOOTHING_SAMPLES];
+            velocity[i] = sum / SMOOTHING_SAMPLES;
+        }
+
+        position[0] = 0;
+        for (int i = 1; i < length; i++)
+            position[i] = position[i - 1] + (velocity[i - 1] + velocity[i]) / 2 * DT;
+
+        // Sampling the trapezoid loses a little distance; scale it back so the move ends exactly
+        double scale = position[length - 1] > 0 ? d / position[length - 1] : 0;
+        for (int i = 0; i < length; i++) {
+            position[i] *= scale;
+            velocity[i] *= scale;
+        }
+
+        for (int i = 0; i < length; i++) {
+            double before = velocity[Math.max(0, i - 1)], after = velocity[Math.min(length - 1, i + 1)];
+            acceleration[i] = (after - before) / (2 * DT);
+        }
+    }
+
+    /**
+     * Looks up the profile at a time, for {@link #getPosition()}, {@link #getVelocity()}
+     * and {@link #getAcceleration()}.
+     *
+     * @param t seconds since the start of the move
+     */
+    public void sample(double t) {
+        if (length == 0) {
+            samplePosition = sampleVelocity = sampleAcceleration = 0;
+            return;
+        }
+
+        double index = MercMath.clamp(t / DT, 0, length - 1);
+        int i = (int) index;
+        int j = Math.min(i + 1, length - 1);
+        double f = index - i;
+
+        samplePosition = sign * (position[i] + (position[j] - position[i]) * f);
+        sampleVelocity = sign * (velocity[i] + (velocity[j] - velocity[i]) * f);
+        sampleAcceleration = sign * (acceleration[i] + (acceleration[j] - acceleration[i]) * f);
+    }
+
+    /**
+     * @return distance from the start at the sampled time
+     */
+    public double getPosition() {
+        return samplePosition;
+    }
+
+    /**
+     * @return velocity at the sampled time
+     */
+    public double getVelocity() {
+        return sampleVelocity;
+    }
+
+    /**
+     * @return acceleration at the sampled time
+     */
+    public double getAcceleration() {
+        return sampleAcceleration;
+    }
+
+    /**
+     * @return seconds the generated move takes
+     */
+    public double getDuration() {
+        return Math.max(0, length - 1) * DT;
+    }
+}
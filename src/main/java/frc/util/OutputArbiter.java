@@ -0,0 +1,212 @@
+package frc.util;
+
+import edu.wpi.first.wpilibj.Timer;
+
+/**
+ * Decides what an output such as the LEDs or the gamepad rumble should show when more than
+ * one thing wants it, and only sends it when it changes.
+ * <p>
+ * Each priority level holds at most one request: a value per channel, a pattern to show it in,
+ * and optionally when it expires. The highest active priority wins. {@link #update(double)}
+ * works out the output from the winning request and writes it only if it differs from what was
+ * last written, or if the keep-alive interval has passed, so setting the same request every
+ * loop costs nothing. Requests are kept in preallocated arrays and patterns are computed from
+ * the time, so nothing is allocated after construction.
+ */
+public class OutputArbiter {
+    /**
+     * How a request's values are shown over time.
+     */
+    public enum Pattern {
+        /**
+         * The values, constantly.
+         */
+        SOLID,
+        /**
+         * The values for the first half of each period, off for the second.
+         */
+        BLINK,
+        /**
+         * Fading smoothly from off to the values and back once each period.
+         */
+        PULSE
+    }
+
+    /**
+     * Receives the output when it needs to be sent.
+     */
+    @FunctionalInterface
+    public interface Output {
+        /**
+         * @param values one value per channel; only valid during the call
+         */
+        void write(double[] values);
+    }
+
+    private final Output OUTPUT;
+    private final int CHANNELS;
+    private final double RESOLUTION, KEEP_ALIVE;
+
+    // Requests, by priority
+    private final boolean[] ACTIVE;
+    private final Pattern[] PATTERN;
+    private final double[] PERIOD, START, END;
+    private final double[][] VALUES;
+
+    private final double[] OUT, SENT;
+    private double lastSent = Double.NEGATIVE_INFINITY;
+    private int framesSent;
+
+    /**
+     * @param output     where the output is written
+     * @param channels   values per output, such as 3 for RGB
+     * @param priorities number of priority levels, numbered from 0 (lowest)
+     * @param resolution smallest change in a value worth sending
+     * @param keepAlive  seconds after which the output is sent again even if unchanged
+     */
+    public OutputArbiter(Output output, int channels, int priorities, double resolution, double keepAlive) {
+        OUTPUT = output;
+        CHANNELS = channels;
+        RESOLUTION = resolution;
+        KEEP_ALIVE = keepAlive;
+
+        ACTIVE = new boolean[priorities];
+        PATTERN = new Pattern[priorities];
+        PERIOD = new double[priorities];
+        START = new double[priorities];
+        END = new double[priorities];
+        VALUES = new double[priorities][channels];
+
+        OUT = new double[channels];
+        SENT = new double[channels];
+    }
+
+    /**
+     * Requests a single-channel output until cleared.
+     *
+     * @see #set(int, Pattern, double, double, double, double)
+     */
+    public void set(int priority, Pattern pattern, double period, double value) {
+        set(priority, pattern, period, value, value, value);
+    }
+
+    /**
+     * Requests an output until cleared, replacing this priority's last request.
+     * Setting the same pattern again does not restart it.
+     *
+     * @param priority priority level
+     * @param pattern  how to show the values
+     * @param period   seconds per blink or pulse; ignored for {@link Pattern#SOLID}
+     * @param a        first channel's value
+     * @param b        second channel's value, if there is one
+     * @param c        third channel's value, if there is one
+     */
+    public void set(int priority, Pattern pattern, double period, double a, double b, double c) {
+        flash(priority, pattern, period, Double.POSITIVE_INFINITY, a, b, c);
+    }
+
+    /**
+     * Requests an output for a while, replacing this priority's last request.
+     *
+     * @param duration seconds until the request clears itself
+     * @see #set(int, Pattern, double, double, double, double)
+     */
+    public void flash(int priority, Pattern pattern, double period, double duration, double a, double b, double c) {
+        double now = Timer.getFPGATimestamp();
+
+        if (!ACTIVE[priority] || PATTERN[priority] != pattern || PERIOD[priority] != period)
+            START[priority] = now;
+
+        ACTIVE[priority] = true;
+        PATTERN[priority] = pattern;
+        PERIOD[priority] = period;
+        END[priority] = now + duration;
+
+        double[] values = VALUES[priority];
+        values[0] = a;
+        if (CHANNELS > 1)
+            values[1] = b;
+        if (CHANNELS > 2)
+            values[2] = c;
+    }
+
+    /**
+     * Withdraws this priority's request.
+     *
+     * @param priority priority level
+     */
+    public void clear(int priority) {
+        ACTIVE[priority] = false;
+    }
+
+    /**
+     * Withdraws every request, leaving the output off.
+     */
+    public void clearAll() {
+        for (int i = 0; i < ACTIVE.length; i++)
+            ACTIVE[i] = false;
+    }
+
+    /**
+     * Works out the output and sends it if it changed or is due a keep-alive. Call once per loop.
+     *
+     * @param now current time, in seconds
+     */
+    public void update(double now) {
+        int top = -1;
+        for (int i = ACTIVE.length - 1; i >= 0 && top < 0; i--) {
+            if (ACTIVE[i] && now >= END[i])
+                ACTIVE[i] = false;
+            if (ACTIVE[i])
+                top = i;
+        }
+
+        double level = top >= 0 ? getLevel(PATTERN[top], PERIOD[top], now - START[top]) : 0;
+
+        boolean changed = false;
+        for (int i = 0; i < CHANNELS; i++) {
+            double value = top >= 0 ? VALUES[top][i] * level : 0;
+            OUT[i] = Math.round(value / RESOLUTION) * RESOLUTION;
+            changed |= OUT[i] != SENT[i];
+        }
+
+        if (changed || now - lastSent >= KEEP_ALIVE) {
+            OUTPUT.write(OUT);
+            System.arraycopy(OUT, 0, SENT, 0, CHANNELS);
+            lastSent = now;
+            framesSent++;
+        }
+    }
+
+    /**
+     * @return how much of a request's values a pattern shows, from 0 to 1
+     */
+    private static double getLevel(Pattern pattern, double period, double t) {
+        if (period <= 0)
+            return 1;
+
+        switch (pattern) {
+            case BLINK:
+                return t % period < period / 2 ? 1 : 0;
+            case PULSE:
+                return 0.5 - 0.5 * Math.cos(2 * Math.PI * t / period);
+            default:
+                return 1;
+        }
+    }
+
+    /**
+     * @param channel channel number, from 0
+     * @return the value last written to the channel
+     */
+    public double getValue(int channel) {
+        return SENT[channel];
+    }
+
+    /**
+     * @return how many times the output has been written
+     */
+    public int getFramesSent() {
+        return framesSent;
+    }
+}
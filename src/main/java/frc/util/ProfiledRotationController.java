@@ -0,0 +1,118 @@
+package frc.util;
+
+import frc.util.config.DriveTrainSettings;
+
+/**
+ * Turns the robot along a {@link MotionProfile} of its heading.
+ * <p>
+ * Most of the output comes from feedforward on the profile's angular velocity and acceleration,
+ * so the robot is already turning at the right speed; feedback only corrects the small error
+ * that is left. Since the profile ends at rest, the only minimum output needed is
+ * the little it takes to overcome friction.
+ * <p>
+ * Headings are in degrees, clockwise positive, like the gyro. Output is positive
+ * to turn clockwise.
+ */
+public class ProfiledRotationController {
+    private static final double MIN_VELOCITY = 1e-3;   // deg/s; slower than this the profile is at rest
+
+    private final MotionProfile PROFILE;
+    private final double STATIC, VELOCITY_GAIN, ACCELERATION_GAIN;
+    private final double P, D;
+    private final double TOLERANCE, RATE_TOLERANCE;
+
+    private double startHeading, targetHeading;
+    private double error;
+
+    /**
+     * Creates a controller tuned from drivetrain.properties.
+     *
+     * @param dt seconds between calls to {@link #calculate(double, double, double)}
+     */
+    public ProfiledRotationController(double dt) {
+        this(DriveTrainSettings.getRotationProfile(), DriveTrainSettings.getRotationFeedForward(),
+            DriveTrainSettings.getPIDValues("profiledRotate", 0.02, 0, 0.001),
+            DriveTrainSettings.getRotationTolerance(), dt);
+    }
+
+    /**
+     * @param profile     {max velocity, max acceleration, S-curve smoothing time}, in degrees and seconds
+     * @param feedForward {static, velocity, acceleration} gains
+     * @param pd          {P, unused, D} gains on the heading error and rate error
+     * @param tolerance   {heading, rate} the robot must be within to be settled, in degrees and degrees per second
+     * @param dt          seconds between calls to {@link #calculate(double, double, double)}
+     */
+    public ProfiledRotationController(double[] profile, double[] feedForward, double[] pd, double[] tolerance, double dt) {
+        PROFILE = new MotionProfile(profile[0], profile[1], profile[2], dt);
+        STATIC = feedForward[0];
+        VELOCITY_GAIN = feedForward[1];
+        ACCELERATION_GAIN = feedForward[2];
+        P = pd[0];
+        D = pd[2];
+        TOLERANCE = tolerance[0];
+        RATE_TOLERANCE = tolerance[1];
+    }
+
+    /**
+     * Plans a turn.
+     *
+     * @param startHeading  current heading
+     * @param targetHeading heading to end at
+     */
+    public void start(double startHeading, double targetHeading) {
+        this.startHeading = startHeading;
+        this.targetHeading = targetHeading;
+        PROFILE.generate(targetHeading - startHeading);
+    }
+
+    /**
+     * @param t       seconds since {@link #start(double, double)}
+     * @param heading current heading
+     * @param rate    current turn rate, in degrees per second
+     * @return output to turn with, positive clockwise
+     */
+    public double calculate(double t, double heading, double rate) {
+        PROFILE.sample(t);
+        double velocity = PROFILE.getVelocity();
+
+        error = startHeading + PROFILE.getPosition() - heading;
+
+        // Overcome friction in the direction of travel; once the profile is at rest,
+        // in the direction of the target if the robot stopped short of the tolerance
+        double direction = Math.signum(velocity);
+        if (Math.abs(velocity) <= MIN_VELOCITY)
+            direction = Math.abs(targetHeading - heading) > TOLERANCE ? Math.signum(targetHeading - heading) : 0;
+
+        return STATIC * direction
+            + VELOCITY_GAIN * velocity
+            + ACCELERATION_GAIN * PROFILE.getAcceleration()
+            + P * error
+            + D * (velocity - rate);
+    }
+
+    /**
+     * @param t       seconds since {@link #start(double, double)}
+     * @param heading current heading
+     * @param rate    current turn rate, in degrees per second
+     * @return whether the profile is done and the robot has stopped on the target
+     */
+    public boolean isSettled(double t, double heading, double rate) {
+        return t >= PROFILE.getDuration()
+            && Math.abs(targetHeading - heading) <= TOLERANCE
+            && Math.abs(rate) <= RATE_TOLERANCE;
+    }
+
+    /**
+     * @return seconds the planned turn takes, not counting settling
+     */
+    public double getDuration() {
+        return PROFILE.getDuration();
+    }
+
+    /**
+     * @return how far the robot was behind the profile at the last calculation, in degrees
+     */
+    public double getError() {
+        return error;
+    }
+}
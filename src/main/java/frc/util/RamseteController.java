@@ -0,0 +1,105 @@
+package frc.util;
+
+/**
+ * Nonlinear path tracking controller for differential drives.
+ * <p>
+ * Given the robot's pose and a reference pose with its velocities, this computes
+ * corrected left and right wheel velocities that drive the tracking error to zero.
+ * See "Control of Wheeled Mobile Robots: An Experimental Overview" (Samson et al.)
+ * for the derivation.
+ * <p>
+ * Results are stored in this object instead of being returned so that
+ * the controller can run in a fast loop without allocating.
+ */
+public class RamseteController {
+    private final double B, ZETA, MIN_GAIN, HALF_TRACK_WIDTH;
+
+    private double leftVelocity, rightVelocity;
+
+    /**
+     * Creates the controller with the given tuning values.
+     *
+     * @param b          aggressiveness of convergence (larger is more aggressive), must be &gt; 0
+     * @param zeta       damping ratio, between 0 and 1
+     * @param trackWidth distance between the left and right wheels, in feet
+     */
+    public RamseteController(double b, double zeta, double trackWidth) {
+        this(b, zeta, 0, trackWidth);
+    }
+
+    /**
+     * Creates the controller with the given tuning values and a floor under its feedback gain.
+     * <p>
+     * The gain scales with the reference velocities, so without a floor it drops to zero
+     * where the reference stops, such as at the end of a path, and any error left there
+     * is never corrected.
+     *
+     * @param b          aggressiveness of convergence (larger is more aggressive), must be &gt; 0
+     * @param zeta       damping ratio, between 0 and 1
+     * @param minGain    smallest gain applied to the position and heading errors, in 1/s
+     * @param trackWidth distance between the left and right wheels, in feet
+     */
+    public RamseteController(double b, double zeta, double minGain, double trackWidth) {
+        B = b;
+        ZETA = zeta;
+        MIN_GAIN = minGain;
+        HALF_TRACK_WIDTH = trackWidth / 2;
+    }
+
+    /**
+     * Computes the wheel velocities needed to track the reference.
+     *
+     * @param x        current x position, in feet
+     * @param y        current y position, in feet
+     * @param heading  current heading, in radians
+     * @param refX     reference x position, in feet
+     * @param refY     reference y position, in feet
+     * @param refHeading reference heading, in radians
+     * @param refVel   reference linear velocity, in feet per second
+     * @param refOmega reference angular velocity, in radians per second
+     */
+    public void calculate(double x, double y, double heading,
+                          double refX, double refY, double refHeading,
+                          double refVel, double refOmega) {
+        double
+            cos = Math.cos(heading),
+            sin = Math.sin(heading),
+            dx = refX - x,
+            dy = refY - y;
+
+        // Error in the robot's frame
+        double
+            errX = cos * dx + sin * dy,
+            errY = -sin * dx + cos * dy,
+            errHeading = MercMath.wrapRadians(refHeading - heading);
+
+        double k = Math.max(2 * ZETA * Math.sqrt(refOmega * refOmega + B * refVel * refVel), MIN_GAIN);
+
+        double v = refVel * Math.cos(errHeading) + k * errX;
+        double omega = refOmega + k * errHeading + B * refVel * sinc(errHeading) * errY;
+
+        leftVelocity = v - omega * HALF_TRACK_WIDTH;
+        rightVelocity = v + omega * HALF_TRACK_WIDTH;
+    }
+
+    /**
+     * @return the last computed left wheel velocity, in feet per second
+     */
+    public double getLeftVelocity() {
+        return leftVelocity;
+    }
+
+    /**
+     * @return the last computed right wheel velocity, in feet per second
+     */
+    public double getRightVelocity() {
+        return rightVelocity;
+    }
+
+    private static double sinc(double x) {
+        if (Math.abs(x) < 1e-9)
+            return 1.0 - x * x / 6.0;
+
+        return Math.sin(x) / x;
+    }
+}
@@ -0,0 +1,135 @@
+package frc.util;
+
+/**
+ * Kalman filter estimating the range to an object and how fast it is closing,
+ * from any number of range sensors with their own noise.
+ * <p>
+ * The range is modeled as moving at a constant rate disturbed by random acceleration.
+ * Call {@link #predict(double)} once per loop, then {@link #update(double, double)} for each
+ * sensor that has a reading. Readings far outside what the filter expects are rejected,
+ * unless they keep coming, in which case the filter restarts from them.
+ */
+public class RangeKalmanFilter {
+    private static final double GATE = 16;          // squared standard deviations a reading may be off by
+    private static final int MAX_REJECTIONS = 3;    // rejected readings in a row before restarting
+
+    private final double ACCELERATION_VARIANCE;
+
+    // State and its covariance; the covariance is symmetric, so only three entries are kept
+    private double range, rate;
+    private double p00, p01, p11;
+    private boolean initialized;
+    private int rejections;
+
+    /**
+     * @param accelerationNoise standard deviation of the unmodeled acceleration, in range units per second squared
+     */
+    public RangeKalmanFilter(double accelerationNoise) {
+        ACCELERATION_VARIANCE = accelerationNoise * accelerationNoise;
+    }
+
+    /**
+     * Moves the estimate forward in time.
+     *
+     * @param dt seconds since the last prediction
+     */
+    public void predict(double dt) {
+        if (!initialized || dt <= 0)
+            return;
+
+        double dt2 = dt * dt;
+        range += rate * dt;
+
+        p00 += 2 * dt * p01 + dt2 * p11 + ACCELERATION_VARIANCE * dt2 * dt2 / 4;
+        p01 += dt * p11 + ACCELERATION_VARIANCE * dt2 * dt / 2;
+        p11 += ACCELERATION_VARIANCE * dt2;
+    }
+
+    /**
+     * Corrects the estimate with a reading.
+     *
+     * @param measurement the range a sensor read
+     * @param noise       standard deviation of that sensor's readings
+     * @return whether the reading was used
+     */
+    public boolean update(double measurement, double noise) {
+        double variance = noise * noise;
+
+        if (!initialized) {
+            reset(measurement, variance);
+            return true;
+        }
+
+        double innovation = measurement - range;
+        double s = p00 + variance;
+
+        if (innovation * innovation > GATE * s) {
+            if (++rejections >= MAX_REJECTIONS)
+                reset(measurement, variance);
+            return false;
+        }
+        rejections = 0;
+
+        double k0 = p00 / s, k1 = p01 / s;
+        range += k0 * innovation;
+        rate += k1 * innovation;
+
+        p11 -= k1 * p01;
+        p01 -= k0 * p01;
+        p00 -= k0 * p00;
+        return true;
+    }
+
+    private void reset(double measurement, double variance) {
+        range = measurement;
+        rate = 0;
+        p00 = variance;
+        p01 = 0;
+        p11 = 100 * variance;
+        rejections = 0;
+        initialized = true;
+    }
+
+    /**
+     * Forgets everything; the next reading restarts the filter.
+     */
+    public void reset() {
+        initialized = false;
+    }
+
+    /**
+     * @return whether any reading has been taken
+     */
+    public boolean isInitialized() {
+        return initialized;
+    }
+
+    /**
+     * @return estimated range, or NaN before the first reading
+     */
+    public double getRange() {
+        return initialized ? range : Double.NaN;
+    }
+
+    /**
+     * @param lookahead seconds into the future
+     * @return range expected after {@code lookahead} seconds at the current rate
+     */
+    public double getRange(double lookahead) {
+        return getRange() + rate * lookahead;
+    }
+
+    /**
+     * @return rate the range is changing at, in range units per second; negative when closing
+     */
+    public double getRate() {
+        return initialized ? rate : 0;
+    }
+
+    /**
+     * @return standard deviation of the range estimate
+     */
+    public double getRangeDeviation() {
+        return initialized ? Math.sqrt(p00) : Double.POSITIVE_INFINITY;
+    }
+}
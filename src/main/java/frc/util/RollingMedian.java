@@ -0,0 +1,237 @@
+package frc.util;
+
+/**
+ * Median of the last few samples of a signal, maintained in O(log n) per sample.
+ * <p>
+ * Samples live in a ring buffer. The lower half of the window is kept in a max-heap and the
+ * upper half in a min-heap, both holding ring slots rather than values, so the oldest sample
+ * can be replaced in place and the heaps repaired without searching or allocating.
+ */
+public class RollingMedian {
+    private final int WINDOW;
+    private final double[] VALUES;
+
+    // Heaps of ring slots; low is a max-heap of the smaller half, high a min-heap of the larger half
+    private final int[] LOW, HIGH;
+    private int lowSize, highSize;
+
+    // Where each slot is: which heap, and its index in that heap
+    private final boolean[] IN_LOW;
+    private final int[] HEAP_INDEX;
+
+    // Scratch space for the median absolute deviation
+    private final double[] SCRATCH;
+
+    private int next, size;
+
+    /**
+     * @param window number of samples the median is taken over
+     */
+    public RollingMedian(int window) {
+        if (window < 1)
+            throw new IllegalArgumentException("Window must hold at least one sample");
+
+        WINDOW = window;
+        VALUES = new double[window];
+        LOW = new int[window];
+        HIGH = new int[window];
+        IN_LOW = new boolean[window];
+        HEAP_INDEX = new int[window];
+        SCRATCH = new double[window];
+    }
+
+    /**
+     * Adds a sample, replacing the oldest one once the window is full.
+     *
+     * @param value the new sample
+     */
+    public void add(double value) {
+        int slot = next;
+        next = (next + 1) % WINDOW;
+        VALUES[slot] = value;
+
+        if (size < WINDOW) {
+            size++;
+            push(true, slot);
+            if (highSize > 0 && VALUES[LOW[0]] > VALUES[HIGH[0]])
+                swapTops();
+
+            // Keep the low half the same size as the high half, or one larger
+            if (lowSize > highSize + 1)
+                push(false, pop(true));
+            else if (highSize > lowSize)
+                push(true, pop(false));
+        } else {
+            // The oldest sample was in this slot; repair whichever heap holds it
+            boolean low = IN_LOW[slot];
+            int i = siftUp(low, HEAP_INDEX[slot]);
+            siftDown(low, i);
+
+            if (highSize > 0 && VALUES[LOW[0]] > VALUES[HIGH[0]])
+                swapTops();
+        }
+    }
+
+    /**
+     * @return median of the samples in the window, or NaN if there are none
+     */
+    public double getMedian() {
+        if (size == 0)
+            return Double.NaN;
+        if (lowSize > highSize)
+            return VALUES[LOW[0]];
+        return (VALUES[LOW[0]] + VALUES[HIGH[0]]) / 2;
+    }
+
+    /**
+     * Gets the median of how far each sample is from the median, a spread measure that
+     * outliers barely move. This is O(n), unlike the median itself.
+     *
+     * @return median absolute deviation, or NaN if there are no samples
+     */
+    public double getMedianAbsoluteDeviation() {
+        if (size == 0)
+            return Double.NaN;
+
+        double median = getMedian();
+        for (int i = 0; i < size; i++)
+            SCRATCH[i] = Math.abs(VALUES[i] - median);
+
+        double upper = select(SCRATCH, size, size / 2);
+        if (size % 2 == 1)
+            return upper;
+
+        // Select leaves everything below the upper middle in front of it
+        double lower = SCRATCH[0];
+        for (int i = 1; i < size / 2; i++)
+            lower = Math.max(lower, SCRATCH[i]);
+        return (lower + upper) / 2;
+    }
+
+    /**
+     * @return number of samples in the window
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * @return whether the window has been filled
+     */
+    public boolean isFull() {
+        return size == WINDOW;
+    }
+
+    public void reset() {
+        size = next = lowSize = highSize = 0;
+    }
+
+    // Heap helpers; a "low" heap orders largest first, the "high" heap smallest first
+
+    private boolean before(boolean low, int slotA, int slotB) {
+        return low ? VALUES[slotA] > VALUES[slotB] : VALUES[slotA] < VALUES[slotB];
+    }
+
+    private void set(boolean low, int i, int slot) {
+        (low ? LOW : HIGH)[i] = slot;
+        IN_LOW[slot] = low;
+        HEAP_INDEX[slot] = i;
+    }
+
+    private void push(boolean low, int slot) {
+        int i = low ? lowSize++ : highSize++;
+        set(low, i, slot);
+        siftUp(low, i);
+    }
+
+    private int pop(boolean low) {
+        int[] heap = low ? LOW : HIGH;
+        int top = heap[0];
+        int last = low ? --lowSize : --highSize;
+
+        if (last > 0) {
+            set(low, 0, heap[last]);
+            siftDown(low, 0);
+        }
+        return top;
+    }
+
+    private void swapTops() {
+        int lowTop = LOW[0], highTop = HIGH[0];
+        set(true, 0, highTop);
+        set(false, 0, lowTop);
+        siftDown(true, 0);
+        siftDown(false, 0);
+    }
+
+    private int siftUp(boolean low, int i) {
+        int[] heap = low ? LOW : HIGH;
+        int slot = heap[i];
+
+        while (i > 0) {
+            int parent = (i - 1) / 2;
+            if (!before(low, slot, heap[parent]))
+                break;
+            set(low, i, heap[parent]);
+            i = parent;
+        }
+
+        set(low, i, slot);
+        return i;
+    }
+
+    private void siftDown(boolean low, int i) {
+        int[] heap = low ? LOW : HIGH;
+        int heapSize = low ? lowSize : highSize;
+        int slot = heap[i];
+
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= heapSize)
+                break;
+            if (child + 1 < heapSize && before(low, heap[child + 1], heap[child]))
+                child++;
+            if (!before(low, heap[child], slot))
+                break;
+            set(low, i, heap[child]);
+            i = child;
+        }
+
+        set(low, i, slot);
+    }
+
+    /**
+     * Quickselect; partially reorders the first {@code n} values so the k-th smallest is at {@code k}.
+     */
+    private static double select(double[] values, int n, int k) {
+        int left = 0, right = n - 1;
+
+        while (left < right) {
+            double pivot = values[(left + right) >>> 1];
+            int i = left, j = right;
+
+            while (i <= j) {
+                while (values[i] < pivot)
+                    i++;
+                while (values[j] > pivot)
+                    j--;
+                if (i <= j) {
+                    double temp = values[i];
+                    values[i] = values[j];
+                    values[j] = temp;
+                    i++;
+                    j--;
+                }
+            }
+
+            if (k <= j)
+                right = j;
+            else if (k >= i)
+                left = i;
+            else
+                break;
+        }
+
+        return values[k];
+    }
+}
@@ -11,6 +11,9 @@ import frc.robot.subsystems.DriveTrain;
 
 /**
  * Helper class to interface with the Shuffleboard Dashboard.
+ * <p>
+ * Values that subsystems record as telemetry reach the dashboard through
+ * {@link frc.util.telemetry.TelemetryDashboard} instead.
  */
 public class ShuffleDash {
     private NetworkTableInstance ntInstance;
@@ -28,19 +31,19 @@ public class ShuffleDash {
         SmartDashboard.putNumber("Right Enc in ticks", Robot.driveTrain.getRight().getSelectedSensorPosition(DriveTrain.PRIMARY_PID_LOOP));
         /*SmartDashboard.putNumber("Left Enc in feet", Robot.driveTrain.getLeftEncPositionInFeet());
         SmartDashboard.putNumber("Right Enc in feet", Robot.driveTrain.getRightEncPositionInFeet());*/
-        SmartDashboard.putNumber("Elevator Enc in ticks", Robot.elevator.getCurrentHeight());
         SmartDashboard.putBoolean("Limit Switch Closed", Robot.elevator.isLimitSwitchClosed());
-        SmartDashboard.putBoolean("Cube Acquired", Robot.claw.hasCube());
-        SmartDashboard.putBoolean("Cube Acquirable", Robot.claw.getPixyCam().inRange());
+        SmartDashboard.putNumber("Elevator Time To Setpoint", Robot.elevator.getLastTimeToSetpoint());
+        SmartDashboard.putBoolean("Cube Acquirable", Robot.claw.isCubeInRange());
         SmartDashboard.putString("DriveTrain", Robot.driveTrain.getCurrentCommandName());
-        SmartDashboard.putNumber("Left Wheel RPM", MercMath.ticksPerTenthToRevsPerMinute(Robot.driveTrain.getLeft().getSelectedSensorVelocity(DriveTrain.PRIMARY_PID_LOOP))); //ticks per tenth of a second
-        SmartDashboard.putNumber("Right Wheel RPM", MercMath.ticksPerTenthToRevsPerMinute(Robot.driveTrain.getRight().getSelectedSensorVelocity(DriveTrain.PRIMARY_PID_LOOP)));
+        SmartDashboard.putNumber("Left Wheel RPM", DriveTrain.KINEMATICS.ticksPerTenthToRevsPerMinute(Robot.driveTrain.getLeft().getSelectedSensorVelocity(DriveTrain.PRIMARY_PID_LOOP))); //ticks per tenth of a second
+        SmartDashboard.putNumber("Right Wheel RPM", DriveTrain.KINEMATICS.ticksPerTenthToRevsPerMinute(Robot.driveTrain.getRight().getSelectedSensorVelocity(DriveTrain.PRIMARY_PID_LOOP)));
         //SmartDashboard.putNumber("LIDAR Raw Distance (in.)", MercMath.roundFloat(Robot.claw.getLidar().getRawDistance(), 10));
         SmartDashboard.putNumber("LIDAR Distance (in.)", MercMath.roundFloat(Robot.claw.getLidar().getDistance(), 10));
         //SmartDashboard.putNumber("LIDAR Period", MercMath.roundFloat(Robot.claw.getLidar().getDistance(), 10));
         SmartDashboard.putNumber("Gyro Angle", Robot.driveTrain.getGyro().getAngle());
+        SmartDashboard.putString("Gyro", Robot.driveTrain.getGyro().getActiveName());
         SmartDashboard.putNumber("Ultrasonic Distance", Robot.claw.getUltrasonic().getRange());
-        SmartDashboard.putNumber("Pixy Displacement", Robot.claw.getPixyCam().pidGet());
+        SmartDashboard.putNumber("Pixy Displacement", Robot.claw.getCubeDisplacement());
         SmartDashboard.putBoolean("Auton Initialized", ntInstance.getTable("AutonConfiguration").containsKey("startingPosition"));
         //SmartDashboard.putString("LED Output",Robot.claw.getCurrentLEDOutput()[0]+","+Robot.claw.getCurrentLEDOutput()[1]+","+Robot.claw.getCurrentLEDOutput()[2]);
     }
@@ -19,6 +19,23 @@ public class TalonDrive {
 	private final DelayableLogger SLOW_LOG = new DelayableLogger(LOG, 10, TimeUnit.SECONDS);
 	private final WPI_TalonSRX TALON_LEFT, TALON_RIGHT;
 	private double maxOutput = 1.0;
+	private DriveLimiter limiter;
+	private DriveMode driveMode = DriveMode.PERCENT_OUTPUT;
+	private double maxVelocity;
+
+	/**
+	 * How outputs are sent to the Talons.
+	 */
+	public enum DriveMode {
+		/**
+		 * Outputs are a percent of the voltage, so speed changes with the battery and load.
+		 */
+		PERCENT_OUTPUT,
+		/**
+		 * Outputs are a percent of the max velocity, which the Talons close the loop on.
+		 */
+		VELOCITY
+	}
 	
 	/**
 	 * Creates a drive train, assuming there is one Talon for the left side
@@ -42,6 +59,40 @@ public class TalonDrive {
 		maxOutput = max;
 	}
 
+	/**
+	 * Sets how outputs are sent to the Talons. Velocity mode needs a max velocity,
+	 * and the Talons' velocity gains in the selected slot.
+	 *
+	 * @param mode Drive mode
+	 * @see TalonDrive#setMaxVelocity(double)
+	 */
+	public void setDriveMode(DriveMode mode) {
+		driveMode = mode;
+	}
+
+	public DriveMode getDriveMode() {
+		return driveMode;
+	}
+
+	/**
+	 * Sets the velocity that a full output drives at in velocity mode.
+	 *
+	 * @param ticksPerTenth Max velocity, in encoder ticks per 100 ms
+	 */
+	public void setMaxVelocity(double ticksPerTenth) {
+		maxVelocity = ticksPerTenth;
+	}
+
+	/**
+	 * Sets a limiter to pass the outputs through before they reach the Talons.
+	 * The limiter only slows them down while it is enabled.
+	 *
+	 * @param limiter Drive limiter, or null for none
+	 */
+	public void setLimiter(DriveLimiter limiter) {
+		this.limiter = limiter;
+	}
+
 	/**
 	 * I'm just trying to get the code to compile sorry idk
 	 * @see TalonDrive#setMaxOutput(double)
@@ -98,10 +149,7 @@ public class TalonDrive {
 		leftPercent = MercMath.clamp(leftPercent, -1.0, 1.0);
 		rightPercent = MercMath.clamp(rightPercent, -1.0, 1.0);
 		
-		// Apply speeds to motors.
-		// This assumes that the Talons have been setClawState properly.
-		TALON_LEFT.set(ControlMode.PercentOutput, leftPercent * maxOutput);
-		TALON_RIGHT.set(ControlMode.PercentOutput, rightPercent * maxOutput);
+		setOutputs(leftPercent, rightPercent);
 	}
 	
 	/**
@@ -113,10 +161,34 @@ public class TalonDrive {
 	 * @param rightVal Value for right forwards/backwards
 	 */
 	public void tankDrive(double leftVal, double rightVal) {
+		setOutputs(leftVal, rightVal);
+	}
+
+	/**
+	 * Scales outputs by the max output, limits them if there is a limiter, and
+	 * sends them to the Talons in the current drive mode.
+	 *
+	 * @param left  Left output
+	 * @param right Right output
+	 */
+	private void setOutputs(double left, double right) {
+		left *= maxOutput;
+		right *= maxOutput;
+
+		if (limiter != null) {
+			limiter.apply(left, right);
+			left = limiter.getLeft();
+			right = limiter.getRight();
+		}
 
 		// Apply speeds to motors.
 		// This assumes that the Talons have been setClawState properly.
-		TALON_LEFT.set(ControlMode.PercentOutput, leftVal * maxOutput);
-		TALON_RIGHT.set(ControlMode.PercentOutput, rightVal * maxOutput);
+		if (driveMode == DriveMode.VELOCITY) {
+			TALON_LEFT.set(ControlMode.Velocity, left * maxVelocity);
+			TALON_RIGHT.set(ControlMode.Velocity, right * maxVelocity);
+		} else {
+			TALON_LEFT.set(ControlMode.PercentOutput, left);
+			TALON_RIGHT.set(ControlMode.PercentOutput, right);
+		}
 	}
 }
\ No newline at end of file
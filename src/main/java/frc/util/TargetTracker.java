@@ -0,0 +1,271 @@
+package frc.util;
+
+/**
+ * Follows vision targets from frame to frame so that a command can lock onto one of them.
+ * <p>
+ * Each frame's detections are matched to existing tracks by nearest neighbor, within a gate
+ * around where each track is predicted to be. Matched tracks are smoothed with an alpha-beta
+ * filter, which also estimates their velocity in pixels per second. Unmatched detections start
+ * new tracks, and tracks that go unmatched for too many frames are dropped.
+ * <p>
+ * The primary target is the largest confirmed track, and it stays primary for as long as it
+ * is tracked, even if another target becomes larger. This keeps the target from jumping
+ * between cubes from one frame to the next.
+ * <p>
+ * All state is kept in preallocated arrays, so updating does not allocate.
+ */
+public class TargetTracker {
+    private static final int MAX_TRACKS = 8, MAX_DETECTIONS = 32;
+    private static final double
+        ALPHA = 0.5,    // how much of the position error to correct each frame
+        BETA = 0.2;     // how much of the position error to attribute to velocity
+
+    private final double GATE;
+    private final int MIN_HITS, MAX_MISSES;
+
+    // Tracks, stored as parallel arrays
+    private final int[] id = new int[MAX_TRACKS], hits = new int[MAX_TRACKS], misses = new int[MAX_TRACKS];
+    private final double[]
+        x = new double[MAX_TRACKS],
+        y = new double[MAX_TRACKS],
+        vx = new double[MAX_TRACKS],
+        vy = new double[MAX_TRACKS],
+        width = new double[MAX_TRACKS],
+        height = new double[MAX_TRACKS];
+    private final boolean[] active = new boolean[MAX_TRACKS], matched = new boolean[MAX_TRACKS];
+
+    // Scratch space for matching detections
+    private final boolean[] used = new boolean[MAX_DETECTIONS];
+
+    private int nextId = 1, primary = -1;
+    private double lastTime = Double.NaN;
+
+    /**
+     * Creates a tracker with sensible defaults for the PixyCam.
+     */
+    public TargetTracker() {
+        this(40, 2, 5);
+    }
+
+    /**
+     * Creates a tracker.
+     *
+     * @param gate      how far a detection may be from a track's predicted position to match it, in pixels
+     * @param minHits   frames a track must be seen before it can become the primary target
+     * @param maxMisses frames a track may go unseen before it is dropped
+     */
+    public TargetTracker(double gate, int minHits, int maxMisses) {
+        GATE = gate;
+        MIN_HITS = minHits;
+        MAX_MISSES = maxMisses;
+    }
+
+    /**
+     * Updates the tracks with one frame of detections.
+     *
+     * @param detX      center x of each detection, in pixels
+     * @param detY      center y of each detection, in pixels
+     * @param detWidth  width of each detection, in pixels
+     * @param detHeight height of each detection, in pixels
+     * @param count     number of detections in the arrays; only the first 32 are used
+     * @param timestamp time the frame was captured, in seconds
+     */
+    public void update(int[] detX, int[] detY, int[] detWidth, int[] detHeight, int count, double timestamp) {
+        double dt = Double.isNaN(lastTime) ? 0 : Math.max(0, timestamp - lastTime);
+        lastTime = timestamp;
+
+        count = Math.min(count, MAX_DETECTIONS);
+
+        for (int t = 0; t < MAX_TRACKS; t++) {
+            matched[t] = false;
+
+            // Predict where each track should be now
+            if (active[t]) {
+                x[t] += vx[t] * dt;
+                y[t] += vy[t] * dt;
+            }
+        }
+        for (int d = 0; d < count; d++)
+            used[d] = false;
+
+        // Greedily match the closest track/detection pairs within the gate
+        while (true) {
+            int bestTrack = -1, bestDet = -1;
+            double bestDist = GATE * GATE;
+
+            for (int t = 0; t < MAX_TRACKS; t++) {
+                if (!active[t] || matched[t])
+                    continue;
+
+                for (int d = 0; d < count; d++) {
+                    if (used[d])
+                        continue;
+
+                    double dx = detX[d] - x[t], dy = detY[d] - y[t];
+                    double dist = dx * dx + dy * dy;
+                    if (dist <= bestDist) {
+                        bestDist = dist;
+                        bestTrack = t;
+                        bestDet = d;
+                    }
+                }
+            }
+
+            if (bestTrack < 0)
+                break;
+
+            correct(bestTrack, detX[bestDet], detY[bestDet], detWidth[bestDet], detHeight[bestDet], dt);
+            matched[bestTrack] = true;
+            used[bestDet] = true;
+        }
+
+        // Age out tracks that were not seen
+        for (int t = 0; t < MAX_TRACKS; t++) {
+            if (active[t] && !matched[t] && ++misses[t] > MAX_MISSES) {
+                active[t] = false;
+                if (primary == t)
+                    primary = -1;
+            }
+        }
+
+        // Start tracks for new detections
+        for (int d = 0; d < count; d++) {
+            if (!used[d])
+                start(detX[d], detY[d], detWidth[d], detHeight[d]);
+        }
+
+        selectPrimary();
+    }
+
+    /**
+     * Drops every track.
+     */
+    public void reset() {
+        for (int t = 0; t < MAX_TRACKS; t++)
+            active[t] = false;
+
+        primary = -1;
+        lastTime = Double.NaN;
+    }
+
+    /**
+     * @return whether there is a primary target
+     */
+    public boolean hasPrimary() {
+        return primary >= 0;
+    }
+
+    /**
+     * @return id of the primary target, unique for as long as the tracker runs; 0 if there is none
+     */
+    public int getPrimaryId() {
+        return primary >= 0 ? id[primary] : 0;
+    }
+
+    /**
+     * Gets the primary target's center x, predicted forward from the last frame.
+     *
+     * @param timestamp time to predict the position at, in seconds
+     * @return the predicted center x, in pixels
+     */
+    public double getPrimaryX(double timestamp) {
+        return x[primary] + vx[primary] * Math.max(0, timestamp - lastTime);
+    }
+
+    /**
+     * Gets the primary target's center y, predicted forward from the last frame.
+     *
+     * @param timestamp time to predict the position at, in seconds
+     * @return the predicted center y, in pixels
+     */
+    public double getPrimaryY(double timestamp) {
+        return y[primary] + vy[primary] * Math.max(0, timestamp - lastTime);
+    }
+
+    /**
+     * @return the primary target's horizontal velocity, in pixels per second
+     */
+    public double getPrimaryVelocityX() {
+        return vx[primary];
+    }
+
+    /**
+     * @return the primary target's vertical velocity, in pixels per second
+     */
+    public double getPrimaryVelocityY() {
+        return vy[primary];
+    }
+
+    /**
+     * @return the primary target's smoothed width, in pixels
+     */
+    public double getPrimaryWidth() {
+        return width[primary];
+    }
+
+    /**
+     * @return the primary target's smoothed height, in pixels
+     */
+    public double getPrimaryHeight() {
+        return height[primary];
+    }
+
+    private void correct(int t, int dx, int dy, int dw, int dh, double dt) {
+        double errX = dx - x[t], errY = dy - y[t];
+
+        x[t] += ALPHA * errX;
+        y[t] += ALPHA * errY;
+
+        if (dt > 0) {
+            vx[t] += BETA * errX / dt;
+            vy[t] += BETA * errY / dt;
+        }
+
+        width[t] += ALPHA * (dw - width[t]);
+        height[t] += ALPHA * (dh - height[t]);
+
+        hits[t]++;
+        misses[t] = 0;
+    }
+
+    private void start(int dx, int dy, int dw, int dh) {
+        int slot = -1;
+
+        for (int t = 0; t < MAX_TRACKS; t++) {
+            if (!active[t]) {
+                slot = t;
+                break;
+            }
+        }
+
+        // Every slot is taken; the detection is most likely noise
+        if (slot < 0)
+            return;
+
+        active[slot] = true;
+        id[slot] = nextId++;
+        x[slot] = dx;
+        y[slot] = dy;
+        vx[slot] = 0;
+        vy[slot] = 0;
+        width[slot] = dw;
+        height[slot] = dh;
+        hits[slot] = 1;
+        misses[slot] = 0;
+    }
+
+    private void selectPrimary() {
+        if (primary >= 0)
+            return;
+
+        double bestArea = -1;
+        for (int t = 0; t < MAX_TRACKS; t++) {
+            double area = width[t] * height[t];
+
+            if (active[t] && hits[t] >= MIN_HITS && misses[t] == 0 && area > bestArea) {
+                bestArea = area;
+                primary = t;
+            }
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package frc.util.config;
+
+import java.util.Properties;
+
+/**
+ * Class that allows user to interface with controls.properties
+ * config file with easy-to-access methods.
+ *
+ * Note that this class should NOT be modified; if settings need to be
+ * modified, edit the controls.properties file.
+ */
+public class ControlsSettings extends Config {
+    private static Properties instance;
+
+    public static void initialize() {
+        instance = getInstance();
+        loadProperties("controls.properties");
+    }
+
+    /**
+     * Gets which driver's input shaping to use
+     *
+     * @return name of the driver's profile
+     */
+    public static String getDriverProfile() {
+        return instance.getProperty("controls.driver", "default").trim();
+    }
+
+    /**
+     * Gets how a driver wants an axis shaped, falling back to the default profile
+     * and then to built-in values. Axes are {@code move} and {@code turn} for the
+     * joysticks and {@code gamepad} for the operator's gamepad.
+     *
+     * @param profile name of the driver's profile
+     * @param axis    name of the axis
+     * @return double array containing the deadband, expo and slew rate (per second, 0 for none)
+     */
+    public static double[] getInputShaping(String profile, String axis) {
+        String[] arr = parseArrayValue("controls." + profile + "." + axis, ",");
+        if (arr.length != 3)
+            arr = parseArrayValue("controls.default." + axis, ",");
+
+        double[] vals;
+        switch (axis) {
+            case "move": // DriveLimiter already limits how fast the drive train speeds up, so no slew by default
+            case "turn":
+                vals = new double[] {0.1, 0.5, 0};
+                break;
+            default:
+                vals = new double[] {0.2, 0, 0};
+        }
+
+        if (arr.length == 3) {
+            vals[0] = Double.parseDouble(arr[0]);
+            vals[1] = Double.parseDouble(arr[1]);
+            vals[2] = Double.parseDouble(arr[2]);
+        }
+
+        return vals;
+    }
+}
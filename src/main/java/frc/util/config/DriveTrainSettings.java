@@ -1,6 +1,8 @@
     
 package frc.util.config;
 
+import frc.util.TalonDrive;
+
 import java.util.Properties;
 
 /**
@@ -24,7 +26,8 @@ public class DriveTrainSettings extends Config {
         LEGACY
     }
 
-    private static Properties instance;
+    // Defaults until initialize() loads drivetrain.properties, so the settings can also be read off the robot
+    private static Properties instance = getInstance();
 
     public static void initialize() {
         instance = getInstance();
@@ -139,8 +142,21 @@ public class DriveTrainSettings extends Config {
      * @return double array containing PID values
      */
     public static double[] getPIDValues(String cmd) {
+        return getPIDValues(cmd, 0.005, 0, 0.000);
+    }
+
+    /**
+     * Gets the PID values for a command, with its own defaults
+     *
+     * @param cmd the command to get the PID values for
+     * @param p   default P
+     * @param i   default I
+     * @param d   default D
+     * @return double array containing PID values
+     */
+    public static double[] getPIDValues(String cmd, double p, double i, double d) {
         String[] arr = parseArrayValue(cmd + ".PID", ",");
-        double[] pid = {0.005, 0, 0.000};
+        double[] pid = {p, i, d};
 
         if (arr.length == 3) {
             pid[0] = Double.parseDouble(arr[0]);
@@ -150,4 +166,143 @@ public class DriveTrainSettings extends Config {
 
         return pid;
     }
+
+    /**
+     * Gets the limits of the heading profile for ProfiledRotate
+     *
+     * @return double array containing max velocity (deg/s), max acceleration (deg/s^2) and S-curve smoothing time (s)
+     */
+    public static double[] getRotationProfile() {
+        String[] arr = parseArrayValue("profiledRotate.profile", ",");
+        double[] vals = {300, 600, 0.1};
+
+        if (arr.length == 3) {
+            vals[0] = Double.parseDouble(arr[0]);
+            vals[1] = Double.parseDouble(arr[1]);
+            vals[2] = Double.parseDouble(arr[2]);
+        }
+
+        return vals;
+    }
+
+    /**
+     * Gets the feedforward gains for ProfiledRotate
+     * <p>
+     * The defaults are placeholders until the gains are fit on the robot,
+     * with the ProfiledRotate buttons on the right stick.
+     *
+     * @return double array containing the static, velocity (per deg/s) and acceleration (per deg/s^2) gains
+     */
+    public static double[] getRotationFeedForward() {
+        String[] arr = parseArrayValue("profiledRotate.feedForward", ",");
+        double[] vals = {0.06, 0.0011, 0.00015};
+
+        if (arr.length == 3) {
+            vals[0] = Double.parseDouble(arr[0]);
+            vals[1] = Double.parseDouble(arr[1]);
+            vals[2] = Double.parseDouble(arr[2]);
+        }
+
+        return vals;
+    }
+
+    /**
+     * Gets how close ProfiledRotate must end to its target
+     *
+     * @return double array containing the heading (deg) and turn rate (deg/s) tolerances
+     */
+    public static double[] getRotationTolerance() {
+        String[] arr = parseArrayValue("profiledRotate.tolerance", ",");
+        double[] vals = {1.5, 5};
+
+        if (arr.length == 2) {
+            vals[0] = Double.parseDouble(arr[0]);
+            vals[1] = Double.parseDouble(arr[1]);
+        }
+
+        return vals;
+    }
+
+    /**
+     * Gets how DriveWithJoysticks sends outputs to the drive train
+     *
+     * @return the drive mode, percent output unless set to velocity
+     */
+    public static TalonDrive.DriveMode getDriveMode() {
+        String val = instance.getProperty("driveWithJoysticks.mode", "percent_output").trim();
+
+        return TalonDrive.DriveMode.valueOf(val.toUpperCase());
+    }
+
+    /**
+     * Gets the voltage that the drive train's Talons scale their output to in velocity drive
+     *
+     * @return voltage that full output is compensated to
+     */
+    public static double getVoltageCompensation() {
+        String val = instance.getProperty("driveTrain.voltageCompensation", "11.0").trim();
+
+        return Double.parseDouble(val);
+    }
+
+    /**
+     * Gets how fast DriveWithJoysticks may change the drive output, to keep the robot from tipping
+     *
+     * @return double array containing the change in output per second allowed with the elevator down and all the way up
+     */
+    public static double[] getDriveAcceleration() {
+        String[] arr = parseArrayValue("driveWithJoysticks.acceleration", ",");
+        double[] vals = {4.0, 1.5};
+
+        if (arr.length == 2) {
+            vals[0] = Double.parseDouble(arr[0]);
+            vals[1] = Double.parseDouble(arr[1]);
+        }
+
+        return vals;
+    }
+
+    /**
+     * Gets the tuning values for the on-RIO path follower
+     *
+     * @return double array containing the b and zeta values, and the minimum feedback gain (1/s)
+     *         that holds the robot on the end of the path
+     */
+    public static double[] getRamseteValues() {
+        String[] arr = parseArrayValue("followPath.ramsete", ",");
+        double[] vals = {2.0, 0.7, 1.0};
+
+        if (arr.length == 2 || arr.length == 3) {
+            vals[0] = Double.parseDouble(arr[0]);
+            vals[1] = Double.parseDouble(arr[1]);
+        }
+        if (arr.length == 3)
+            vals[2] = Double.parseDouble(arr[2]);
+
+        return vals;
+    }
+
+    /**
+     * Gets whether auton paths may run in motion profile arc mode
+     * <p>
+     * Off by default, until the auxiliary heading gains have been tuned on the robot.
+     *
+     * @return true if auton may drive paths in arc mode
+     */
+    public static boolean isArcModeEnabled() {
+        String val = instance.getProperty("moveOnPath.arcMode", "false").trim();
+
+        return Boolean.parseBoolean(val);
+    }
+
+    /**
+     * Gets the CAN ID of the Pigeon IMU used for heading in motion profile arc mode
+     *
+     * @return CAN ID of the Pigeon, or -1 if there is none
+     */
+    public static int getPigeonID() {
+        String val = instance.getProperty("driveTrain.pigeonID", "-1").trim();
+
+        return Integer.parseInt(val);
+    }
 }
\ No newline at end of file
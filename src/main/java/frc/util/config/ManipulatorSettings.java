@@ -35,6 +35,25 @@ public class ManipulatorSettings extends Config {
         return pid;
     }
 
+    /**
+     * Gets the feedforward values for the elevator's Motion Magic moves
+     *
+     * @return double array containing kF, and the output needed to hold the elevator
+     *         up below and above the inner stage
+     */
+    public static double[] getElevatorFeedForward() {
+        String[] vals = parseArrayValue("elevator.feedForward", ",");
+        double[] ff = {0.15, 0.08, 0.12};
+
+        if (vals.length == 3) {
+            ff[0] = Double.parseDouble(vals[0]);
+            ff[1] = Double.parseDouble(vals[1]);
+            ff[2] = Double.parseDouble(vals[2]);
+        }
+
+        return ff;
+    }
+
     /**
      * Gets the PID values for the elevator while climbing
      *
@@ -1,5 +1,6 @@
 package frc.util.config;
 
+import frc.robot.sensors.GyroService;
 import frc.robot.sensors.LIDAR;
 
 import java.awt.*;
@@ -43,6 +44,129 @@ public class SensorsSettings extends Config {
         }
     }
 
+    /**
+     * Gets how many LIDAR samples the median smoother spans. 1 turns the smoother off.
+     *
+     * @return window size in samples
+     */
+    public static int getLidarMedianWindow() {
+        String val = instance.getProperty("lidar.filter.medianWindow", "5");
+
+        return Integer.parseInt(val);
+    }
+
+    /**
+     * Gets how many LIDAR samples the outlier test compares each reading against.
+     *
+     * @return window size in samples
+     */
+    public static int getLidarHampelWindow() {
+        String val = instance.getProperty("lidar.filter.hampelWindow", "9");
+
+        return Integer.parseInt(val);
+    }
+
+    /**
+     * Gets how many scaled median absolute deviations a LIDAR reading may be from the median
+     * before it counts as an outlier. 0 turns outlier rejection off.
+     *
+     * @return threshold in deviations
+     */
+    public static double getLidarHampelThreshold() {
+        String val = instance.getProperty("lidar.filter.hampelThreshold", "3.0");
+
+        return Double.parseDouble(val);
+    }
+
+    /**
+     * Gets how fast the filtered LIDAR distance may change. 0 turns rate limiting off.
+     *
+     * @return maximum rate in inches per second
+     */
+    public static double getLidarMaxRate() {
+        String val = instance.getProperty("lidar.filter.maxRateInPerSec", "150");
+
+        return Double.parseDouble(val);
+    }
+
+    /**
+     * Gets the standard deviation of LIDAR readings, for fusing them with the ultrasonic.
+     *
+     * @return noise in inches
+     */
+    public static double getLidarNoise() {
+        String val = instance.getProperty("fusion.lidarNoiseIn", "0.5");
+
+        return Double.parseDouble(val);
+    }
+
+    /**
+     * Gets the standard deviation of ultrasonic readings, for fusing them with the LIDAR.
+     *
+     * @return noise in inches
+     */
+    public static double getUltrasonicNoise() {
+        String val = instance.getProperty("fusion.ultrasonicNoiseIn", "1.5");
+
+        return Double.parseDouble(val);
+    }
+
+    /**
+     * Gets the shortest range the ultrasonic can measure; anything closer reads as this.
+     *
+     * @return minimum range in inches
+     */
+    public static double getUltrasonicMinRange() {
+        String val = instance.getProperty("fusion.ultrasonicMinRangeIn", "6.0");
+
+        return Double.parseDouble(val);
+    }
+
+    /**
+     * Gets how much farther the ultrasonic reads than the LIDAR for the same object,
+     * from where the two are mounted on the claw.
+     *
+     * @return offset in inches
+     */
+    public static double getUltrasonicOffset() {
+        String val = instance.getProperty("fusion.ultrasonicOffsetIn", "0.0");
+
+        return Double.parseDouble(val);
+    }
+
+    /**
+     * Gets how hard the range to a cube is expected to change speed, for the fused range estimate.
+     *
+     * @return standard deviation of acceleration in inches per second squared
+     */
+    public static double getRangeAccelerationNoise() {
+        String val = instance.getProperty("fusion.accelNoiseInPerSec2", "300");
+
+        return Double.parseDouble(val);
+    }
+
+    /**
+     * Gets the gyro the heading should come from when it is working.
+     *
+     * @return primary gyro type
+     */
+    public static GyroService.GyroType getPrimaryGyro() {
+        String val = instance.getProperty("gyro.primary", "adxrs450").trim();
+
+        return GyroService.GyroType.valueOf(val.toUpperCase());
+    }
+
+    /**
+     * Gets the gyro to fall back on if the primary stops updating.
+     *
+     * @return secondary gyro type, {@code NONE} if there is no second gyro
+     */
+    public static GyroService.GyroType getSecondaryGyro() {
+        String val = instance.getProperty("gyro.secondary", "none").trim();
+
+        return GyroService.GyroType.valueOf(val.toUpperCase());
+    }
+
     /**
      * Gets the resolution of the camera's feed
      *
@@ -77,6 +201,17 @@ public class SensorsSettings extends Config {
         return fov;
     }
 
+    /**
+     * Gets the oldest a vision frame may be before it is no longer used.
+     *
+     * @return maximum frame age in seconds
+     */
+    public static double getVisionMaxAge() {
+        String val = instance.getProperty("vision.maxAgeMS", "100");
+
+        return Double.parseDouble(val) / 1000;
+    }
+
     /**
      * Gets the latency between the RIO and the Pi's CameraServer.
      *
@@ -0,0 +1,130 @@
+package frc.util.telemetry;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * One robot loop's worth of sensor and driver inputs, as recorded by {@link InputRecorder}
+ * and read back by {@link InputReplay}.
+ * <p>
+ * Fields are public and reused from loop to loop, so recording does not allocate.
+ * Distances are in feet and ranges in inches. The gyro angle is in degrees clockwise, like the gyro;
+ * the pose heading is in degrees counter-clockwise, like the odometry.
+ * The pose and cube range are what the robot worked out from the other inputs, recorded
+ * so a replay can check that it works out the same thing.
+ */
+public class InputFrame {
+    public static final byte DISABLED = 0, AUTONOMOUS = 1, TELEOP = 2, TEST = 3;
+
+    /**
+     * Bytes in a frame, not counting the game data.
+     */
+    public static final int SIZE = 8 + 1 + 1 + 13 * 8 + 6 * 4;
+
+    /**
+     * Most bytes a frame can take, with the game data.
+     */
+    public static final int MAX_SIZE = SIZE + 2 + 64;
+
+    private static final int FLAG_PIXY_IN_RANGE = 1, FLAG_GAME_DATA = 2;
+
+    // Seconds since the robot started, and the robot's mode
+    public double time;
+    public byte mode;
+
+    // Drive train; wheel travel is forward positive
+    public double leftFeet, rightFeet, gyroAngle, gyroRate;
+
+    public double elevatorHeight;
+
+    // Claw sensors; the LIDAR reading is NaN when it was rejected
+    public double lidarReading, lidarConfidence, ultrasonicRange, pixyOffset;
+    public boolean pixyInRange;
+
+    // Raw joystick axes
+    public float leftX, leftY, rightX, rightY, gamepadX, gamepadY;
+
+    public String gameData = "";
+
+    // What the robot made of the inputs
+    public double poseX, poseY, poseHeading, cubeRange;
+
+    /**
+     * Writes the frame.
+     *
+     * @param buffer          buffer with at least {@link #MAX_SIZE} bytes remaining
+     * @param includeGameData whether to write the game data, which is only needed when it changes
+     */
+    public void write(ByteBuffer buffer, boolean includeGameData) {
+        buffer.putDouble(time);
+        buffer.put(mode);
+        buffer.put((byte) ((pixyInRange ? FLAG_PIXY_IN_RANGE : 0) | (includeGameData ? FLAG_GAME_DATA : 0)));
+
+        buffer.putDouble(leftFeet);
+        buffer.putDouble(rightFeet);
+        buffer.putDouble(gyroAngle);
+        buffer.putDouble(gyroRate);
+        buffer.putDouble(elevatorHeight);
+        buffer.putDouble(lidarReading);
+        buffer.putDouble(lidarConfidence);
+        buffer.putDouble(ultrasonicRange);
+        buffer.putDouble(pixyOffset);
+        buffer.putDouble(poseX);
+        buffer.putDouble(poseY);
+        buffer.putDouble(poseHeading);
+        buffer.putDouble(cubeRange);
+
+        buffer.putFloat(leftX);
+        buffer.putFloat(leftY);
+        buffer.putFloat(rightX);
+        buffer.putFloat(rightY);
+        buffer.putFloat(gamepadX);
+        buffer.putFloat(gamepadY);
+
+        if (includeGameData) {
+            int length = Math.min(gameData.length(), MAX_SIZE - SIZE - 2);
+            buffer.putShort((short) length);
+            for (int i = 0; i < length; i++)
+                buffer.put((byte) gameData.charAt(i));
+        }
+    }
+
+    /**
+     * Reads the next frame. Game data carries over from the last frame read unless the frame has new game data.
+     *
+     * @param buffer buffer positioned at the start of a frame
+     */
+    public void read(ByteBuffer buffer) {
+        time = buffer.getDouble();
+        mode = buffer.get();
+        byte flags = buffer.get();
+        pixyInRange = (flags & FLAG_PIXY_IN_RANGE) != 0;
+
+        leftFeet = buffer.getDouble();
+        rightFeet = buffer.getDouble();
+        gyroAngle = buffer.getDouble();
+        gyroRate = buffer.getDouble();
+        elevatorHeight = buffer.getDouble();
+        lidarReading = buffer.getDouble();
+        lidarConfidence = buffer.getDouble();
+        ultrasonicRange = buffer.getDouble();
+        pixyOffset = buffer.getDouble();
+        poseX = buffer.getDouble();
+        poseY = buffer.getDouble();
+        poseHeading = buffer.getDouble();
+        cubeRange = buffer.getDouble();
+
+        leftX = buffer.getFloat();
+        leftY = buffer.getFloat();
+        rightX = buffer.getFloat();
+        rightY = buffer.getFloat();
+        gamepadX = buffer.getFloat();
+        gamepadY = buffer.getFloat();
+
+        if ((flags & FLAG_GAME_DATA) != 0) {
+            byte[] bytes = new byte[buffer.getShort()];
+            buffer.get(bytes);
+            gameData = new String(bytes, StandardCharsets.US_ASCII);
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package frc.util.telemetry;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Records an {@link InputFrame} every loop to a binary file, for {@link InputReplay}.
+ * <p>
+ * Frames are packed into a few reusable buffers on the robot loop, and a background thread
+ * writes full buffers to the file, so the loop never waits on the disk and does not allocate.
+ * If the disk falls so far behind that every buffer is full, frames are dropped and counted
+ * rather than holding up the loop.
+ * <p>
+ * A file starts with {@link #MAGIC} and {@link #VERSION}, followed by frames back to back.
+ */
+public class InputRecorder {
+    private static final Logger log = LogManager.getLogger(InputRecorder.class);
+    private static final DateTimeFormatter fileTimestampFormat = DateTimeFormatter.ofPattern("MMdd_HHmmss");
+
+    public static final int MAGIC = 0x4D524946;  // "MRIF"
+    public static final short VERSION = 1;
+
+    private static final int BUFFER_SIZE = 1 << 16, BUFFERS = 4;
+    private static final ByteBuffer STOP = ByteBuffer.allocate(0);
+
+    private final File OUTPUT_DIR;
+    private final BlockingQueue<ByteBuffer> FULL = new ArrayBlockingQueue<>(BUFFERS + 1);
+    private final BlockingQueue<ByteBuffer> FREE = new ArrayBlockingQueue<>(BUFFERS);
+
+    private FileChannel channel;
+    private Thread writer;
+    private ByteBuffer current;
+    private String lastGameData;
+    private int frames, dropped;
+
+    /**
+     * @param outputDir directory to write recordings to
+     */
+    public InputRecorder(File outputDir) {
+        OUTPUT_DIR = outputDir;
+
+        for (int i = 0; i < BUFFERS; i++)
+            FREE.add(ByteBuffer.allocateDirect(BUFFER_SIZE));
+    }
+
+    /**
+     * Starts a new recording file, closing the current one if there is one.
+     *
+     * @param prefix start of the file name, such as the mode being recorded
+     */
+    public void start(String prefix) {
+        close();
+
+        String fileName = prefix + "-" + fileTimestampFormat.format(LocalDateTime.now()) + ".bin";
+        try {
+            channel = new FileOutputStream(new File(OUTPUT_DIR, fileName)).getChannel();
+        } catch (IOException e) {
+            log.error("Could not create input recording " + fileName, e);
+            return;
+        }
+
+        current = FREE.poll();
+        current.putInt(MAGIC);
+        current.putShort(VERSION);
+        lastGameData = null;
+        frames = dropped = 0;
+
+        writer = new Thread(this::write, "InputRecorder");
+        writer.setDaemon(true);
+        writer.start();
+
+        log.info("Recording inputs to " + fileName);
+    }
+
+    /**
+     * Adds a frame to the recording. Does nothing if there is no recording.
+     *
+     * @param frame inputs for this loop
+     */
+    public void record(InputFrame frame) {
+        if (channel == null)
+            return;
+
+        if (current == null || current.remaining() < InputFrame.MAX_SIZE) {
+            if (current != null)
+                FULL.add(current);
+            current = FREE.poll();
+        }
+
+        if (current == null) {
+            dropped++;
+            return;
+        }
+
+        // Game data only changes a couple of times a match, so it is only written when it does
+        boolean gameDataChanged = !frame.gameData.equals(lastGameData);
+        frame.write(current, gameDataChanged);
+        lastGameData = frame.gameData;
+        frames++;
+    }
+
+    /**
+     * Writes out everything recorded and closes the file.
+     */
+    public void close() {
+        if (channel == null)
+            return;
+
+        if (current != null)
+            FULL.add(current);
+        current = null;
+        FULL.add(STOP);
+
+        try {
+            writer.join();
+            channel.close();
+        } catch (InterruptedException | IOException e) {
+            log.error("Could not finish input recording", e);
+        }
+        channel = null;
+
+        log.info("Recorded " + frames + " frames of inputs, dropped " + dropped);
+    }
+
+    /**
+     * Writes full buffers to the file until told to stop.
+     */
+    private void write() {
+        try {
+            for (ByteBuffer buffer = FULL.take(); buffer != STOP; buffer = FULL.take()) {
+                buffer.flip();
+                try {
+                    while (buffer.hasRemaining())
+                        channel.write(buffer);
+                } catch (IOException e) {
+                    log.error("Could not write input recording", e);
+                }
+                buffer.clear();
+                FREE.add(buffer);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * @return frames dropped from the current recording because the disk fell behind
+     */
+    public int getDropped() {
+        return dropped;
+    }
+}
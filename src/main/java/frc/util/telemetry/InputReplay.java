@@ -0,0 +1,145 @@
+package frc.util.telemetry;
+
+import frc.robot.sensors.CubeRangeEstimator;
+import frc.util.DriveOdometry;
+import frc.util.InputShaper;
+import frc.util.config.ControlsSettings;
+import frc.util.config.SensorsSettings;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.BufferUnderflowException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Replays a recording from {@link InputRecorder} through the robot's estimation code,
+ * on a computer, as fast as it will run.
+ * <p>
+ * Each frame's inputs go through the same code the robot ran on them: {@link DriveOdometry}
+ * for the pose, {@link CubeRangeEstimator} for the range to the cube and {@link InputShaper}
+ * for the driver's sticks. The replayed pose and cube range are compared against what the
+ * robot recorded, so a replay shows whether a failure comes from that code or from what it was fed.
+ * <p>
+ * Subsystems and commands themselves can't be replayed this way: constructing them opens motor
+ * controllers and sensors through the HAL and CTRE's native libraries, which only exist on the
+ * roboRIO, and they read the time from the FPGA. Code that should be replayable needs to take
+ * its inputs and the time as arguments, like the classes above.
+ * <p>
+ * Usage: {@code java -cp <robot jar> frc.util.telemetry.InputReplay <recording.bin> [replayed.csv]}
+ */
+public class InputReplay {
+    private final DriveOdometry ODOMETRY = new DriveOdometry();
+    private final CubeRangeEstimator RANGE = new CubeRangeEstimator();
+    private final InputShaper MOVE, TURN;
+
+    private final PrintWriter CSV;
+
+    private double lastTime = Double.NaN;
+    private double maxPoseError, maxRangeError;
+    private int frames;
+
+    /**
+     * @param csv where to write the replayed values each frame, or null
+     */
+    public InputReplay(PrintWriter csv) {
+        String profile = ControlsSettings.getDriverProfile();
+        MOVE = new InputShaper(ControlsSettings.getInputShaping(profile, "move"));
+        TURN = new InputShaper(ControlsSettings.getInputShaping(profile, "turn"));
+
+        CSV = csv;
+        if (CSV != null)
+            CSV.println("Time,Mode,X,Y,Heading,RecordedX,RecordedY,CubeRange,RecordedCubeRange,Move,Turn,GameData");
+    }
+
+    /**
+     * Runs one frame through the replayed code.
+     *
+     * @param frame the recorded frame
+     */
+    public void step(InputFrame frame) {
+        double dt = Double.isNaN(lastTime) ? 0.02 : frame.time - lastTime;
+        lastTime = frame.time;
+
+        // Start from wherever the robot thought it was
+        if (frames == 0)
+            ODOMETRY.reset(frame.poseX, frame.poseY, Math.toRadians(frame.poseHeading));
+        ODOMETRY.update(frame.leftFeet, frame.rightFeet, -Math.toRadians(frame.gyroAngle));
+
+        RANGE.update(dt, frame.lidarReading, frame.lidarConfidence, frame.ultrasonicRange);
+
+        // As DriveWithJoysticks drives in arcade
+        double move = MOVE.shape(frame.leftY, dt);
+        double turn = TURN.shape(frame.rightX, dt);
+
+        double x = ODOMETRY.getX(), y = ODOMETRY.getY(), range = RANGE.getRange();
+        maxPoseError = Math.max(maxPoseError, Math.hypot(x - frame.poseX, y - frame.poseY));
+        if (!Double.isNaN(range) && !Double.isNaN(frame.cubeRange))
+            maxRangeError = Math.max(maxRangeError, Math.abs(range - frame.cubeRange));
+
+        if (CSV != null) {
+            CSV.printf("%.4f,%d,%.4f,%.4f,%.3f,%.4f,%.4f,%.3f,%.3f,%.3f,%.3f,%s%n",
+                frame.time, frame.mode, x, y, Math.toDegrees(ODOMETRY.getHeading()), frame.poseX, frame.poseY,
+                range, frame.cubeRange, move, turn, frame.gameData);
+        }
+
+        frames++;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Usage: InputReplay <recording.bin> [replayed.csv]");
+            System.exit(1);
+        }
+
+        // Settings fall back to their defaults when the robot's config files aren't here
+        SensorsSettings.initialize();
+        ControlsSettings.initialize();
+
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(Paths.get(args[0]), StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+
+        if (buffer.remaining() < 6 || buffer.getInt() != InputRecorder.MAGIC) {
+            System.err.println(args[0] + " is not an input recording");
+            System.exit(1);
+        }
+        short version = buffer.getShort();
+        if (version != InputRecorder.VERSION) {
+            System.err.println(args[0] + " is version " + version + "; only version " + InputRecorder.VERSION + " can be read");
+            System.exit(1);
+        }
+
+        PrintWriter csv = args.length > 1 ? new PrintWriter(args[1]) : null;
+        InputReplay replay = new InputReplay(csv);
+        InputFrame frame = new InputFrame();
+        double firstTime = Double.NaN;
+
+        long start = System.nanoTime();
+        while (buffer.remaining() >= InputFrame.SIZE) {
+            // Frames with game data are longer; a recording cut off by power loss can end partway through one
+            try {
+                frame.read(buffer);
+            } catch (BufferUnderflowException e) {
+                System.err.println(args[0] + " ends with a partial frame; replayed up to the last complete one");
+                break;
+            }
+            if (Double.isNaN(firstTime))
+                firstTime = frame.time;
+            replay.step(frame);
+        }
+        long elapsed = System.nanoTime() - start;
+
+        if (csv != null)
+            csv.close();
+
+        double recorded = replay.frames > 0 ? replay.lastTime - firstTime : 0;
+        System.out.printf("Replayed %d frames (%.1f s of robot time) in %.3f s, %.0fx real time%n",
+            replay.frames, recorded, elapsed / 1e9, recorded / (elapsed / 1e9));
+        System.out.printf("Max difference from the robot: pose %.4f ft, cube range %.3f in.%n",
+            replay.maxPoseError, replay.maxRangeError);
+    }
+}
@@ -0,0 +1,176 @@
+package frc.util.telemetry;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Summarizes a channel across any number of telemetry files, such as every match of an event.
+ * <p>
+ * Files are read in parallel, each through its own memory-mapped {@link TelemetryFileReader},
+ * and only the asked-for channel is decompressed. The summary gives the count, min, mean, max
+ * and percentiles of each file and of all of them together.
+ * <p>
+ * Usage: {@code java -cp <robot jar> frc.util.telemetry.TelemetryAnalyzer <channel> <file or directory>...
+ * [--from <s>] [--to <s>] [--percentiles <p>,<p>...]}
+ * <br>
+ * Directories are searched for {@code .tlm} files. Given {@code --list} in place of a channel,
+ * the channels of the first file are listed instead.
+ */
+public class TelemetryAnalyzer {
+    public static final String EXTENSION = ".tlm";
+
+    private static final double[] DEFAULT_PERCENTILES = {50, 90, 95, 99};
+
+    /**
+     * A channel's values from one file, or from all of them.
+     */
+    private static class Summary {
+        final String NAME;
+        final double[] VALUES;
+
+        Summary(String name, double[] values) {
+            NAME = name;
+            VALUES = values;
+            Arrays.parallelSort(VALUES);
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: TelemetryAnalyzer <channel | --list> <file or directory>... "
+                + "[--from <s>] [--to <s>] [--percentiles <p>,<p>...]");
+            System.exit(1);
+        }
+
+        String channel = args[0];
+        double from = Double.NEGATIVE_INFINITY, to = Double.POSITIVE_INFINITY;
+        double[] percentiles = DEFAULT_PERCENTILES;
+        List<Path> files = new ArrayList<>();
+
+        for (int i = 1; i < args.length; i++) {
+            switch (args[i]) {
+                case "--from":
+                    from = Double.parseDouble(args[++i]);
+                    break;
+                case "--to":
+                    to = Double.parseDouble(args[++i]);
+                    break;
+                case "--percentiles":
+                    percentiles = Arrays.stream(args[++i].split(",")).mapToDouble(Double::parseDouble).toArray();
+                    break;
+                default:
+                    addFiles(Paths.get(args[i]), files);
+            }
+        }
+
+        if (files.isEmpty()) {
+            System.err.println("No telemetry files found");
+            System.exit(1);
+        }
+
+        if (channel.equals("--list")) {
+            TelemetryFileReader reader = new TelemetryFileReader(files.get(0));
+            System.out.println(files.get(0) + ": " + reader.getRowCount() + " rows"
+                + (reader.isComplete() ? "" : ", recovered from a file that was never closed"));
+            for (String name : reader.getChannelNames())
+                System.out.println("  " + name);
+            return;
+        }
+
+        final double start = from, end = to;
+        long startTime = System.nanoTime();
+
+        List<Summary> summaries;
+        try {
+            summaries = files.parallelStream()
+                .map(file -> new Summary(file.getFileName().toString(), readChannel(file, channel, start, end)))
+                .collect(Collectors.toList());
+        } catch (UncheckedIOException e) {
+            System.err.println(e.getCause().getMessage());
+            System.exit(1);
+            return;
+        }
+
+        double[] all = summaries.stream().flatMapToDouble(s -> Arrays.stream(s.VALUES)).toArray();
+        Summary total = new Summary("all " + files.size() + " files", all);
+
+        long elapsed = System.nanoTime() - startTime;
+
+        StringBuilder header = new StringBuilder(String.format("%-32s %9s %10s %10s %10s", "file", "count", "min", "mean", "max"));
+        for (double p : percentiles)
+            header.append(String.format(" %10s", "p" + formatPercentile(p)));
+        System.out.println(channel);
+        System.out.println(header);
+
+        for (Summary summary : summaries)
+            print(summary, percentiles);
+        print(total, percentiles);
+
+        System.out.printf("Read %d values in %.1f ms%n", all.length, elapsed / 1e6);
+    }
+
+    private static void addFiles(Path path, List<Path> files) throws IOException {
+        if (Files.isDirectory(path)) {
+            try (Stream<Path> paths = Files.list(path)) {
+                paths.filter(p -> p.toString().endsWith(EXTENSION)).sorted().forEach(files::add);
+            }
+        } else {
+            files.add(path);
+        }
+    }
+
+    private static double[] readChannel(Path file, String channel, double from, double to) {
+        try {
+            TelemetryFileReader reader = new TelemetryFileReader(file);
+            if (!reader.isComplete())
+                System.err.println(file + " was never closed; reading the " + reader.getRowCount() + " rows recovered from it");
+            return reader.read(channel, from, to);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void print(Summary summary, double[] percentiles) {
+        double[] values = summary.VALUES;
+        StringBuilder line = new StringBuilder(String.format("%-32s %9d", summary.NAME, values.length));
+
+        if (values.length == 0) {
+            System.out.println(line);
+            return;
+        }
+
+        double sum = 0;
+        for (double value : values)
+            sum += value;
+
+        line.append(String.format(" %10.3f %10.3f %10.3f", values[0], sum / values.length, values[values.length - 1]));
+        for (double p : percentiles)
+            line.append(String.format(" %10.3f", percentile(values, p)));
+        System.out.println(line);
+    }
+
+    /**
+     * @param sorted values in ascending order
+     * @param p      percentile, from 0 to 100
+     * @return the percentile, interpolated between the nearest values
+     */
+    static double percentile(double[] sorted, double p) {
+        double index = p / 100 * (sorted.length - 1);
+        int below = (int) Math.floor(index);
+        int above = Math.min(below + 1, sorted.length - 1);
+
+        return sorted[below] + (sorted[above] - sorted[below]) * (index - below);
+    }
+
+    private static String formatPercentile(double p) {
+        return p == Math.rint(p) ? String.valueOf((int) p) : String.valueOf(p);
+    }
+}
@@ -0,0 +1,136 @@
+package frc.util.telemetry;
+
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A named stream of values from one part of the robot, registered with {@link TelemetryRegistry}.
+ * <p>
+ * Values go into a ring buffer that only one thread, normally the robot loop, may record into.
+ * Recording is a couple of array stores and an ordered write of the head, with no locks or
+ * allocation. {@link TelemetryConsumer}s read the ring from their own threads; one that falls
+ * more than {@link #CAPACITY} values behind loses the oldest values rather than holding up the loop.
+ */
+public final class TelemetryChannel {
+    /**
+     * Values each channel keeps: a little over five seconds of robot loops.
+     */
+    public static final int CAPACITY = 256;
+    private static final int MASK = CAPACITY - 1;
+
+    /**
+     * What a channel's values mean. Every value is stored as a double.
+     */
+    public enum Type {
+        NUMBER,
+        BOOLEAN     // 1 or 0
+    }
+
+    private final String NAME;
+    private final Type TYPE;
+    private final int ID;
+    private final TelemetryRegistry REGISTRY;
+
+    private final double[] TIMES = new double[CAPACITY], VALUES = new double[CAPACITY];
+    private final AtomicLong HEAD = new AtomicLong();   // Values ever recorded
+
+    TelemetryChannel(String name, Type type, int id, TelemetryRegistry registry) {
+        NAME = name;
+        TYPE = type;
+        ID = id;
+        REGISTRY = registry;
+    }
+
+    /**
+     * Records a value at the time the current robot loop started.
+     * Only call this from the robot loop.
+     *
+     * @param value value to record
+     */
+    public void record(double value) {
+        record(REGISTRY.getLoopTime(), value);
+    }
+
+    /**
+     * Records a value at the time the current robot loop started.
+     * Only call this from the robot loop.
+     *
+     * @param value value to record
+     */
+    public void record(boolean value) {
+        record(REGISTRY.getLoopTime(), value ? 1 : 0);
+    }
+
+    /**
+     * Records a value. Every value of a channel must be recorded from the same thread.
+     *
+     * @param time  time of the value, in seconds
+     * @param value value to record
+     */
+    public void record(double time, double value) {
+        long head = HEAD.get();
+        int slot = (int) head & MASK;
+
+        // Keep the slot's new contents from showing up before the head that says it may be reused
+        VarHandle.storeStoreFence();
+        TIMES[slot] = time;
+        VALUES[slot] = value;
+        HEAD.lazySet(head + 1);
+    }
+
+    /**
+     * Passes a consumer every value recorded since it last drained this channel.
+     *
+     * @param cursor   values of this channel the consumer has already seen
+     * @param consumer consumer to pass values to
+     * @return the consumer's new cursor
+     */
+    long drain(long cursor, TelemetryConsumer consumer) {
+        long head = HEAD.get();
+        if (cursor >= head)
+            return head;
+
+        // The slot after the head may be being written, so only CAPACITY - 1 values are safe to read
+        long first = Math.max(cursor, head - CAPACITY + 1);
+        consumer.lost(first - cursor);
+
+        for (long i = first; i < head; i++) {
+            int slot = (int) i & MASK;
+            double time = TIMES[slot], value = VALUES[slot];
+
+            // If the writer has lapped this slot since the head was read, the value is from a later loop
+            VarHandle.loadLoadFence();
+            if (i <= HEAD.get() - CAPACITY) {
+                consumer.lost(1);
+                continue;
+            }
+
+            consumer.accept(this, time, value);
+        }
+
+        return head;
+    }
+
+    /**
+     * @return the most recently recorded value, or NaN if there is none yet
+     */
+    public double getLatest() {
+        long head = HEAD.get();
+        return head == 0 ? Double.NaN : VALUES[(int) (head - 1) & MASK];
+    }
+
+    public String getName() {
+        return NAME;
+    }
+
+    public Type getType() {
+        return TYPE;
+    }
+
+    /**
+     * @return position of the channel in {@link TelemetryRegistry#getChannels()}
+     */
+    public int getId() {
+        return ID;
+    }
+}
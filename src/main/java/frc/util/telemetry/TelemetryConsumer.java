@@ -0,0 +1,65 @@
+package frc.util.telemetry;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Reads the values recorded into every {@link TelemetryChannel}, away from the robot loop.
+ * <p>
+ * Once added to a {@link TelemetryRegistry}, a consumer is drained periodically on the registry's
+ * background thread: it is passed each value recorded since the last drain, channel by channel
+ * and oldest first, and then flushed. Each consumer keeps its own place in every channel, so a
+ * slow consumer only loses its own values.
+ */
+public abstract class TelemetryConsumer {
+    private TelemetryRegistry registry;
+    private long[] cursors = new long[0];
+    private long lost;
+
+    void attach(TelemetryRegistry registry) {
+        this.registry = registry;
+    }
+
+    /**
+     * Passes this consumer every value recorded since the last drain, then flushes it.
+     */
+    public final synchronized void drain() {
+        if (registry == null)
+            return;
+
+        List<TelemetryChannel> channels = registry.getChannels();
+        if (cursors.length < channels.size())
+            cursors = Arrays.copyOf(cursors, channels.size());
+
+        for (TelemetryChannel channel : channels)
+            cursors[channel.getId()] = channel.drain(cursors[channel.getId()], this);
+
+        flush();
+    }
+
+    /**
+     * Takes one recorded value.
+     *
+     * @param channel channel the value was recorded into
+     * @param time    time of the value, in seconds
+     * @param value   the value
+     */
+    protected abstract void accept(TelemetryChannel channel, double time, double value);
+
+    /**
+     * Called at the end of each drain, once every channel's values have been accepted.
+     */
+    protected void flush() {
+    }
+
+    void lost(long values) {
+        lost += values;
+    }
+
+    /**
+     * @return values this consumer fell too far behind to read
+     */
+    public synchronized long getLost() {
+        return lost;
+    }
+}
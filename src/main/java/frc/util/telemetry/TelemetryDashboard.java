@@ -0,0 +1,51 @@
+package frc.util.telemetry;
+
+import edu.wpi.first.networktables.NetworkTableEntry;
+import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
+
+import java.util.Arrays;
+
+/**
+ * Shows the latest value of every telemetry channel on the SmartDashboard, under the channel's name.
+ * Values that have not changed since the last drain are not sent again.
+ */
+public class TelemetryDashboard extends TelemetryConsumer {
+    private NetworkTableEntry[] entries = new NetworkTableEntry[0];
+    private TelemetryChannel[] channels = new TelemetryChannel[0];
+    private double[] latest = new double[0], shown = new double[0];
+
+    @Override
+    protected void accept(TelemetryChannel channel, double time, double value) {
+        int id = channel.getId();
+        if (id >= entries.length) {
+            int size = id + 1;
+            entries = Arrays.copyOf(entries, size);
+            channels = Arrays.copyOf(channels, size);
+            latest = Arrays.copyOf(latest, size);
+            shown = Arrays.copyOf(shown, size);
+        }
+
+        if (entries[id] == null) {
+            entries[id] = SmartDashboard.getEntry(channel.getName());
+            channels[id] = channel;
+            shown[id] = Double.NaN;
+        }
+
+        latest[id] = value;
+    }
+
+    @Override
+    protected void flush() {
+        for (int id = 0; id < entries.length; id++) {
+            // Compare bits so a NaN that stays NaN isn't sent every time
+            if (entries[id] == null || Double.doubleToLongBits(latest[id]) == Double.doubleToLongBits(shown[id]))
+                continue;
+
+            if (channels[id].getType() == TelemetryChannel.Type.BOOLEAN)
+                entries[id].setBoolean(latest[id] != 0);
+            else
+                entries[id].setDouble(latest[id]);
+            shown[id] = latest[id];
+        }
+    }
+}
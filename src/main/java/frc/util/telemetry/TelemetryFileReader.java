@@ -0,0 +1,246 @@
+package frc.util.telemetry;
+
+import frc.util.telemetry.TelemetryFileWriter.ColumnType;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * Reads files written by {@link TelemetryFileWriter}.
+ * <p>
+ * The file is memory-mapped, and only the columns and chunks asked for are decompressed,
+ * straight out of the mapping. A reader is not thread-safe; use one per thread.
+ * <p>
+ * A file that was never closed, such as one cut off by a brownout, has no footer. Its chunks
+ * are found by walking them from the header instead, up to the first one that was cut short.
+ */
+public class TelemetryFileReader {
+    private final Path PATH;
+    private final MappedByteBuffer FILE;
+    private final String[] NAMES;
+    private final ColumnType[] TYPES;
+    private final Inflater INFLATER = new Inflater();
+
+    /**
+     * Where one chunk's columns are, and the rows and times it holds.
+     */
+    private static class Chunk {
+        final int ROWS;
+        final double FIRST_TIME, LAST_TIME;
+        final long[] OFFSET;    // time, then each channel
+        final int[] LENGTH;
+
+        Chunk(int rows, double firstTime, double lastTime, int columns) {
+            ROWS = rows;
+            FIRST_TIME = firstTime;
+            LAST_TIME = lastTime;
+            OFFSET = new long[columns];
+            LENGTH = new int[columns];
+        }
+    }
+
+    private final List<Chunk> CHUNKS = new ArrayList<>();
+    private final int totalRows;
+    private final boolean complete;
+
+    /**
+     * Maps a file and reads its header and index.
+     *
+     * @param path file to read
+     * @throws IOException if the file can't be read or isn't a telemetry file
+     */
+    public TelemetryFileReader(Path path) throws IOException {
+        PATH = path;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            FILE = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+
+        if (FILE.capacity() < 8 || FILE.getInt(0) != TelemetryFileWriter.MAGIC)
+            throw new IOException(path + " is not a telemetry file");
+
+        ByteBuffer header = FILE.duplicate();
+        header.position(4);
+        short version = header.getShort();
+        if (version != TelemetryFileWriter.VERSION)
+            throw new IOException(path + " is version " + version + "; only version " + TelemetryFileWriter.VERSION + " can be read");
+
+        int channels = header.getShort();
+        NAMES = new String[channels];
+        TYPES = new ColumnType[channels];
+        for (int i = 0; i < channels; i++) {
+            byte[] name = new byte[header.getShort()];
+            header.get(name);
+            NAMES[i] = new String(name, StandardCharsets.UTF_8);
+            TYPES[i] = ColumnType.fromOrdinal(header.get());
+        }
+
+        // Chunk index, from the footer if the file was closed, otherwise from the chunks themselves
+        complete = FILE.capacity() >= header.position() + 12 && FILE.getInt(FILE.capacity() - 4) == TelemetryFileWriter.MAGIC;
+        if (complete)
+            readFooter(channels + 1);
+        else
+            scanChunks(header.position(), channels + 1);
+
+        int rows = 0;
+        for (Chunk chunk : CHUNKS)
+            rows += chunk.ROWS;
+        totalRows = rows;
+    }
+
+    private void readFooter(int columns) {
+        ByteBuffer footer = FILE.duplicate();
+        footer.position((int) FILE.getLong(FILE.capacity() - 12));
+        int count = footer.getInt();
+
+        for (int c = 0; c < count; c++) {
+            Chunk chunk = new Chunk(footer.getInt(), footer.getDouble(), footer.getDouble(), columns);
+            for (int i = 0; i < columns; i++) {
+                chunk.OFFSET[i] = footer.getLong();
+                chunk.LENGTH[i] = footer.getInt();
+            }
+            CHUNKS.add(chunk);
+        }
+    }
+
+    /**
+     * Walks the chunks of a file that has no footer, stopping at the first one that isn't all there.
+     */
+    private void scanChunks(int position, int columns) {
+        int end = FILE.capacity();
+
+        while (position + TelemetryFileWriter.CHUNK_HEADER_SIZE <= end) {
+            int rows = FILE.getInt(position);
+            if (rows <= 0 || rows > TelemetryFileWriter.CHUNK_ROWS)
+                return;
+            Chunk chunk = new Chunk(rows, FILE.getDouble(position + 4), FILE.getDouble(position + 12), columns);
+            position += TelemetryFileWriter.CHUNK_HEADER_SIZE;
+
+            for (int i = 0; i < columns; i++) {
+                if (position + 4 > end)
+                    return;
+                chunk.LENGTH[i] = FILE.getInt(position);
+                chunk.OFFSET[i] = position + 4;
+                if (chunk.LENGTH[i] < 0 || chunk.LENGTH[i] > end - position - 4)
+                    return;
+                position += 4 + chunk.LENGTH[i];
+            }
+            CHUNKS.add(chunk);
+        }
+    }
+
+    /**
+     * @return channel names, in file order
+     */
+    public String[] getChannelNames() {
+        return NAMES.clone();
+    }
+
+    /**
+     * @return false if the file was never closed, and only the chunks written before it was cut off could be read
+     */
+    public boolean isComplete() {
+        return complete;
+    }
+
+    /**
+     * @return rows in the file
+     */
+    public int getRowCount() {
+        return totalRows;
+    }
+
+    /**
+     * @return times of every row, in seconds
+     */
+    public double[] readTime() throws IOException {
+        return readColumn(0, ColumnType.DOUBLE, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY);
+    }
+
+    /**
+     * @param channel channel name
+     * @return every value of the channel
+     * @throws IOException if there is no such channel or the file is damaged
+     */
+    public double[] read(String channel) throws IOException {
+        return read(channel, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY);
+    }
+
+    /**
+     * Reads a channel's values from the chunks that overlap a time range. Chunks entirely
+     * outside the range are skipped without being decompressed, so the result can include
+     * a few rows just outside the range.
+     *
+     * @param channel channel name
+     * @param from    start of the time range, in seconds
+     * @param to      end of the time range, in seconds
+     * @return the channel's values from the overlapping chunks
+     * @throws IOException if there is no such channel or the file is damaged
+     */
+    public double[] read(String channel, double from, double to) throws IOException {
+        for (int i = 0; i < NAMES.length; i++) {
+            if (NAMES[i].equals(channel))
+                return readColumn(i + 1, TYPES[i], from, to);
+        }
+
+        throw new IOException(PATH + " has no channel " + channel);
+    }
+
+    private double[] readColumn(int column, ColumnType type, double from, double to) throws IOException {
+        int rows = 0;
+        for (Chunk chunk : CHUNKS) {
+            if (chunk.LAST_TIME >= from && chunk.FIRST_TIME <= to)
+                rows += chunk.ROWS;
+        }
+
+        double[] values = new double[rows];
+        ByteBuffer raw = ByteBuffer.allocate(TelemetryFileWriter.CHUNK_ROWS * type.SIZE);
+        int n = 0;
+
+        for (Chunk chunk : CHUNKS) {
+            if (chunk.LAST_TIME < from || chunk.FIRST_TIME > to)
+                continue;
+
+            ByteBuffer compressed = FILE.duplicate();
+            compressed.position((int) chunk.OFFSET[column]);
+            compressed.limit((int) chunk.OFFSET[column] + chunk.LENGTH[column]);
+
+            raw.clear();
+            INFLATER.reset();
+            INFLATER.setInput(compressed);
+            try {
+                while (!INFLATER.finished() && raw.hasRemaining()) {
+                    if (INFLATER.inflate(raw) == 0 && INFLATER.needsInput())
+                        break;
+                }
+            } catch (DataFormatException e) {
+                throw new IOException(PATH + " has a damaged chunk", e);
+            }
+            raw.flip();
+
+            for (int r = 0; r < chunk.ROWS; r++) {
+                switch (type) {
+                    case DOUBLE:
+                        values[n++] = raw.getDouble();
+                        break;
+                    case FLOAT:
+                        values[n++] = raw.getFloat();
+                        break;
+                    case INT:
+                        values[n++] = raw.getInt();
+                        break;
+                }
+            }
+        }
+
+        return values;
+    }
+}
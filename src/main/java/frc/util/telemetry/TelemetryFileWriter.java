@@ -0,0 +1,234 @@
+package frc.util.telemetry;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.Deflater;
+
+/**
+ * Writes telemetry in a columnar, chunked, compressed file, for {@link TelemetryFileReader}
+ * and {@link TelemetryAnalyzer}.
+ * <p>
+ * A file holds a fixed set of named channels, each with a {@link ColumnType}, sampled together
+ * at the times in a time column. Rows are buffered into chunks of up to {@link #CHUNK_ROWS}; each chunk
+ * stores every column as its own deflated block, so a reader can pull out one channel without
+ * decompressing the others, and can skip chunks outside a time range by their index.
+ * <p>
+ * A chunk is also written once it spans {@link #MAX_CHUNK_SECONDS}, so a slow log, such as one row
+ * a second, reaches the disk regularly. Chunks describe themselves, so if the robot loses power
+ * before the footer is written, a reader can still recover every chunk that was.
+ * <p>
+ * Layout, all big-endian:
+ * <pre>
+ * header:  int MAGIC, short VERSION, short channel count,
+ *          per channel (short name length, UTF-8 name, byte type)
+ * chunks:  per chunk, int rows, double first time, double last time,
+ *          then per column, time first (int length, deflated column)
+ * footer:  int chunk count, per chunk (int rows, double first time, double last time,
+ *          per column including time (long offset, int length))
+ * trailer: long footer offset, int MAGIC
+ * </pre>
+ */
+public class TelemetryFileWriter implements AutoCloseable {
+    public static final int MAGIC = 0x4D524354;  // "MRCT"
+    public static final short VERSION = 2;
+    public static final int CHUNK_ROWS = 4096;
+    public static final double MAX_CHUNK_SECONDS = 10.0;
+
+    static final int CHUNK_HEADER_SIZE = 4 + 8 + 8;
+
+    /**
+     * How a channel's values are stored. Values are always handed over as doubles.
+     */
+    public enum ColumnType {
+        DOUBLE(8), FLOAT(4), INT(4);
+
+        public final int SIZE;
+
+        ColumnType(int size) {
+            SIZE = size;
+        }
+
+        static ColumnType fromOrdinal(int ordinal) {
+            return values()[ordinal];
+        }
+    }
+
+    private final FileChannel CHANNEL;
+    private final ColumnType[] TYPES;
+    private final ByteBuffer[] COLUMNS;     // time, then each channel
+    private final Deflater DEFLATER = new Deflater(Deflater.BEST_SPEED);
+    private final ByteBuffer COMPRESSED;
+    private final ByteBuffer CHUNK_HEADER = ByteBuffer.allocate(CHUNK_HEADER_SIZE);
+
+    // Footer entries: {rows, first time bits, last time bits, then offset and length per column}
+    private final List<long[]> CHUNKS = new ArrayList<>();
+    private int rows;
+    private double firstTime, lastTime;
+
+    /**
+     * Creates a file and writes its header.
+     *
+     * @param file  file to write
+     * @param names channel names
+     * @param types channel types, in the same order
+     * @throws IOException if the file can't be written
+     */
+    public TelemetryFileWriter(File file, String[] names, ColumnType[] types) throws IOException {
+        if (names.length != types.length)
+            throw new IllegalArgumentException("Every channel needs a type");
+
+        CHANNEL = new FileOutputStream(file).getChannel();
+        TYPES = types.clone();
+
+        COLUMNS = new ByteBuffer[types.length + 1];
+        COLUMNS[0] = ByteBuffer.allocate(CHUNK_ROWS * ColumnType.DOUBLE.SIZE);
+        int largest = COLUMNS[0].capacity();
+        for (int i = 0; i < types.length; i++) {
+            COLUMNS[i + 1] = ByteBuffer.allocate(CHUNK_ROWS * types[i].SIZE);
+            largest = Math.max(largest, COLUMNS[i + 1].capacity());
+        }
+
+        // Deflate can grow incompressible data by a little; room is left for the block's length too
+        COMPRESSED = ByteBuffer.allocate(largest + largest / 100 + 64 + 4);
+
+        byte[][] encodedNames = new byte[names.length][];
+        int headerSize = 8;
+        for (int i = 0; i < names.length; i++) {
+            encodedNames[i] = names[i].getBytes(StandardCharsets.UTF_8);
+            headerSize += 3 + encodedNames[i].length;
+        }
+
+        ByteBuffer header = ByteBuffer.allocate(headerSize);
+        header.putInt(MAGIC);
+        header.putShort(VERSION);
+        header.putShort((short) names.length);
+        for (int i = 0; i < names.length; i++) {
+            header.putShort((short) encodedNames[i].length);
+            header.put(encodedNames[i]);
+            header.put((byte) types[i].ordinal());
+        }
+        header.flip();
+        writeFully(header);
+    }
+
+    /**
+     * Adds a row. Does not allocate, except when a chunk is finished.
+     *
+     * @param time   time of the row, in seconds
+     * @param values one value per channel
+     * @throws IOException if a finished chunk can't be written
+     */
+    public void append(double time, double[] values) throws IOException {
+        if (rows == 0)
+            firstTime = time;
+        lastTime = time;
+
+        COLUMNS[0].putDouble(time);
+        for (int i = 0; i < TYPES.length; i++) {
+            ByteBuffer column = COLUMNS[i + 1];
+            switch (TYPES[i]) {
+                case DOUBLE:
+                    column.putDouble(values[i]);
+                    break;
+                case FLOAT:
+                    column.putFloat((float) values[i]);
+                    break;
+                case INT:
+                    column.putInt((int) values[i]);
+                    break;
+            }
+        }
+
+        if (++rows == CHUNK_ROWS || time - firstTime >= MAX_CHUNK_SECONDS)
+            finishChunk();
+    }
+
+    /**
+     * Compresses and writes the buffered rows as a chunk.
+     */
+    private void finishChunk() throws IOException {
+        if (rows == 0)
+            return;
+
+        long[] entry = new long[3 + 2 * COLUMNS.length];
+        entry[0] = rows;
+        entry[1] = Double.doubleToLongBits(firstTime);
+        entry[2] = Double.doubleToLongBits(lastTime);
+
+        CHUNK_HEADER.clear();
+        CHUNK_HEADER.putInt(rows);
+        CHUNK_HEADER.putDouble(firstTime);
+        CHUNK_HEADER.putDouble(lastTime);
+        CHUNK_HEADER.flip();
+        writeFully(CHUNK_HEADER);
+
+        for (int i = 0; i < COLUMNS.length; i++) {
+            ByteBuffer column = COLUMNS[i];
+            column.flip();
+
+            DEFLATER.reset();
+            DEFLATER.setInput(column);
+            DEFLATER.finish();
+            COMPRESSED.clear();
+            COMPRESSED.position(4);
+            while (!DEFLATER.finished())
+                DEFLATER.deflate(COMPRESSED);
+            COMPRESSED.flip();
+
+            int length = COMPRESSED.remaining() - 4;
+            COMPRESSED.putInt(0, length);
+            entry[3 + 2 * i] = CHANNEL.position() + 4;
+            entry[4 + 2 * i] = length;
+            writeFully(COMPRESSED);
+
+            column.clear();
+        }
+
+        CHUNKS.add(entry);
+        rows = 0;
+    }
+
+    /**
+     * Writes any buffered rows, the footer, and closes the file.
+     *
+     * @throws IOException if the file can't be written
+     */
+    @Override
+    public void close() throws IOException {
+        if (!CHANNEL.isOpen())
+            return;
+
+        finishChunk();
+
+        long footerOffset = CHANNEL.position();
+        ByteBuffer footer = ByteBuffer.allocate(4 + CHUNKS.size() * (20 + 12 * COLUMNS.length) + 12);
+        footer.putInt(CHUNKS.size());
+        for (long[] entry : CHUNKS) {
+            footer.putInt((int) entry[0]);
+            footer.putDouble(Double.longBitsToDouble(entry[1]));
+            footer.putDouble(Double.longBitsToDouble(entry[2]));
+            for (int i = 0; i < COLUMNS.length; i++) {
+                footer.putLong(entry[3 + 2 * i]);
+                footer.putInt((int) entry[4 + 2 * i]);
+            }
+        }
+        footer.putLong(footerOffset);
+        footer.putInt(MAGIC);
+        footer.flip();
+        writeFully(footer);
+
+        DEFLATER.end();
+        CHANNEL.close();
+    }
+
+    private void writeFully(ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining())
+            CHANNEL.write(buffer);
+    }
+}
@@ -0,0 +1,113 @@
+package frc.util.telemetry;
+
+import frc.util.telemetry.TelemetryFileWriter.ColumnType;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.File;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+/**
+ * Logs telemetry channels to a {@link TelemetryFileWriter} file, for {@link TelemetryAnalyzer}.
+ * <p>
+ * Each drain that brings in new values writes one row holding the latest value of every channel,
+ * so draining as often as the robot loop runs logs every loop. The columns are the channels
+ * registered when the file was started.
+ */
+public class TelemetryLogger extends TelemetryConsumer {
+    private static final Logger log = LogManager.getLogger(TelemetryLogger.class);
+    private static final DateTimeFormatter fileTimestampFormat = DateTimeFormatter.ofPattern("MMdd_HHmmss");
+
+    private final File OUTPUT_DIR;
+    private final TelemetryRegistry REGISTRY;
+
+    private TelemetryFileWriter writer;
+    private double[] row;
+    private double rowTime;
+    private boolean rowChanged;
+    private int rows;
+
+    /**
+     * @param outputDir directory to write logs to
+     * @param registry  registry whose channels become the columns
+     */
+    public TelemetryLogger(File outputDir, TelemetryRegistry registry) {
+        OUTPUT_DIR = outputDir;
+        REGISTRY = registry;
+    }
+
+    /**
+     * Starts a new log file, closing the current one if there is one.
+     *
+     * @param prefix start of the file name, such as the mode being logged
+     */
+    public synchronized void start(String prefix) {
+        close();
+
+        List<TelemetryChannel> channels = REGISTRY.getChannels();
+        String[] names = new String[channels.size()];
+        ColumnType[] types = new ColumnType[channels.size()];
+        row = new double[channels.size()];
+        for (TelemetryChannel channel : channels) {
+            names[channel.getId()] = channel.getName();
+            types[channel.getId()] = channel.getType() == TelemetryChannel.Type.BOOLEAN ? ColumnType.INT : ColumnType.FLOAT;
+            row[channel.getId()] = channel.getLatest();
+        }
+
+        String fileName = prefix + "-" + fileTimestampFormat.format(LocalDateTime.now()) + TelemetryAnalyzer.EXTENSION;
+        try {
+            writer = new TelemetryFileWriter(new File(OUTPUT_DIR, fileName), names, types);
+        } catch (IOException e) {
+            log.error("Could not create telemetry log " + fileName, e);
+            return;
+        }
+        rowChanged = false;
+        rows = 0;
+
+        log.info("Logging " + names.length + " telemetry channels to " + fileName);
+    }
+
+    @Override
+    protected void accept(TelemetryChannel channel, double time, double value) {
+        if (writer == null || channel.getId() >= row.length)
+            return;
+
+        row[channel.getId()] = value;
+        rowTime = Math.max(rowTime, time);
+        rowChanged = true;
+    }
+
+    @Override
+    protected void flush() {
+        if (writer == null || !rowChanged)
+            return;
+
+        try {
+            writer.append(rowTime, row);
+            rows++;
+        } catch (IOException e) {
+            log.error("Could not write telemetry log", e);
+        }
+        rowChanged = false;
+    }
+
+    /**
+     * Writes out everything logged and closes the file.
+     */
+    public synchronized void close() {
+        if (writer == null)
+            return;
+
+        try {
+            writer.close();
+        } catch (IOException e) {
+            log.error("Could not finish telemetry log", e);
+        }
+        writer = null;
+
+        log.info("Logged " + rows + " rows of telemetry, lost " + getLost() + " values");
+    }
+}
@@ -0,0 +1,71 @@
+package frc.util.telemetry;
+
+import edu.wpi.first.networktables.NetworkTable;
+import edu.wpi.first.networktables.NetworkTableEntry;
+import edu.wpi.first.networktables.NetworkTableInstance;
+
+import java.util.Arrays;
+
+/**
+ * Publishes every value of every telemetry channel to NetworkTables, for tools off the robot
+ * that want more than the latest value, such as plotters on the driver station.
+ * <p>
+ * Each drain, a channel's values since the last drain are published as two number arrays,
+ * {@code <table>/<channel>/times} and {@code <table>/<channel>/values}.
+ * Channels with no new values are left alone.
+ */
+public class TelemetryPublisher extends TelemetryConsumer {
+    private final NetworkTable TABLE;
+
+    private NetworkTableEntry[] times = new NetworkTableEntry[0], values = new NetworkTableEntry[0];
+    private double[][] timeBuffers = new double[0][], valueBuffers = new double[0][];
+    private int[] counts = new int[0];
+
+    /**
+     * @param table name of the NetworkTables table to publish under
+     */
+    public TelemetryPublisher(String table) {
+        TABLE = NetworkTableInstance.getDefault().getTable(table);
+    }
+
+    @Override
+    protected void accept(TelemetryChannel channel, double time, double value) {
+        int id = channel.getId();
+        if (id >= counts.length) {
+            int size = id + 1;
+            times = Arrays.copyOf(times, size);
+            values = Arrays.copyOf(values, size);
+            timeBuffers = Arrays.copyOf(timeBuffers, size);
+            valueBuffers = Arrays.copyOf(valueBuffers, size);
+            counts = Arrays.copyOf(counts, size);
+        }
+
+        if (times[id] == null) {
+            NetworkTable channelTable = TABLE.getSubTable(channel.getName());
+            times[id] = channelTable.getEntry("times");
+            values[id] = channelTable.getEntry("values");
+            timeBuffers[id] = new double[16];
+            valueBuffers[id] = new double[16];
+        }
+
+        int n = counts[id]++;
+        if (n == timeBuffers[id].length) {
+            timeBuffers[id] = Arrays.copyOf(timeBuffers[id], n * 2);
+            valueBuffers[id] = Arrays.copyOf(valueBuffers[id], n * 2);
+        }
+        timeBuffers[id][n] = time;
+        valueBuffers[id][n] = value;
+    }
+
+    @Override
+    protected void flush() {
+        for (int id = 0; id < counts.length; id++) {
+            if (counts[id] == 0)
+                continue;
+
+            times[id].setDoubleArray(Arrays.copyOf(timeBuffers[id], counts[id]));
+            values[id].setDoubleArray(Arrays.copyOf(valueBuffers[id], counts[id]));
+            counts[id] = 0;
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package frc.util.telemetry;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Holds every {@link TelemetryChannel} on the robot, and drains them into {@link TelemetryConsumer}s.
+ * <p>
+ * Subsystems register their channels once, when they are constructed, and record into them from
+ * the robot loop. Consumers are drained on a background thread, each at its own period, so the
+ * dashboard, the log file and anything else reading telemetry never runs on the robot loop.
+ */
+public class TelemetryRegistry {
+    private static final Logger log = LogManager.getLogger(TelemetryRegistry.class);
+    private static final TelemetryRegistry instance = new TelemetryRegistry();
+
+    private final List<TelemetryChannel> CHANNELS = new CopyOnWriteArrayList<>();
+    private ScheduledExecutorService drainer;
+
+    private double loopTime;
+
+    TelemetryRegistry() {
+    }
+
+    public static TelemetryRegistry getInstance() {
+        return instance;
+    }
+
+    /**
+     * Registers a channel. Channels should be registered once, when their owner is constructed.
+     *
+     * @param name name of the channel, unique on the robot, such as "Elevator/Height"
+     * @param type what the channel's values mean
+     * @return the channel to record into
+     * @throws IllegalArgumentException if a channel already has the name
+     */
+    public synchronized TelemetryChannel register(String name, TelemetryChannel.Type type) {
+        for (TelemetryChannel channel : CHANNELS) {
+            if (channel.getName().equals(name))
+                throw new IllegalArgumentException("Telemetry channel " + name + " is already registered");
+        }
+
+        TelemetryChannel channel = new TelemetryChannel(name, type, CHANNELS.size(), this);
+        CHANNELS.add(channel);
+        return channel;
+    }
+
+    /**
+     * Starts draining a consumer in the background.
+     *
+     * @param consumer consumer to drain
+     * @param period   seconds between drains
+     */
+    public synchronized void addConsumer(TelemetryConsumer consumer, double period) {
+        if (drainer == null) {
+            drainer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "Telemetry");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+
+        consumer.attach(this);
+
+        long micros = (long) (period * 1e6);
+        drainer.scheduleAtFixedRate(() -> {
+            try {
+                consumer.drain();
+            } catch (RuntimeException e) {
+                // An uncaught exception would cancel every later drain of this consumer
+                log.error("Could not drain telemetry into " + consumer.getClass().getSimpleName(), e);
+            }
+        }, micros, micros, TimeUnit.MICROSECONDS);
+    }
+
+    /**
+     * Sets the time that values recorded without one are given.
+     * Call this from the robot loop before the subsystems run.
+     *
+     * @param time time the loop started, in seconds
+     */
+    public void startLoop(double time) {
+        loopTime = time;
+    }
+
+    /**
+     * @return time the current robot loop started, in seconds
+     */
+    public double getLoopTime() {
+        return loopTime;
+    }
+
+    /**
+     * @return every registered channel, in the order they were registered
+     */
+    public List<TelemetryChannel> getChannels() {
+        return Collections.unmodifiableList(CHANNELS);
+    }
+}
@@ -0,0 +1,109 @@
+package frc.util;
+
+import org.junit.After;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class DriveKinematicsTest {
+	private static final double EPSILON = 1e-9;
+
+	private static final double[] VALUES = {0, 1, -1, 0.5, 12, -37.25, 4096, 1e-6, 1e6};
+
+	// A 6" wheel on a mag encoder, turning with the wheel and through a 2:1 reduction
+	private static final DriveKinematics DIRECT = new DriveKinematics(4096, 6, 1);
+	private static final DriveKinematics GEARED = new DriveKinematics(4096, 6, 2);
+
+	@After
+	public void resetMercMath() {
+		MercMath.setDriveKinematics(null);
+	}
+
+	@Test
+	public void oneRevolution() {
+		assertEquals(4096, DIRECT.inchesToTicks(Math.PI * 6), EPSILON);
+		assertEquals(Math.PI * 6, DIRECT.ticksToInches(4096), EPSILON);
+		assertEquals(4096, DIRECT.feetToTicks(Math.PI * 6 / 12), EPSILON);
+		assertEquals(Math.PI * 6 / 12, DIRECT.ticksToFeet(4096), EPSILON);
+	}
+
+	@Test
+	public void ticksToFeetCountsTheGearRatio() {
+		// Two turns of the encoder for each turn of the wheel
+		assertEquals(Math.PI * 6 / 12 / 2, GEARED.ticksToFeet(4096), EPSILON);
+		assertEquals(Math.PI * 6 / 12, GEARED.ticksToFeet(8192), EPSILON);
+
+		for (double val : VALUES)
+			assertEquals(DIRECT.ticksToFeet(val) / 2, GEARED.ticksToFeet(val), Math.abs(val) * EPSILON);
+	}
+
+	@Test
+	public void otherConversionsIgnoreTheGearRatio() {
+		for (double val : VALUES) {
+			assertEquals(DIRECT.inchesToTicks(val), GEARED.inchesToTicks(val), 0);
+			assertEquals(DIRECT.ticksToInches(val), GEARED.ticksToInches(val), 0);
+			assertEquals(DIRECT.feetToTicks(val), GEARED.feetToTicks(val), 0);
+			assertEquals(DIRECT.revsPerMinuteToTicksPerTenth(val), GEARED.revsPerMinuteToTicksPerTenth(val), 0);
+			assertEquals(DIRECT.ticksPerTenthToRevsPerMinute(val), GEARED.ticksPerTenthToRevsPerMinute(val), 0);
+			assertEquals(DIRECT.revsPerMinuteToMetersPerSecond(val), GEARED.revsPerMinuteToMetersPerSecond(val), 0);
+		}
+	}
+
+	@Test
+	public void velocities() {
+		// 600 RPM is 10 revolutions a second, or one every 100 ms
+		assertEquals(4096, DIRECT.revsPerMinuteToTicksPerTenth(600), EPSILON);
+		assertEquals(600, DIRECT.ticksPerTenthToRevsPerMinute(4096), EPSILON);
+		assertEquals(MercMath.feetToMeters(Math.PI * 6 / 12) * 10, DIRECT.revsPerMinuteToMetersPerSecond(600), EPSILON);
+		assertEquals(DIRECT.revsPerMinuteToMetersPerSecond(600), DIRECT.ticksPerTenthToMetersPerSecond(4096), EPSILON);
+		assertEquals(1023.0 / 4096, DIRECT.feedForward(600), EPSILON);
+	}
+
+	@Test
+	public void roundTrips() {
+		for (double val : VALUES) {
+			double tolerance = Math.ulp(val) * 4;
+
+			assertEquals(val, DIRECT.ticksToInches(DIRECT.inchesToTicks(val)), tolerance);
+			assertEquals(val, DIRECT.inchesToTicks(DIRECT.ticksToInches(val)), tolerance);
+			assertEquals(val, DIRECT.ticksToFeet(DIRECT.feetToTicks(val)), tolerance);
+			assertEquals(val, DIRECT.ticksPerTenthToRevsPerMinute(DIRECT.revsPerMinuteToTicksPerTenth(val)), tolerance);
+			assertEquals(val, GEARED.ticksToFeet(GEARED.feetToTicks(val)) * 2, tolerance);
+		}
+	}
+
+	@Test
+	public void bulkMatchesScalar() {
+		double[] out = new double[VALUES.length];
+
+		GEARED.feetToTicks(VALUES, out);
+		for (int i = 0; i < VALUES.length; i++)
+			assertEquals(GEARED.feetToTicks(VALUES[i]), out[i], 0);
+
+		GEARED.ticksToFeet(VALUES, out);
+		for (int i = 0; i < VALUES.length; i++)
+			assertEquals(GEARED.ticksToFeet(VALUES[i]), out[i], 0);
+
+		GEARED.revsPerMinuteToTicksPerTenth(VALUES, out);
+		for (int i = 0; i < VALUES.length; i++)
+			assertEquals(GEARED.revsPerMinuteToTicksPerTenth(VALUES[i]), out[i], 0);
+	}
+
+	@Test
+	public void mercMathConvertsOffTheRobot() {
+		MercMath.setDriveKinematics(GEARED);
+
+		assertEquals(GEARED.ticksToFeet(4096), MercMath.getEncPosition(4096), 0);
+		assertEquals(GEARED.inchesToTicks(12), MercMath.inchesToEncoderTicks(12), 0);
+		assertEquals(GEARED.ticksToInches(4096), MercMath.encoderTicksToInches(4096), 0);
+		assertEquals(GEARED.revsPerMinuteToTicksPerTenth(600), MercMath.revsPerMinuteToTicksPerTenth(600), 0);
+	}
+
+	@Test
+	public void mercMathDefaultsToTheSettings() {
+		DriveKinematics settings = DriveKinematics.fromSettings();
+
+		assertEquals(settings.ticksToFeet(4096), MercMath.getEncPosition(4096), 0);
+		assertEquals(settings.inchesToTicks(12), MercMath.inchesToEncoderTicks(12), 0);
+	}
+}
@@ -0,0 +1,131 @@
+package frc.util;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class MercMathTest {
+	private static final double EPSILON = 1e-12;
+
+	private static final double[] VALUES = {0, 1, -1, 0.5, 2.54, 12, -37.25, 168, 1e-9, 1e6};
+
+	@Test
+	public void centimetersAndInches() {
+		assertEquals(1, MercMath.centimetersToInches(2.54), EPSILON);
+		assertEquals(2.54, MercMath.inchesToCentimeters(1), EPSILON);
+		assertEquals(30.48, MercMath.inchesToCentimeters(12), EPSILON);
+	}
+
+	@Test
+	public void secondsMinutesAndHours() {
+		assertEquals(1, MercMath.secondsToMinutes(60), EPSILON);
+		assertEquals(90, MercMath.minutesToSeconds(1.5), EPSILON);
+		assertEquals(2, MercMath.minutesToHours(120), EPSILON);
+		assertEquals(30, MercMath.hoursToMinutes(0.5), EPSILON);
+	}
+
+	@Test
+	public void feetAndMeters() {
+		assertEquals(0.3048, MercMath.feetToMeters(1), EPSILON);
+		assertEquals(1, MercMath.metersToFeet(0.3048), EPSILON);
+		assertEquals(3.048, MercMath.feetToMeters(10), EPSILON);
+	}
+
+	@Test
+	public void roundTrips() {
+		for (double val : VALUES) {
+			double tolerance = Math.ulp(val) * 4;
+
+			assertEquals(val, MercMath.centimetersToInches(MercMath.inchesToCentimeters(val)), tolerance);
+			assertEquals(val, MercMath.inchesToCentimeters(MercMath.centimetersToInches(val)), tolerance);
+			assertEquals(val, MercMath.secondsToMinutes(MercMath.minutesToSeconds(val)), tolerance);
+			assertEquals(val, MercMath.minutesToHours(MercMath.hoursToMinutes(val)), tolerance);
+			assertEquals(val, MercMath.metersToFeet(MercMath.feetToMeters(val)), tolerance);
+			assertEquals(val, MercMath.feetToMeters(MercMath.metersToFeet(val)), tolerance);
+		}
+	}
+
+	@Test
+	public void roundFloat() {
+		assertEquals(1.23, MercMath.roundFloat(1.234, 2), EPSILON);
+		assertEquals(1.24, MercMath.roundFloat(1.235001, 2), EPSILON);
+		assertEquals(-1.23, MercMath.roundFloat(-1.234, 2), EPSILON);
+		assertEquals(3, MercMath.roundFloat(2.5, 0), EPSILON);
+		assertEquals(0, MercMath.roundFloat(0.0004, 3), EPSILON);
+	}
+
+	@Test
+	public void roundFloatLeavesNaNAndInfinities() {
+		assertEquals(Double.NaN, MercMath.roundFloat(Double.NaN, 2), 0);
+		assertEquals(Double.POSITIVE_INFINITY, MercMath.roundFloat(Double.POSITIVE_INFINITY, 2), 0);
+		assertEquals(Double.NEGATIVE_INFINITY, MercMath.roundFloat(Double.NEGATIVE_INFINITY, 2), 0);
+	}
+
+	@Test
+	public void roundFloatLeavesLargeValues() {
+		// Beyond what a long holds once scaled, where Math.round would clip
+		assertEquals(1e300, MercMath.roundFloat(1e300, 2), 0);
+		assertEquals(-1e300, MercMath.roundFloat(-1e300, 2), 0);
+		assertEquals(Double.MAX_VALUE, MercMath.roundFloat(Double.MAX_VALUE, 0), 0);
+
+		// Large, but still whole numbers once scaled
+		assertEquals(1e15, MercMath.roundFloat(1e15, 0), 0);
+		assertEquals(123456789012.35, MercMath.roundFloat(123456789012.345678, 2), 1e-3);
+	}
+
+	@Test
+	public void bulkMatchesScalar() {
+		double[] out = new double[VALUES.length];
+
+		MercMath.centimetersToInches(VALUES, out);
+		for (int i = 0; i < VALUES.length; i++)
+			assertEquals(MercMath.centimetersToInches(VALUES[i]), out[i], Math.ulp(out[i]));
+
+		MercMath.inchesToCentimeters(VALUES, out);
+		for (int i = 0; i < VALUES.length; i++)
+			assertEquals(MercMath.inchesToCentimeters(VALUES[i]), out[i], 0);
+
+		MercMath.feetToMeters(VALUES, out);
+		for (int i = 0; i < VALUES.length; i++)
+			assertEquals(MercMath.feetToMeters(VALUES[i]), out[i], 0);
+
+		MercMath.metersToFeet(VALUES, out);
+		for (int i = 0; i < VALUES.length; i++)
+			assertEquals(MercMath.metersToFeet(VALUES[i]), out[i], Math.ulp(out[i]));
+	}
+
+	@Test
+	public void bulkConvertsInPlace() {
+		double[] vals = VALUES.clone(), expected = new double[VALUES.length];
+		MercMath.feetToMeters(VALUES, expected);
+
+		MercMath.feetToMeters(vals, vals);
+		assertArrayEquals(expected, vals, 0);
+
+		MercMath.metersToFeet(vals, vals);
+		for (int i = 0; i < VALUES.length; i++)
+			assertEquals(VALUES[i], vals[i], Math.ulp(VALUES[i]) * 4);
+	}
+
+	@Test
+	public void bulkLeavesTheRestOfALongerOutput() {
+		double[] out = {-1, -1, -1, -1};
+		MercMath.scale(new double[]{1, 2}, 3, out);
+
+		assertArrayEquals(new double[]{3, 6, -1, -1}, out, 0);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void bulkRejectsShortOutput() {
+		MercMath.scale(new double[]{1, 2, 3}, 2, new double[2]);
+	}
+
+	@Test
+	public void bulkHandlesEmptyArrays() {
+		double[] empty = new double[0];
+		MercMath.metersToFeet(empty, empty);
+
+		assertEquals(0, empty.length);
+	}
+}
@@ -0,0 +1,135 @@
+package frc.util;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class RangeKalmanFilterTest {
+	private static final double EPSILON = 1e-12;
+	private static final double DT = 0.02;
+
+	@Test
+	public void emptyUntilTheFirstReading() {
+		RangeKalmanFilter filter = new RangeKalmanFilter(10);
+		filter.predict(DT);
+
+		assertFalse(filter.isInitialized());
+		assertEquals(Double.NaN, filter.getRange(), 0);
+		assertEquals(0, filter.getRate(), 0);
+		assertEquals(Double.POSITIVE_INFINITY, filter.getRangeDeviation(), 0);
+	}
+
+	@Test
+	public void startsAtTheFirstReading() {
+		RangeKalmanFilter filter = new RangeKalmanFilter(10);
+
+		assertTrue(filter.update(24, 0.5));
+		assertTrue(filter.isInitialized());
+		assertEquals(24, filter.getRange(), EPSILON);
+		assertEquals(0, filter.getRate(), EPSILON);
+		assertEquals(0.5, filter.getRangeDeviation(), EPSILON);
+	}
+
+	@Test
+	public void tracksAClosingObject() {
+		RangeKalmanFilter filter = new RangeKalmanFilter(10);
+		double range = 60, rate = -20;
+
+		filter.update(range, 0.5);
+		for (int i = 0; i < 100; i++) {
+			range += rate * DT;
+			filter.predict(DT);
+			assertTrue(filter.update(range, 0.5));
+		}
+
+		assertEquals(range, filter.getRange(), 0.05);
+		assertEquals(rate, filter.getRate(), 0.5);
+		assertEquals(range + rate * 0.1, filter.getRange(0.1), 0.1);
+		assertTrue(filter.getRangeDeviation() < 0.5);
+	}
+
+	@Test
+	public void trustsTheQuieterSensorMore() {
+		RangeKalmanFilter precise = new RangeKalmanFilter(10), noisy = new RangeKalmanFilter(10);
+		precise.update(20, 1);
+		noisy.update(20, 1);
+
+		precise.update(21, 0.5);
+		noisy.update(21, 2);
+
+		assertTrue(precise.getRange() - 20 > noisy.getRange() - 20);
+		assertTrue(precise.getRangeDeviation() < noisy.getRangeDeviation());
+	}
+
+	@Test
+	public void gatesOutAnOutlier() {
+		RangeKalmanFilter filter = settled(20);
+		double range = filter.getRange(), rate = filter.getRate(), deviation = filter.getRangeDeviation();
+
+		// A glare reading far beyond four standard deviations
+		assertFalse(filter.update(200, 0.5));
+
+		assertEquals(range, filter.getRange(), 0);
+		assertEquals(rate, filter.getRate(), 0);
+		assertEquals(deviation, filter.getRangeDeviation(), 0);
+	}
+
+	@Test
+	public void restartsWhenOutliersKeepComing() {
+		RangeKalmanFilter filter = settled(20);
+
+		// The object really moved; the third reading in a row is taken as the new range
+		assertFalse(filter.update(5, 0.5));
+		assertFalse(filter.update(5, 0.5));
+		assertEquals(20, filter.getRange(), 0.1);
+		assertFalse(filter.update(5, 0.5));
+
+		assertEquals(5, filter.getRange(), EPSILON);
+		assertEquals(0, filter.getRate(), EPSILON);
+		assertEquals(0.5, filter.getRangeDeviation(), EPSILON);
+
+		// And it tracks from there
+		assertTrue(filter.update(5.1, 0.5));
+	}
+
+	@Test
+	public void goodReadingsClearTheRejections() {
+		RangeKalmanFilter filter = settled(20);
+
+		assertFalse(filter.update(5, 0.5));
+		assertFalse(filter.update(5, 0.5));
+		assertTrue(filter.update(20, 0.5));
+		assertFalse(filter.update(5, 0.5));
+		assertFalse(filter.update(5, 0.5));
+
+		assertEquals(20, filter.getRange(), 0.1);
+	}
+
+	@Test
+	public void resetForgetsEverything() {
+		RangeKalmanFilter filter = settled(20);
+		filter.reset();
+
+		assertFalse(filter.isInitialized());
+		assertEquals(Double.NaN, filter.getRange(), 0);
+
+		// Anything goes once reset, without being gated against the old range
+		assertTrue(filter.update(3, 0.5));
+		assertEquals(3, filter.getRange(), EPSILON);
+	}
+
+	/**
+	 * A filter that has been watching a still object for a while.
+	 */
+	private static RangeKalmanFilter settled(double range) {
+		RangeKalmanFilter filter = new RangeKalmanFilter(10);
+
+		for (int i = 0; i < 50; i++) {
+			filter.predict(DT);
+			filter.update(range, 0.5);
+		}
+		return filter;
+	}
+}
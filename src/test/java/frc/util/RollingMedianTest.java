@@ -0,0 +1,128 @@
+package frc.util;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class RollingMedianTest {
+	private static final double EPSILON = 1e-12;
+
+	@Test
+	public void emptyWindowIsNaN() {
+		RollingMedian median = new RollingMedian(5);
+
+		assertEquals(Double.NaN, median.getMedian(), 0);
+		assertEquals(Double.NaN, median.getMedianAbsoluteDeviation(), 0);
+		assertEquals(0, median.getSize());
+	}
+
+	@Test
+	public void oddAndEvenWindows() {
+		RollingMedian median = new RollingMedian(4);
+
+		median.add(3);
+		assertEquals(3, median.getMedian(), EPSILON);
+		median.add(1);
+		assertEquals(2, median.getMedian(), EPSILON);
+		median.add(10);
+		assertEquals(3, median.getMedian(), EPSILON);
+		median.add(4);
+		assertEquals(3.5, median.getMedian(), EPSILON);
+		assertTrue(median.isFull());
+
+		// Replaces the 3, leaving 1, 10, 4, 2
+		median.add(2);
+		assertEquals(3, median.getMedian(), EPSILON);
+		assertEquals(4, median.getSize());
+	}
+
+	@Test
+	public void outliersBarelyMoveTheMedian() {
+		RollingMedian median = new RollingMedian(5);
+		for (double val : new double[]{10, 10.5, 9.5, 10, 1000})
+			median.add(val);
+
+		assertEquals(10, median.getMedian(), EPSILON);
+		assertEquals(0.5, median.getMedianAbsoluteDeviation(), EPSILON);
+	}
+
+	@Test
+	public void replacesTheOldestSample() {
+		// Each replaced sample sits on the other side of the median than its replacement,
+		// so the heaps have to trade tops to stay ordered
+		RollingMedian median = new RollingMedian(3);
+		double[] stream = {1, 2, 3, 100, 101, 102, -5, -6, -7, 50, 0, 50};
+
+		for (int i = 0; i < stream.length; i++) {
+			median.add(stream[i]);
+			assertEquals(bruteMedian(stream, i, 3), median.getMedian(), EPSILON);
+		}
+	}
+
+	@Test
+	public void matchesBruteForce() {
+		Random random = new Random(1706);
+
+		for (int window = 1; window <= 12; window++) {
+			RollingMedian median = new RollingMedian(window);
+			double[] stream = new double[200];
+
+			for (int i = 0; i < stream.length; i++) {
+				// Few distinct values, so ties are common
+				stream[i] = i % 3 == 0 ? random.nextInt(4) : random.nextGaussian() * 10;
+				median.add(stream[i]);
+
+				String at = "window " + window + ", sample " + i;
+				assertEquals(at, bruteMedian(stream, i, window), median.getMedian(), EPSILON);
+				assertEquals(at, bruteMad(stream, i, window), median.getMedianAbsoluteDeviation(), EPSILON);
+			}
+		}
+	}
+
+	@Test
+	public void resetStartsOver() {
+		RollingMedian median = new RollingMedian(3);
+		for (double val : new double[]{5, 6, 7, 8})
+			median.add(val);
+
+		median.reset();
+		assertEquals(0, median.getSize());
+		assertFalse(median.isFull());
+		assertEquals(Double.NaN, median.getMedian(), 0);
+
+		median.add(-1);
+		median.add(-3);
+		assertEquals(-2, median.getMedian(), EPSILON);
+		assertEquals(1, median.getMedianAbsoluteDeviation(), EPSILON);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void rejectsEmptyWindow() {
+		new RollingMedian(0);
+	}
+
+	/**
+	 * Median of the window ending at {@code last}, by sorting.
+	 */
+	private static double bruteMedian(double[] stream, int last, int window) {
+		double[] sorted = Arrays.copyOfRange(stream, Math.max(0, last - window + 1), last + 1);
+		Arrays.sort(sorted);
+
+		int n = sorted.length;
+		return n % 2 == 1 ? sorted[n / 2] : (sorted[n / 2 - 1] + sorted[n / 2]) / 2;
+	}
+
+	private static double bruteMad(double[] stream, int last, int window) {
+		double median = bruteMedian(stream, last, window);
+		double[] deviations = Arrays.copyOfRange(stream, Math.max(0, last - window + 1), last + 1);
+		for (int i = 0; i < deviations.length; i++)
+			deviations[i] = Math.abs(deviations[i] - median);
+
+		return bruteMedian(deviations, deviations.length - 1, deviations.length);
+	}
+}